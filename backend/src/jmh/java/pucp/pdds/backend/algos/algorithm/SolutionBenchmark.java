@@ -0,0 +1,73 @@
+package pucp.pdds.backend.algos.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import pucp.pdds.backend.algos.benchmark.BenchmarkData;
+import pucp.pdds.backend.algos.utils.DistanceCache;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolutionBenchmark {
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkData.Scale scale;
+
+    private BenchmarkData data;
+    private Environment environment;
+    private Solution solution;
+    private Algorithm.NeighborhoodGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = BenchmarkData.load(scale);
+        environment = data.environment();
+        solution = environment.getRandomSolution();
+        solution.fitness();
+        generator = new Algorithm.NeighborhoodGenerator(new SplittableRandom(42));
+    }
+
+    /**
+     * Full evaluation: the copy has no cached route evaluations, so every route is simulated.
+     */
+    @Benchmark
+    public double simulate() {
+        Solution copy = new Solution(environment);
+        for (Map.Entry<Integer, List<Node>> entry : solution.routes.entrySet()) {
+            copy.routes.put(entry.getKey(), entry.getValue());
+        }
+        return copy.fitness();
+    }
+
+    @Benchmark
+    public Solution cloneSolution() {
+        return solution.clone();
+    }
+
+    @Benchmark
+    public List<Algorithm.Neighbor> generateNeighborhood() {
+        return generator.generateNeighborhood(solution, environment);
+    }
+
+    /**
+     * Distance matrix of a new interval without any distance reused from previous intervals.
+     */
+    @Benchmark
+    public DistanceMatrix distanceMatrix() {
+        DistanceCache.clear();
+        return new DistanceMatrix(environment.getNodes(), new ArrayList<>(environment.blockages));
+    }
+}
@@ -0,0 +1,211 @@
+package pucp.pdds.backend.algos.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import pucp.pdds.backend.algos.algorithm.Environment;
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.entities.PlannerMaintenance;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.entities.PlannerVehicle;
+import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+import pucp.pdds.backend.algos.scheduler.SchedulerState;
+import pucp.pdds.backend.algos.utils.Position;
+import pucp.pdds.backend.algos.utils.SimulationProperties;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * Fixtures for the benchmarks, built from the same files that scripts/insert_all_data.py
+ * loads into the database (scripts/data). The folder is taken from the jmh.data system
+ * property. Every call builds new entities, so benchmarks can mutate them freely.
+ */
+public class BenchmarkData {
+    public enum Scale {
+        SMALL(50), MEDIUM(200), LARGE(600);
+
+        public final int orders;
+
+        Scale(int orders) {
+            this.orders = orders;
+        }
+    }
+
+    private static final int YEAR = 2025;
+    private static final int MONTH = 1;
+    private static final Pattern DAY_TIME = Pattern.compile("(\\d+)d(\\d+)h(\\d+)m");
+
+    public final Time initTime = new Time(YEAR, MONTH, 1, 0, 0);
+    public final Time currentTime;
+    public final int minutesToSimulate = SimulationProperties.replanningInterval;
+    public final List<PlannerVehicle> vehicles;
+    public final List<PlannerOrder> orders;
+    public final List<PlannerWarehouse> warehouses;
+    public final List<PlannerBlockage> blockages;
+    public final List<PlannerMaintenance> maintenances;
+
+    /**
+     * Takes the first scale.orders orders of the month and places the clock at the arrival of
+     * the last one, so every order of the fixture is already registered.
+     */
+    public static BenchmarkData load(Scale scale) {
+        return new BenchmarkData(dataDirectory(), scale);
+    }
+
+    private BenchmarkData(Path dir, Scale scale) {
+        this.vehicles = parseVehicles(dir.resolve("vehiculos.txt"));
+        this.warehouses = parseWarehouses(dir.resolve("almacenes.txt"));
+        this.orders = parseOrders(dir.resolve(String.format("ventas%04d%02d.txt", YEAR, MONTH)), scale.orders);
+        this.blockages = parseBlockages(dir.resolve(String.format("%04d%02d.bloqueos.txt", YEAR, MONTH)));
+        this.maintenances = parseMaintenances(dir.resolve(String.format("mantenimientos%04d%02d.txt", YEAR, MONTH)));
+        this.currentTime = orders.get(orders.size() - 1).arrivalTime.clone();
+    }
+
+    public List<PlannerBlockage> getBlockagesOverTimeFrame(Time start, Time end) {
+        List<PlannerBlockage> active = new ArrayList<>();
+        for (PlannerBlockage blockage : blockages) {
+            if (blockage.startTime.isBeforeOrAt(end) && blockage.endTime.isAfterOrAt(start)) {
+                active.add(blockage);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Same environment WeeklyScheduler hands to the algorithm at the start of an interval.
+     */
+    public Environment environment() {
+        return new Environment(
+            vehicles,
+            orders,
+            warehouses,
+            getBlockagesOverTimeFrame(currentTime, currentTime.addMinutes(minutesToSimulate)),
+            new ArrayList<>(),
+            new ArrayList<>(),
+            currentTime,
+            minutesToSimulate
+        );
+    }
+
+    public SchedulerState schedulerState() {
+        return new SchedulerState(vehicles, orders, blockages, warehouses, new ArrayList<>(), maintenances,
+            currentTime.clone(), minutesToSimulate, initTime);
+    }
+
+    private static Path dataDirectory() {
+        Path dir = Path.of(System.getProperty("jmh.data", "../scripts/data"));
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalStateException("No se encontró la carpeta de datos: " + dir.toAbsolutePath());
+        }
+        return dir;
+    }
+
+    private static List<String> readLines(Path file) {
+        try {
+            List<String> lines = new ArrayList<>();
+            for (String line : Files.readAllLines(file)) {
+                line = line.strip();
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Time parseDayTime(String text) {
+        Matcher matcher = DAY_TIME.matcher(text);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Formato de tiempo inválido: " + text);
+        }
+        return new Time(YEAR, MONTH, Integer.parseInt(matcher.group(1)),
+            Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+    }
+
+    // Format: TA,2.5,25,12.5,15.0,2 (tipo, tara en t, GLP máximo, peso GLP, peso total, unidades)
+    private static List<PlannerVehicle> parseVehicles(Path file) {
+        List<PlannerVehicle> vehicles = new ArrayList<>();
+        int id = 1;
+        for (String line : readLines(file)) {
+            String[] parts = line.split(",");
+            String type = parts[0].strip();
+            double weight = Double.parseDouble(parts[1].strip()) * 1000;
+            int maxGLP = Integer.parseInt(parts[2].strip());
+            int units = Integer.parseInt(parts[5].strip());
+            for (int i = 1; i <= units; i++) {
+                vehicles.add(new PlannerVehicle(id++, String.format("%s%02d", type, i), type,
+                    PlannerVehicle.VehicleState.IDLE, weight, 25, 25.0, maxGLP, maxGLP, new Position(12, 8), false));
+            }
+        }
+        return vehicles;
+    }
+
+    // Format: 12,8,1000,main
+    private static List<PlannerWarehouse> parseWarehouses(Path file) {
+        List<PlannerWarehouse> warehouses = new ArrayList<>();
+        int id = 1;
+        for (String line : readLines(file)) {
+            String[] parts = line.split(",");
+            boolean isMain = parts.length == 4 && parts[3].strip().equalsIgnoreCase("main");
+            int capacity = isMain ? 1_000_000_000 : (int) Double.parseDouble(parts[2].strip());
+            Position position = new Position(Integer.parseInt(parts[0].strip()), Integer.parseInt(parts[1].strip()));
+            warehouses.add(new PlannerWarehouse(id++, position, capacity, capacity, isMain, false));
+        }
+        return warehouses;
+    }
+
+    // Format: 01d00h24m:16,13,c-198,3m3,4h
+    private static List<PlannerOrder> parseOrders(Path file, int limit) {
+        List<PlannerOrder> orders = new ArrayList<>();
+        for (String line : readLines(file)) {
+            if (orders.size() == limit) {
+                break;
+            }
+            String[] timeAndData = line.split(":", 2);
+            String[] parts = timeAndData[1].split(",");
+            Time arrival = parseDayTime(timeAndData[0]);
+            Position position = new Position(Integer.parseInt(parts[0].strip()), Integer.parseInt(parts[1].strip()));
+            int amountGLP = Integer.parseInt(parts[3].strip().replace("m3", ""));
+            int deadlineHours = Integer.parseInt(parts[4].strip().replace("h", ""));
+            orders.add(new PlannerOrder(orders.size() + 1, arrival, position, amountGLP, parts[2].strip(),
+                arrival.addMinutes(deadlineHours * 60)));
+        }
+        return orders;
+    }
+
+    // Format: 01d00h31m-01d21h35m:15,10,30,10,30,18
+    private static List<PlannerBlockage> parseBlockages(Path file) {
+        List<PlannerBlockage> blockages = new ArrayList<>();
+        for (String line : readLines(file)) {
+            String[] rangeAndVertices = line.split(":", 2);
+            String[] range = rangeAndVertices[0].split("-");
+            String[] coordinates = rangeAndVertices[1].split(",");
+            List<Position> vertices = new ArrayList<>();
+            for (int i = 0; i + 1 < coordinates.length; i += 2) {
+                vertices.add(new Position(Integer.parseInt(coordinates[i].strip()), Integer.parseInt(coordinates[i + 1].strip())));
+            }
+            blockages.add(new PlannerBlockage(blockages.size() + 1, parseDayTime(range[0]), parseDayTime(range[1]), vertices));
+        }
+        return blockages;
+    }
+
+    // Format: 20250101:TA02 (mantenimiento de todo el día)
+    private static List<PlannerMaintenance> parseMaintenances(Path file) {
+        List<PlannerMaintenance> maintenances = new ArrayList<>();
+        for (String line : readLines(file)) {
+            String[] parts = line.split(":");
+            String date = parts[0].strip();
+            Time start = new Time(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(4, 6)),
+                Integer.parseInt(date.substring(6, 8)), 0, 0);
+            maintenances.add(new PlannerMaintenance(maintenances.size() + 1, parts[1].strip(), start, start.addMinutes(24 * 60 - 1)));
+        }
+        return maintenances;
+    }
+}
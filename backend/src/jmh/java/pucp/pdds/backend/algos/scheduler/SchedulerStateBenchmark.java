@@ -0,0 +1,54 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import pucp.pdds.backend.algos.algorithm.Solution;
+import pucp.pdds.backend.algos.benchmark.BenchmarkData;
+
+/**
+ * Simulates a whole replanning interval (one advance per minute) from a fresh copy of the
+ * state, the same way WeeklyScheduler applies a solution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulerStateBenchmark {
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkData.Scale scale;
+
+    private SchedulerState initialState;
+    private SchedulerState state;
+    private Solution solution;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkData data = BenchmarkData.load(scale);
+        initialState = data.schedulerState();
+        initialState.initializeVehicles();
+        solution = data.environment().getRandomSolution();
+        solution.fitness();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetState() {
+        state = initialState.clone();
+    }
+
+    @Benchmark
+    public SchedulerState advanceInterval() {
+        for (int i = 0; i < state.minutesToSimulate; i++) {
+            state.advance(solution, false);
+        }
+        return state;
+    }
+}
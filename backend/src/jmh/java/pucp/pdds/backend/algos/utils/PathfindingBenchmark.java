@@ -0,0 +1,84 @@
+package pucp.pdds.backend.algos.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import pucp.pdds.backend.algos.benchmark.BenchmarkData;
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+
+/**
+ * Each invocation routes the next pair of a fixed list of (order / warehouse) positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathfindingBenchmark {
+    private static final int PAIRS = 1024;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkData.Scale scale;
+
+    private List<PlannerBlockage> blockages;
+    private BlockageGrid grid;
+    private Position[] from = new Position[PAIRS];
+    private Position[] to = new Position[PAIRS];
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkData data = BenchmarkData.load(scale);
+        blockages = data.getBlockagesOverTimeFrame(data.currentTime, data.currentTime.addMinutes(data.minutesToSimulate));
+        grid = BlockageGrid.of(blockages);
+
+        List<Position> positions = new ArrayList<>();
+        for (PlannerWarehouse warehouse : data.warehouses) {
+            positions.add(warehouse.position);
+        }
+        for (PlannerOrder order : data.orders) {
+            positions.add(order.position);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = positions.get(random.nextInt(positions.size()));
+            to[i] = positions.get(random.nextInt(positions.size()));
+        }
+    }
+
+    private int nextPair() {
+        int i = next;
+        next = (next + 1) % PAIRS;
+        return i;
+    }
+
+    @Benchmark
+    public List<Position> findPath() {
+        int i = nextPair();
+        return AStarPathfinder.findPath(from[i], to[i], grid);
+    }
+
+    @Benchmark
+    public List<Position> buildPath() {
+        int i = nextPair();
+        return PathBuilder.buildPath(from[i], to[i], blockages);
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        int i = nextPair();
+        return PathBuilder.calculateDistance(from[i], to[i], blockages);
+    }
+}
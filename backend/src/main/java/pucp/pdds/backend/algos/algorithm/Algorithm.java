@@ -1,11 +1,16 @@
 package pucp.pdds.backend.algos.algorithm;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import pucp.pdds.backend.algos.utils.DistanceCache;
 import pucp.pdds.backend.algos.utils.SimulationProperties;
 
 public class Algorithm {
@@ -15,9 +20,50 @@ public class Algorithm {
     private static int maxNoImprovementFeasible = 500; 
     private static int neighborsPerOperator = 100; // Más vecinos por operador
 
+    // Pesos adaptativos de operadores (ALNS): el presupuesto de vecinos se reparte según el peso
+    private static int minNeighborsPerOperator = 10; // Ningún operador se apaga del todo
+    private static int operatorSegmentLength = 5; // Vecindarios entre actualizaciones de pesos
+    private static double operatorReaction = 0.3; // Cuánto pesa el último segmento en el peso nuevo
+    private static double scoreImproving = 1.0; // Vecino mejor que la solución actual
+    private static double scoreSelected = 4.0; // Vecino elegido como siguiente solución
+    private static double scoreNewBest = 10.0; // Vecino que mejora la mejor solución de la cadena
+
+    /**
+     * How many candidates of a neighborhood are scored before moving:
+     * BEST_IMPROVEMENT scores all of them, FIRST_IMPROVEMENT moves to the first one that improves the
+     * current solution and K_SAMPLE scores at least sampleSize and moves to the best of them if it
+     * improves (otherwise keeps scoring until one does).
+     */
+    public enum EvaluationStrategy {
+        BEST_IMPROVEMENT,
+        FIRST_IMPROVEMENT,
+        K_SAMPLE
+    }
+
+    private static EvaluationStrategy defaultEvaluationStrategy = EvaluationStrategy.K_SAMPLE;
+    private static int sampleSize = 50; // Vecinos evaluados como mínimo con K_SAMPLE
+
     private boolean isDebug;
     private int ceilingMaxTimeMs = 15 * 1000;
-    private static final Random random = new Random();
+    private int workers = SimulationProperties.algorithmWorkers;
+    private Long seed = SimulationProperties.algorithmSeed;
+    private EvaluationStrategy evaluationStrategy = defaultEvaluationStrategy;
+
+    // Anytime: cada mejora se publica al listener y el llamador puede cortar la búsqueda con requestStop()
+    private PlanningListener listener;
+    private volatile boolean stopRequested = false;
+    private volatile long deadline = Long.MAX_VALUE; // Fin del presupuesto de tiempo de run(), también lo miran las cadenas
+    private volatile Solution bestSoFar;
+    // Mejor solución publicada en esta ejecución; las cadenas la comparan y reemplazan bajo publishLock
+    private final Object publishLock = new Object();
+    private boolean publishedFeasible;
+    private double publishedFitness;
+    private volatile int currentRound;
+    private volatile int currentIteration;
+    private long publishStartTime;
+    private Map<Movement.MovementType, OperatorStats> operatorStats;
+
+    private Solution warmStart; // Plan del intervalo anterior, null = empezar solo con la heurística
 
     public Algorithm(boolean isDebug) {
         this.isDebug = isDebug;
@@ -28,59 +74,150 @@ public class Algorithm {
         this.ceilingMaxTimeMs = ceilingMaxTimeMs;
     }
 
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public void setEvaluationStrategy(EvaluationStrategy evaluationStrategy) {
+        this.evaluationStrategy = evaluationStrategy;
+    }
+
+    /**
+     * Plan of the previous interval. run() rebuilds it on the new environment and starts the
+     * search from it when it is better than the constructive heuristic.
+     */
+    public void setWarmStart(Solution previous) {
+        this.warmStart = previous;
+    }
+
+    public void setListener(PlanningListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ends the search as soon as the running chains notice it; run() then returns the best solution
+     * found so far. Can be called from any thread.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Best solution found so far (a snapshot, feasible solutions first), null before run() starts.
+     */
+    public Solution getBestSoFar() {
+        return bestSoFar;
+    }
+
+    /**
+     * Per-operator statistics of the last run(), summed over all search chains. Null before run().
+     */
+    public Map<Movement.MovementType, OperatorStats> getOperatorStats() {
+        return operatorStats;
+    }
+
+    /**
+     * Multi-start search. Every round, each worker runs an independent local search
+     * chain from the current incumbent; the round results are reduced in worker order
+     * so that, with a fixed seed, the sequence of incumbents only depends on how many
+     * rounds fit in the time budget (same guarantee as the single-threaded search).
+     */
     public Solution run(Environment environment, int minutes) {
         int realMaxTimeMs = Math.min(maxTimeMs, ceilingMaxTimeMs);
+        int workerCount = Math.max(1, workers);
 
-        long startTime = System.currentTimeMillis();
+        // Distances are precomputed before the timer starts, so the whole budget goes to the search.
+        // This also builds the lazy environment data that the workers only read.
+        DistanceMatrix distances = environment.getDistanceMatrix();
         if (isDebug) {
-            System.out.println("Algorithm started. Max time: " + realMaxTimeMs + "ms");
+            System.out.println("Distance matrix: " + distances.size() + " positions, " + distances.getPairCount()
+                + " pairs in " + distances.getBuildTimeMs() + "ms, " + distances.getCacheHits() + " pairs from cache"
+                + " (cache total: " + DistanceCache.getHits() + " hits, " + DistanceCache.getMisses() + " misses, "
+                + DistanceCache.size() + " entries)");
         }
 
-        // Initial solution using one run of local search from a random start
-        Solution bestSolution = _run(environment, minutes, null);
-        double bestFitness = bestSolution.fitness();
-        Solution bestFeasibleSolution = null;
-        double bestFeasibleFitness = Double.NEGATIVE_INFINITY;
+        long startTime = System.currentTimeMillis();
+        deadline = startTime + realMaxTimeMs;
+        if (isDebug) {
+            System.out.println("Algorithm started. Max time: " + realMaxTimeMs + "ms, workers: " + workerCount + ", evaluation: " + evaluationStrategy);
+        }
 
-        if (bestSolution.isFeasible()) {
-            bestFeasibleSolution = bestSolution;
-            bestFeasibleFitness = bestFitness;
+        Solution startingSolution = environment.getRandomSolution();
+        if (warmStart != null) {
+            Solution warmSolution = environment.getWarmStartSolution(warmStart);
+            boolean warmIsBetter = (warmSolution.isFeasible() && !startingSolution.isFeasible())
+                || (warmSolution.isFeasible() == startingSolution.isFeasible() && warmSolution.fitness() > startingSolution.fitness());
             if (isDebug) {
-                System.out.println("Initial feasible solution found. Fitness: " + bestFeasibleFitness);
+                System.out.println("Warm start fitness: " + warmSolution.fitness() + " (feasible: " + warmSolution.isFeasible()
+                    + "), heuristic fitness: " + startingSolution.fitness() + " (feasible: " + startingSolution.isFeasible()
+                    + "). Starting from the " + (warmIsBetter ? "previous plan." : "heuristic."));
             }
-        } else {
-            if (isDebug) {
-                System.out.println("Initial solution is not feasible. Fitness: " + bestFitness);
+            if (warmIsBetter) {
+                startingSolution = warmSolution;
             }
         }
 
-        int iterations = 0;
-        while (System.currentTimeMillis() - startTime < realMaxTimeMs) {
-            iterations++;
+        synchronized (publishLock) {
+            bestSoFar = null;
+            publishStartTime = startTime;
+        }
+        currentRound = 0;
+        currentIteration = 0;
+        publishIfBetter(startingSolution, startingSolution.fitness());
+
+        // One generator per search chain, each with its own split (independent) random stream
+        SplittableRandom seeder = (seed != null) ? new SplittableRandom(seed) : new SplittableRandom();
+        NeighborhoodGenerator[] generators = new NeighborhoodGenerator[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            generators[i] = new NeighborhoodGenerator(seeder.split());
+        }
 
-            // Perturb the current best solution to escape local optima. Prefer perturbing the best feasible solution.
-            Solution solutionToPerturb = bestFeasibleSolution != null ? bestFeasibleSolution : bestSolution;
-            // Solution perturbedSolution = perturb(solutionToPerturb, environment);
+        ForkJoinPool pool = (workerCount > 1) ? sharedPool(workerCount) : null;
 
-            // Run local search from the perturbed solution
-            // Solution newSolution = _run(environment, minutes, perturbedSolution);
-            Solution newSolution = _run(environment, minutes, solutionToPerturb);
-            double newFitness = newSolution.fitness();
+        Solution bestSolution = null;
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        Solution bestFeasibleSolution = null;
+        double bestFeasibleFitness = Double.NEGATIVE_INFINITY;
 
-            boolean newIsFeasible = newSolution.isFeasible();
+        int iterations = 0;
+        int rounds = 0;
+        do {
+            rounds++;
+            currentRound = rounds;
+
+            // Restart from the best solution found so far. Prefer the best feasible solution.
+            Solution solutionToPerturb = bestFeasibleSolution != null ? bestFeasibleSolution
+                : bestSolution != null ? bestSolution : startingSolution;
+
+            List<Solution> roundSolutions;
+            try {
+                roundSolutions = runRound(pool, environment, minutes, solutionToPerturb, generators);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopRequested = true; // Las cadenas que sigan en el pool terminan en su siguiente paso
+                break;
+            }
 
-            // Update best overall solution (feasible or not)
-            if (newFitness > bestFitness) {
-                bestSolution = newSolution;
-                bestFitness = newFitness;
-                if (isDebug) {
-                    System.out.println("New best infeasible solution found at iteration " + iterations + ". Fitness: " + bestFitness);
+            for (Solution newSolution : roundSolutions) {
+                iterations++;
+                double newFitness = newSolution.fitness();
+                boolean newIsFeasible = newSolution.isFeasible();
+
+                // Update best overall solution (feasible or not)
+                if (bestSolution == null || newFitness > bestFitness) {
+                    bestSolution = newSolution;
+                    bestFitness = newFitness;
+                    if (isDebug) {
+                        System.out.println("New best solution found at iteration " + iterations + ". Fitness: " + bestFitness);
+                    }
                 }
-            }
 
-            // Update best feasible solution
-            if (newIsFeasible) {
-                if (bestFeasibleSolution == null || newFitness > bestFeasibleFitness) {
+                // Update best feasible solution
+                if (newIsFeasible && (bestFeasibleSolution == null || newFitness > bestFeasibleFitness)) {
                     bestFeasibleSolution = newSolution;
                     bestFeasibleFitness = newFitness;
                     if (isDebug) {
@@ -89,14 +226,27 @@ public class Algorithm {
                 }
             }
 
-            if (iterations % 1000 == 0) {
-                System.out.println("Iteration " + iterations + ", " + (System.currentTimeMillis() - startTime) + "ms of " + realMaxTimeMs + "ms");
+            currentIteration = iterations;
+
+            if (rounds % 1000 == 0) {
+                System.out.println("Round " + rounds + ", " + (System.currentTimeMillis() - startTime) + "ms of " + realMaxTimeMs + "ms");
                 Thread.yield();
             }
+        } while (!shouldStop());
+
+        operatorStats = NeighborhoodGenerator.mergeStats(generators);
+
+        if (bestSolution == null) {
+            bestSolution = startingSolution;
+            bestFitness = startingSolution.fitness();
         }
 
         if (isDebug) {
-            System.out.println("Algorithm finished in " + (System.currentTimeMillis() - startTime) + "ms after " + iterations + " iterations.");
+            System.out.println("Algorithm finished in " + (System.currentTimeMillis() - startTime) + "ms after " + iterations + " iterations (" + rounds + " rounds)"
+                + (stopRequested ? ", stopped early." : "."));
+            for (Map.Entry<Movement.MovementType, OperatorStats> entry : operatorStats.entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+            }
             if (bestFeasibleSolution != null) {
                 System.out.println("Best feasible solution fitness: " + bestFeasibleFitness);
             } else {
@@ -110,14 +260,82 @@ public class Algorithm {
         return solutionToReturn;
     }
 
-    private Solution _run(Environment environment, int minutes, Solution initialSolution) {
+    /**
+     * Publishes solution if it beats the best published so far (feasible first, then fitness). Called by
+     * the chains as soon as they improve; the listener gets a clone made on the calling thread, so it
+     * never touches a solution a chain is still working with.
+     */
+    private void publishIfBetter(Solution solution, double fitness) {
+        boolean feasible = solution.isFeasible();
+        synchronized (publishLock) {
+            if (bestSoFar != null && !((feasible && !publishedFeasible)
+                    || (feasible == publishedFeasible && fitness > publishedFitness))) {
+                return;
+            }
+            Solution snapshot = solution.clone();
+            publishedFeasible = feasible;
+            publishedFitness = fitness;
+            bestSoFar = snapshot;
+            // Bajo el lock para que el listener reciba las mejoras en orden
+            if (listener != null) {
+                listener.onImprovement(new PlanningProgress(snapshot, fitness, feasible,
+                    currentIteration, currentRound, System.currentTimeMillis() - publishStartTime));
+            }
+        }
+    }
+
+    // Stop requested or time budget spent: chains return their best and run() ends after the round
+    private boolean shouldStop() {
+        return stopRequested || System.currentTimeMillis() >= deadline;
+    }
+
+    // Pool compartido entre ejecuciones; se reemplaza solo si se piden más workers
+    private static ForkJoinPool sharedPool;
+
+    private static synchronized ForkJoinPool sharedPool(int workers) {
+        if (sharedPool == null || sharedPool.getParallelism() < workers) {
+            ForkJoinPool previous = sharedPool;
+            sharedPool = new ForkJoinPool(workers);
+            if (previous != null) {
+                previous.shutdown(); // Las rondas que ya estén en él terminan normalmente
+            }
+        }
+        return sharedPool;
+    }
+
+    private List<Solution> runRound(ForkJoinPool pool, Environment environment, int minutes, Solution initialSolution,
+            NeighborhoodGenerator[] generators) throws InterruptedException {
+        if (pool == null) {
+            return List.of(_run(environment, minutes, initialSolution, generators[0]));
+        }
+
+        // Each chain gets its own copy, cloned here: clone() resets the source's copy-on-write
+        // bookkeeping, so the chains must not clone the shared incumbent concurrently
+        List<Callable<Solution>> chains = new ArrayList<>();
+        for (NeighborhoodGenerator generator : generators) {
+            Solution chainStart = initialSolution == null ? null : initialSolution.clone();
+            chains.add(() -> _run(environment, minutes, chainStart, generator));
+        }
+
+        List<Solution> solutions = new ArrayList<>();
+        for (Future<Solution> chain : pool.invokeAll(chains)) {
+            try {
+                solutions.add(chain.get());
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Search chain failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return solutions;
+    }
+
+    private Solution _run(Environment environment, int minutes, Solution initialSolution, NeighborhoodGenerator generator) {
         Solution currSolution = (initialSolution == null) ? environment.getRandomSolution() : initialSolution.clone();
         Solution bestSolution = currSolution.clone();
         double bestFitness = bestSolution.fitness();
         double currFitness = bestFitness;
         int noImprovementCount = 0;
 
-        while (true) {
+        while (!shouldStop()) {
             boolean isFeasible = bestSolution.isFeasible();
 
             // Check termination conditions
@@ -134,20 +352,55 @@ public class Algorithm {
                 break;
             }
 
-            List<Neighbor> neighborhood = NeighborhoodGenerator.generateNeighborhood(currSolution, environment);
+            Iterator<Neighbor> neighborhood = generator.neighbors(currSolution);
 
             Neighbor bestNeighbor = null;
             double bestNeighborFitness = Double.NEGATIVE_INFINITY;
+            int evaluated = 0;
+            boolean accepted = false;
+
+            // Candidates are built in batches (sequentially, the generator's random is not shared),
+            // scored in parallel and then reviewed in order until the strategy accepts one (no tabu logic).
+            // The review order does not depend on the threads, so results stay reproducible.
+            int batchSize = SimulationProperties.parallelNeighborScoring ? SimulationProperties.neighborScoringBatch : 1;
+            List<Neighbor> batch = new ArrayList<>(batchSize);
+            while (!accepted && neighborhood.hasNext()) {
+                if (shouldStop()) {
+                    break; // Keep the chain's best, the partial neighborhood is discarded
+                }
+                batch.clear();
+                while (batch.size() < batchSize && neighborhood.hasNext()) {
+                    batch.add(neighborhood.next());
+                }
+                if (batch.size() > 1) {
+                    // Inside the chains' pool the stream uses that pool, idle workers help the busy chains
+                    batch.parallelStream().forEach(neighbor -> neighbor.solution.fitness());
+                }
 
-            // Find best neighbor (no tabu logic)
-            for (Neighbor neighbor : neighborhood) {
-                double neighborFitness = neighbor.solution.fitness();
-                if (neighborFitness > bestNeighborFitness) {
-                    bestNeighbor = neighbor;
-                    bestNeighborFitness = neighborFitness;
+                for (Neighbor neighbor : batch) {
+                    evaluated++;
+                    double neighborFitness = neighbor.solution.fitness();
+                    if (neighborFitness > currFitness) {
+                        generator.recordImproving(neighbor.movement.movementType);
+                    }
+                    if (neighborFitness > bestNeighborFitness) {
+                        bestNeighbor = neighbor;
+                        bestNeighborFitness = neighborFitness;
+                    }
+
+                    boolean improves = bestNeighborFitness > currFitness;
+                    if (improves && (evaluationStrategy == EvaluationStrategy.FIRST_IMPROVEMENT
+                            || (evaluationStrategy == EvaluationStrategy.K_SAMPLE && evaluated >= sampleSize))) {
+                        accepted = true;
+                        break;
+                    }
                 }
             }
 
+            if (shouldStop()) {
+                break;
+            }
+
             if (bestNeighbor != null && bestNeighborFitness > currFitness) {
                 currSolution = bestNeighbor.solution;
                 currFitness = bestNeighborFitness;
@@ -159,8 +412,11 @@ public class Algorithm {
                     bestSolution = currSolution.clone();
                     bestFitness = currFitness;
                     noImprovementCount = 0;
+                    generator.recordSelected(bestNeighbor.movement.movementType, true);
+                    publishIfBetter(bestSolution, bestFitness);
                 } else {
                     noImprovementCount++;
+                    generator.recordSelected(bestNeighbor.movement.movementType, false);
                 }
             } else {
                 // No improvement found, stop (hill climbing terminates at local optimum)
@@ -180,7 +436,11 @@ public class Algorithm {
             INTRA_ROUTE_TWO_OPT, // Essential - local route optimization
             INTER_ROUTE_MOVE,    // Essential - relocate between routes
             INTER_ROUTE_SWAP,    // Essential - exchange between routes
-            INTER_ROUTE_CROSS_EXCHANGE  // Essential - complex multi-point exchange
+            INTER_ROUTE_CROSS_EXCHANGE;  // Essential - complex multi-point exchange
+
+            public boolean isInterRoute() {
+                return this == INTER_ROUTE_MOVE || this == INTER_ROUTE_SWAP || this == INTER_ROUTE_CROSS_EXCHANGE;
+            }
         }
 
         public MovementType movementType;
@@ -238,91 +498,247 @@ public class Algorithm {
         }
     }
 
-    private static class Neighbor {
+    static class Neighbor {
         public Solution solution;
+        public Movement movement;
 
         public Neighbor(Solution solution, Movement movement) {
             this.solution = solution;
+            this.movement = movement;
+        }
+    }
+
+    /**
+     * Counters of one operator. weight is the current ALNS weight (averaged over chains when merged).
+     */
+    public static class OperatorStats {
+        public long generated = 0; // Vecinos generados
+        public long improving = 0; // Vecinos mejores que la solución actual
+        public long selected = 0; // Vecinos elegidos como siguiente solución
+        public long newBest = 0; // Vecinos que mejoraron la mejor solución de la cadena
+        public double weight = 1.0;
+
+        @Override
+        public String toString() {
+            return String.format("weight=%.3f, generated=%d, improving=%d, selected=%d, newBest=%d",
+                weight, generated, improving, selected, newBest);
         }
     }
 
-    private static class NeighborhoodGenerator {
-        private static final Random random = new Random();
+    /**
+     * Operators only move the inner nodes of each route: the first node (vehicle position)
+     * and the last one (final node) stay in place. Node indexes in a Movement are relative
+     * to the inner nodes. Neighbors are copy-on-write clones, so only the routes touched by
+     * a movement are copied.
+     */
+    static class NeighborhoodGenerator {
         private static final int attemptsPerOperation = 10;
+        // INTRA_ROUTE_MOVE sigue deshabilitado como antes del ALNS: no recibe presupuesto
+        private static final Movement.MovementType[] operators = java.util.EnumSet
+            .complementOf(java.util.EnumSet.of(Movement.MovementType.INTRA_ROUTE_MOVE))
+            .toArray(new Movement.MovementType[0]);
+        private static final Movement.MovementType[] types = Movement.MovementType.values(); // Los arreglos van por ordinal
+        private final SplittableRandom random; // Solo lo usa el hilo de la cadena
+
+        // ALNS: cada operador acumula puntaje durante un segmento y al cerrarlo su peso se mueve
+        // hacia el puntaje por vecino generado, así el presupuesto va a los operadores que rinden
+        private final OperatorStats[] stats = new OperatorStats[types.length];
+        private final double[] segmentScores = new double[types.length];
+        private final int[] segmentGenerated = new int[types.length];
+        private int segmentNeighborhoods = 0;
+
+        public NeighborhoodGenerator(SplittableRandom random) {
+            this.random = random;
+            for (int i = 0; i < types.length; i++) {
+                stats[i] = new OperatorStats();
+            }
+        }
 
-        public static List<Neighbor> generateNeighborhood(Solution solution, Environment environment) {
-            List<Neighbor> neighbors = new ArrayList<>();
-            Solution trimmedSolution = solution.clone();
-
-            Map<Integer, Node> startNodes = new HashMap<>();
-            Map<Integer, Node> finalNodes = new HashMap<>();
-            for (Map.Entry<Integer, List<Node>> entry : trimmedSolution.routes.entrySet()) {
-                startNodes.put(entry.getKey(), entry.getValue().getFirst());
-                entry.getValue().removeFirst();
-                finalNodes.put(entry.getKey(), entry.getValue().getLast());
-                entry.getValue().removeLast();
-            }
-
-            for (Movement.MovementType operator : Movement.MovementType.values()) {
-                for (int i = 0; i < neighborsPerOperator; i++) {
-                    int attempts = 0;
-                    Neighbor neighbor = null;
-                    while (attempts < attemptsPerOperation && neighbor == null) {
-                        switch (operator) {
-                            case INTRA_ROUTE_MOVE:
-                                neighbor = intraRouteMove(trimmedSolution);
-                                neighbor = null;
-                                break;
-                            case INTRA_ROUTE_SWAP:
-                                neighbor = intraRouteSwap(trimmedSolution);
-                                break;
-                            case INTRA_ROUTE_TWO_OPT:
-                                neighbor = intraRouteTwoOpt(trimmedSolution);
-                                break;
-                            case INTER_ROUTE_MOVE:
-                                neighbor = interRouteMove(trimmedSolution);
-                                break;
-                            case INTER_ROUTE_SWAP:
-                                neighbor = interRouteSwap(trimmedSolution);
-                                break;
-                            case INTER_ROUTE_CROSS_EXCHANGE:
-                                neighbor = interRouteCrossExchange(trimmedSolution);
-                                break;
-                        }
-                        attempts++;
+        void recordImproving(Movement.MovementType operator) {
+            stats[operator.ordinal()].improving++;
+            segmentScores[operator.ordinal()] += scoreImproving;
+        }
+
+        void recordSelected(Movement.MovementType operator, boolean newBest) {
+            OperatorStats operatorStats = stats[operator.ordinal()];
+            operatorStats.selected++;
+            segmentScores[operator.ordinal()] += scoreSelected;
+            if (newBest) {
+                operatorStats.newBest++;
+                segmentScores[operator.ordinal()] += scoreNewBest;
+            }
+        }
+
+        // Neighbors per operator for the next neighborhood, proportional to the weights
+        private int[] neighborBudget() {
+            int total = neighborsPerOperator * operators.length;
+            int adaptive = Math.max(0, total - minNeighborsPerOperator * operators.length);
+            double weightSum = 0;
+            for (Movement.MovementType operator : operators) {
+                weightSum += stats[operator.ordinal()].weight;
+            }
+
+            int[] budget = new int[types.length];
+            for (Movement.MovementType operator : operators) {
+                int i = operator.ordinal();
+                double share = weightSum > 0 ? stats[i].weight / weightSum : 1.0 / operators.length;
+                budget[i] = minNeighborsPerOperator + (int) Math.round(adaptive * share);
+            }
+            return budget;
+        }
+
+        // Scores per generated neighbor are normalized by their mean, so weights stay around 1
+        private void updateWeights() {
+            double[] scorePerNeighbor = new double[types.length];
+            double meanScore = 0;
+            for (Movement.MovementType operator : operators) {
+                int i = operator.ordinal();
+                scorePerNeighbor[i] = segmentScores[i] / Math.max(1, segmentGenerated[i]);
+                meanScore += scorePerNeighbor[i] / operators.length;
+            }
+            for (Movement.MovementType operator : operators) {
+                int i = operator.ordinal();
+                if (meanScore > 0) {
+                    stats[i].weight = (1 - operatorReaction) * stats[i].weight + operatorReaction * scorePerNeighbor[i] / meanScore;
+                }
+                segmentScores[i] = 0;
+                segmentGenerated[i] = 0;
+            }
+            segmentNeighborhoods = 0;
+        }
+
+        static Map<Movement.MovementType, OperatorStats> mergeStats(NeighborhoodGenerator[] generators) {
+            Map<Movement.MovementType, OperatorStats> merged = new java.util.EnumMap<>(Movement.MovementType.class);
+            for (Movement.MovementType operator : operators) {
+                OperatorStats total = new OperatorStats();
+                total.weight = 0;
+                for (NeighborhoodGenerator generator : generators) {
+                    OperatorStats operatorStats = generator.stats[operator.ordinal()];
+                    total.generated += operatorStats.generated;
+                    total.improving += operatorStats.improving;
+                    total.selected += operatorStats.selected;
+                    total.newBest += operatorStats.newBest;
+                    total.weight += operatorStats.weight / generators.length;
+                }
+                merged.put(operator, total);
+            }
+            return merged;
+        }
+
+        /**
+         * Lazy neighborhood: each call to next() builds one neighbor, so the caller only pays for
+         * the candidates it evaluates. The operator budget (see neighborBudget) is visited in a
+         * random order, so stopping early does not favor the first operators.
+         */
+        public Iterator<Neighbor> neighbors(Solution solution) {
+            if (segmentNeighborhoods >= operatorSegmentLength) {
+                updateWeights();
+            }
+            segmentNeighborhoods++;
+            int[] budget = neighborBudget();
+
+            int total = 0;
+            for (int count : budget) {
+                total += count;
+            }
+            int[] schedule = new int[total];
+            int position = 0;
+            for (Movement.MovementType operator : operators) {
+                for (int j = 0; j < budget[operator.ordinal()]; j++) {
+                    schedule[position++] = operator.ordinal();
+                }
+            }
+            for (int i = schedule.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = schedule[i];
+                schedule[i] = schedule[j];
+                schedule[j] = swap;
+            }
+
+            return new Iterator<Neighbor>() {
+                private int cursor = 0;
+                private Neighbor nextNeighbor = null;
+
+                @Override
+                public boolean hasNext() {
+                    while (nextNeighbor == null && cursor < schedule.length) {
+                        nextNeighbor = generateNeighbor(types[schedule[cursor++]], solution);
                     }
+                    return nextNeighbor != null;
+                }
 
-                    if (neighbor != null) {
-                        // Re-add start/end nodes
-                        for (Map.Entry<Integer, Node> entry : startNodes.entrySet()) {
-                            neighbor.solution.routes.get(entry.getKey()).addFirst(entry.getValue());
-                        }
-                        for (Map.Entry<Integer, Node> entry : finalNodes.entrySet()) {
-                            neighbor.solution.routes.get(entry.getKey()).addLast(entry.getValue());
-                        }
-                        neighbors.add(neighbor);
+                @Override
+                public Neighbor next() {
+                    if (!hasNext()) {
+                        throw new java.util.NoSuchElementException();
                     }
+                    Neighbor neighbor = nextNeighbor;
+                    nextNeighbor = null;
+                    return neighbor;
                 }
-            }
-            
+            };
+        }
+
+        public List<Neighbor> generateNeighborhood(Solution solution, Environment environment) {
+            List<Neighbor> neighbors = new ArrayList<>();
+            neighbors(solution).forEachRemaining(neighbors::add);
             return neighbors;
         }
 
-        private static Neighbor intraRouteMove(Solution solution) {
-            Solution newSolution = solution.clone();
-            int vehicleId = getRandomVehicleWithRoute(newSolution);
+        // One neighbor of the given operator, null if no valid move was found in attemptsPerOperation tries
+        private Neighbor generateNeighbor(Movement.MovementType operator, Solution solution) {
+            int attempts = 0;
+            Neighbor neighbor = null;
+            while (attempts < attemptsPerOperation && neighbor == null) {
+                switch (operator) {
+                    case INTRA_ROUTE_MOVE:
+                        neighbor = intraRouteMove(solution);
+                        break;
+                    case INTRA_ROUTE_SWAP:
+                        neighbor = intraRouteSwap(solution);
+                        break;
+                    case INTRA_ROUTE_TWO_OPT:
+                        neighbor = intraRouteTwoOpt(solution);
+                        break;
+                    case INTER_ROUTE_MOVE:
+                        neighbor = interRouteMove(solution);
+                        break;
+                    case INTER_ROUTE_SWAP:
+                        neighbor = interRouteSwap(solution);
+                        break;
+                    case INTER_ROUTE_CROSS_EXCHANGE:
+                        neighbor = interRouteCrossExchange(solution);
+                        break;
+                }
+                attempts++;
+            }
+
+            if (neighbor != null) {
+                stats[operator.ordinal()].generated++;
+                segmentGenerated[operator.ordinal()]++;
+            }
+            return neighbor;
+        }
+
+        private static int innerSize(List<Node> route) {
+            return Math.max(0, route.size() - 2);
+        }
+
+        private Neighbor intraRouteMove(Solution solution) {
+            int vehicleId = getRandomVehicleWithRoute(solution);
             if (vehicleId == -1) return null;
 
-            List<Node> route = newSolution.routes.get(vehicleId);
-            int routeSize = route.size();
+            int routeSize = innerSize(solution.routes.get(vehicleId));
             int indexFrom = random.nextInt(routeSize);
             int indexTo = random.nextInt(routeSize);
 
-            Node nodeToMove = route.remove(indexFrom);
+            Solution newSolution = solution.clone();
+            List<Node> route = newSolution.mutableRoute(vehicleId);
+            Node nodeToMove = route.remove(indexFrom + 1);
             if (indexFrom < indexTo) {
-                route.add(indexTo - 1, nodeToMove);
-            } else {
                 route.add(indexTo, nodeToMove);
+            } else {
+                route.add(indexTo + 1, nodeToMove);
             }
 
             Movement movement = new Movement(Movement.MovementType.INTRA_ROUTE_MOVE);
@@ -333,22 +749,21 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static Neighbor intraRouteSwap(Solution solution) {
-            Solution newSolution = solution.clone();
-            int vehicleId = getRandomVehicleWithRoute(newSolution);
+        private Neighbor intraRouteSwap(Solution solution) {
+            int vehicleId = getRandomVehicleWithRoute(solution);
             if (vehicleId == -1) return null;
             
-            if (newSolution.routes.get(vehicleId).size() < 2) return null;
+            int routeSize = innerSize(solution.routes.get(vehicleId));
+            if (routeSize < 2) return null;
 
-            List<Node> route = newSolution.routes.get(vehicleId);
-            int routeSize = route.size();
             int index1 = random.nextInt(routeSize);
             int index2 = random.nextInt(routeSize);
             while (index1 == index2) {
                 index2 = random.nextInt(routeSize);
             }
 
-            java.util.Collections.swap(route, index1, index2);
+            Solution newSolution = solution.clone();
+            java.util.Collections.swap(newSolution.mutableRoute(vehicleId), index1 + 1, index2 + 1);
 
             Movement movement = new Movement(Movement.MovementType.INTRA_ROUTE_SWAP);
             movement.vehicle1 = vehicleId;
@@ -358,19 +773,18 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static Neighbor intraRouteTwoOpt(Solution solution) {
-            Solution newSolution = solution.clone();
-            int vehicleId = getRandomVehicleWithRoute(newSolution);
+        private Neighbor intraRouteTwoOpt(Solution solution) {
+            int vehicleId = getRandomVehicleWithRoute(solution);
             if (vehicleId == -1) return null;
 
-            List<Node> route = newSolution.routes.get(vehicleId);
-            int routeSize = route.size();
+            int routeSize = innerSize(solution.routes.get(vehicleId));
             if (routeSize < 4) return null;
 
             int i = random.nextInt(routeSize - 2);
             int j = random.nextInt(routeSize - 1 - (i + 1)) + (i + 1);
 
-            List<Node> segmentToReverse = route.subList(i + 1, j + 1);
+            Solution newSolution = solution.clone();
+            List<Node> segmentToReverse = newSolution.mutableRoute(vehicleId).subList(i + 2, j + 2);
             java.util.Collections.reverse(segmentToReverse);
 
             Movement movement = new Movement(Movement.MovementType.INTRA_ROUTE_TWO_OPT);
@@ -381,24 +795,24 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static Neighbor interRouteMove(Solution solution) {
-            Solution newSolution = solution.clone();
-            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(newSolution);
+        private Neighbor interRouteMove(Solution solution) {
+            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(solution);
             if (vehicleIds == null) return null;
 
             int vehicleIdFrom = vehicleIds[0];
             int vehicleIdTo = vehicleIds[1];
 
-            List<Node> routeFrom = newSolution.routes.get(vehicleIdFrom);
-            List<Node> routeTo = newSolution.routes.get(vehicleIdTo);
+            int routeFromSize = innerSize(solution.routes.get(vehicleIdFrom));
+            int routeToSize = innerSize(solution.routes.get(vehicleIdTo));
 
-            if (routeFrom.isEmpty()) return null;
+            if (routeFromSize == 0) return null;
 
-            int indexFrom = random.nextInt(routeFrom.size());
-            int indexTo = random.nextInt(routeTo.size() + 1);
+            int indexFrom = random.nextInt(routeFromSize);
+            int indexTo = random.nextInt(routeToSize + 1);
 
-            Node nodeToMove = routeFrom.remove(indexFrom);
-            routeTo.add(indexTo, nodeToMove);
+            Solution newSolution = solution.clone();
+            Node nodeToMove = newSolution.mutableRoute(vehicleIdFrom).remove(indexFrom + 1);
+            newSolution.mutableRoute(vehicleIdTo).add(indexTo + 1, nodeToMove);
 
             Movement movement = new Movement(Movement.MovementType.INTER_ROUTE_MOVE);
             movement.vehicle1 = vehicleIdFrom;
@@ -409,27 +823,30 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static Neighbor interRouteSwap(Solution solution) {
-            Solution newSolution = solution.clone();
-            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(newSolution);
+        private Neighbor interRouteSwap(Solution solution) {
+            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(solution);
             if (vehicleIds == null) return null;
 
             int vehicleId1 = vehicleIds[0];
             int vehicleId2 = vehicleIds[1];
 
-            List<Node> route1 = newSolution.routes.get(vehicleId1);
-            List<Node> route2 = newSolution.routes.get(vehicleId2);
+            int route1Size = innerSize(solution.routes.get(vehicleId1));
+            int route2Size = innerSize(solution.routes.get(vehicleId2));
+
+            if (route1Size == 0 || route2Size == 0) return null;
 
-            if (route1.isEmpty() || route2.isEmpty()) return null;
+            int index1 = random.nextInt(route1Size);
+            int index2 = random.nextInt(route2Size);
 
-            int index1 = random.nextInt(route1.size());
-            int index2 = random.nextInt(route2.size());
+            Solution newSolution = solution.clone();
+            List<Node> route1 = newSolution.mutableRoute(vehicleId1);
+            List<Node> route2 = newSolution.mutableRoute(vehicleId2);
 
-            Node node1 = route1.get(index1);
-            Node node2 = route2.get(index2);
+            Node node1 = route1.get(index1 + 1);
+            Node node2 = route2.get(index2 + 1);
 
-            route1.set(index1, node2);
-            route2.set(index2, node1);
+            route1.set(index1 + 1, node2);
+            route2.set(index2 + 1, node1);
 
             Movement movement = new Movement(Movement.MovementType.INTER_ROUTE_SWAP);
             movement.vehicle1 = vehicleId1;
@@ -440,33 +857,33 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static Neighbor interRouteCrossExchange(Solution solution) {
-            Solution newSolution = solution.clone();
-            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(newSolution);
+        private Neighbor interRouteCrossExchange(Solution solution) {
+            int[] vehicleIds = getTwoDistinctRandomVehiclesWithRoutes(solution);
             if (vehicleIds == null) return null;
 
             int vehicleId1 = vehicleIds[0];
             int vehicleId2 = vehicleIds[1];
 
-            List<Node> route1 = newSolution.routes.get(vehicleId1);
-            List<Node> route2 = newSolution.routes.get(vehicleId2);
+            List<Node> route1 = solution.routes.get(vehicleId1);
+            List<Node> route2 = solution.routes.get(vehicleId2);
 
-            if (route1.isEmpty() || route2.isEmpty()) return null;
+            if (innerSize(route1) == 0 || innerSize(route2) == 0) return null;
 
-            int i = random.nextInt(route1.size());
-            int j = random.nextInt(route2.size());
+            int i = random.nextInt(innerSize(route1));
+            int j = random.nextInt(innerSize(route2));
 
-            List<Node> tail1 = new ArrayList<>(route1.subList(i + 1, route1.size()));
-            List<Node> tail2 = new ArrayList<>(route2.subList(j + 1, route2.size()));
+            // Swap the inner tails after positions i and j, each route keeps its own final node
+            List<Node> newRoute1 = new ArrayList<>(route1.subList(0, i + 2));
+            newRoute1.addAll(route2.subList(j + 2, route2.size() - 1));
+            newRoute1.add(route1.getLast());
 
-            List<Node> newRoute1 = new ArrayList<>(route1.subList(0, i + 1));
-            newRoute1.addAll(tail2);
+            List<Node> newRoute2 = new ArrayList<>(route2.subList(0, j + 2));
+            newRoute2.addAll(route1.subList(i + 2, route1.size() - 1));
+            newRoute2.add(route2.getLast());
 
-            List<Node> newRoute2 = new ArrayList<>(route2.subList(0, j + 1));
-            newRoute2.addAll(tail1);
-
-            newSolution.routes.put(vehicleId1, newRoute1);
-            newSolution.routes.put(vehicleId2, newRoute2);
+            Solution newSolution = solution.clone();
+            newSolution.setRoute(vehicleId1, newRoute1);
+            newSolution.setRoute(vehicleId2, newRoute2);
 
             Movement movement = new Movement(Movement.MovementType.INTER_ROUTE_CROSS_EXCHANGE);
             movement.vehicle1 = vehicleId1;
@@ -477,10 +894,10 @@ public class Algorithm {
             return new Neighbor(newSolution, movement);
         }
 
-        private static int getRandomVehicleWithRoute(Solution solution) {
+        private int getRandomVehicleWithRoute(Solution solution) {
             List<Integer> vehicleIds = new ArrayList<>();
             for (Map.Entry<Integer, List<Node>> entry : solution.routes.entrySet()) {
-                if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                if (entry.getValue() != null && innerSize(entry.getValue()) > 0) {
                     vehicleIds.add(entry.getKey());
                 }
             }
@@ -489,10 +906,10 @@ public class Algorithm {
             return vehicleIds.get(random.nextInt(vehicleIds.size()));
         }
 
-        private static int[] getTwoDistinctRandomVehiclesWithRoutes(Solution solution) {
+        private int[] getTwoDistinctRandomVehiclesWithRoutes(Solution solution) {
             List<Integer> vehicleIds = new ArrayList<>();
             for (Map.Entry<Integer, List<Node>> entry : solution.routes.entrySet()) {
-                if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                if (entry.getValue() != null && innerSize(entry.getValue()) > 0) {
                     vehicleIds.add(entry.getKey());
                 }
             }
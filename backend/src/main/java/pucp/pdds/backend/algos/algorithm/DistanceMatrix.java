@@ -0,0 +1,135 @@
+package pucp.pdds.backend.algos.algorithm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.utils.DistanceCache;
+import pucp.pdds.backend.algos.utils.PathBuilder;
+import pucp.pdds.backend.algos.utils.Position;
+
+/**
+ * Dense distance matrix between the nodes of an environment, built once per planning interval.
+ * Nodes placed on the same coordinates share a matrix index, and node ids are used to find the
+ * index of a node without hashing. Distances are symmetric.
+ */
+public class DistanceMatrix {
+    private final List<Position> positions = new ArrayList<>(); // matrix index -> position
+    private final Map<Position, Integer> positionIndexes = new HashMap<>();
+    private final int[] nodeIndexes; // node id -> matrix index
+    private final double[] distances; // row-major, size * size
+
+    // Build metrics
+    private final int pairCount;
+    private final AtomicInteger computedPairs = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private long buildTimeMs;
+
+    public DistanceMatrix(List<Node> nodes, List<PlannerBlockage> blockages) {
+        int maxNodeId = -1;
+        for (Node node : nodes) {
+            maxNodeId = Math.max(maxNodeId, node.id);
+        }
+
+        nodeIndexes = new int[maxNodeId + 1];
+        java.util.Arrays.fill(nodeIndexes, -1);
+        for (Node node : nodes) {
+            nodeIndexes[node.id] = addPosition(node.getPosition());
+        }
+
+        int size = positions.size();
+        distances = new double[size * size];
+        pairCount = size * (size - 1) / 2;
+        computeDistances(blockages);
+    }
+
+    // Fills every pair eagerly. Rows are spread over the common fork-join pool, whose work
+    // stealing balances the rows of different lengths (row i has size - i - 1 pairs).
+    private void computeDistances(List<PlannerBlockage> blockages) {
+        int size = positions.size();
+        long startTime = System.currentTimeMillis();
+
+        // Without blockages distances are plain Manhattan, not worth caching
+        DistanceCache.Segment cache = (blockages != null && !blockages.isEmpty()) ? DistanceCache.segment(blockages) : null;
+
+        IntStream.range(0, size).parallel().forEach(i -> {
+            for (int j = i + 1; j < size; j++) {
+                Position from = positions.get(i);
+                Position to = positions.get(j);
+
+                Double cached = (cache != null) ? cache.get(from, to) : null;
+                double distance;
+                if (cached != null) {
+                    distance = cached;
+                    cacheHits.incrementAndGet();
+                } else {
+                    distance = PathBuilder.calculateDistance(from, to, blockages);
+                    if (cache != null) {
+                        cache.put(from, to, distance);
+                    }
+                }
+                distances[i * size + j] = distance;
+                distances[j * size + i] = distance;
+                computedPairs.incrementAndGet();
+            }
+        });
+
+        buildTimeMs = System.currentTimeMillis() - startTime;
+    }
+
+    private int addPosition(Position position) {
+        return positionIndexes.computeIfAbsent(position, key -> {
+            positions.add(position);
+            return positions.size() - 1;
+        });
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    public int getComputedPairs() {
+        return computedPairs.get();
+    }
+
+    // Pairs taken from the cross-interval DistanceCache instead of running the pathfinder
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getBuildTimeMs() {
+        return buildTimeMs;
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public Position getPosition(int index) {
+        return positions.get(index);
+    }
+
+    public int indexOf(Node node) {
+        if (node.id >= 0 && node.id < nodeIndexes.length && nodeIndexes[node.id] != -1) {
+            return nodeIndexes[node.id];
+        }
+        return indexOf(node.getPosition());
+    }
+
+    // Returns -1 if the position is not part of the matrix
+    public int indexOf(Position position) {
+        return positionIndexes.getOrDefault(position, -1);
+    }
+
+    public double get(int from, int to) {
+        return distances[from * positions.size() + to];
+    }
+
+    public double get(Node from, Node to) {
+        return get(indexOf(from), indexOf(to));
+    }
+}
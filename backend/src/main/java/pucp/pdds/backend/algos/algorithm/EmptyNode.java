@@ -3,7 +3,7 @@ package pucp.pdds.backend.algos.algorithm;
 import pucp.pdds.backend.algos.utils.Position;
 
 public class EmptyNode extends Node {
-    public Position position;
+    public final Position position;
 
     @Override
     public EmptyNode clone() {
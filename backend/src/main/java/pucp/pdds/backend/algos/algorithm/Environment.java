@@ -2,12 +2,13 @@ package pucp.pdds.backend.algos.algorithm;
 
 import java.util.List;
 import java.util.Map;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.stream.Collectors;
 import java.util.HashMap;
 import java.util.Random;
 
-import pucp.pdds.backend.algos.utils.PathBuilder;
 import pucp.pdds.backend.algos.utils.Time;
 import pucp.pdds.backend.algos.utils.Position;
 import pucp.pdds.backend.algos.entities.PlannerVehicle;
@@ -31,22 +32,46 @@ public class Environment {
     private List<Node> nodes;
     private boolean areNodesGenerated = false;
 
-    private Map<Position, Map<Position, Double>> distances;
-    private boolean areDistancesGenerated = false;
+    private DistanceMatrix distanceMatrix;
 
-    public List<Node> getNodes() {
+    public synchronized List<Node> getNodes() {
         if (!areNodesGenerated) {
             generateNodes();
         }
         return nodes;
     }
 
-    public Map<Position, Map<Position, Double>> getDistances() {
-        if (!areDistancesGenerated) {
-            distances = PathBuilder.generateDistances(getNodes().stream().map(Node::getPosition).collect(Collectors.toList()), blockages);
-            areDistancesGenerated = true;
+    private Map<Integer, EmptyNode> startNodes; // vehicleId -> node where its route starts
+
+    // Vehicles may share the same starting position, so the node is looked up by vehicle
+    public synchronized EmptyNode getStartNode(PlannerVehicle vehicle) {
+        getNodes();
+        return startNodes.get(vehicle.id);
+    }
+
+    private Map<Integer, PlannerOrder> orderMap;
+
+    public synchronized Map<Integer, PlannerOrder> getOrderMap() {
+        if (orderMap == null) {
+            orderMap = orders.stream().collect(Collectors.toMap(order -> order.id, order -> order));
+        }
+        return orderMap;
+    }
+
+    public synchronized DistanceMatrix getDistanceMatrix() {
+        if (distanceMatrix == null) {
+            distanceMatrix = new DistanceMatrix(getNodes(), blockages);
         }
-        return distances;
+        return distanceMatrix;
+    }
+
+    private TimeDependentDistances timeDependentDistances;
+
+    public synchronized TimeDependentDistances getTimeDependentDistances() {
+        if (timeDependentDistances == null) {
+            timeDependentDistances = new TimeDependentDistances(getDistanceMatrix(), blockages, currentTime);
+        }
+        return timeDependentDistances;
     }
 
     public Environment(List<PlannerVehicle> vehicles, List<PlannerOrder> orders, List<PlannerWarehouse> warehouses, List<PlannerBlockage> blockages,
@@ -96,8 +121,11 @@ public class Environment {
         List<Node> nodes = new ArrayList<>();
         int nodeSerial = 0;
 
+        startNodes = new HashMap<>();
         for (PlannerVehicle vehicle : vehicles) {
-            nodes.add(new EmptyNode(nodeSerial++, vehicle.initialPosition));
+            EmptyNode startNode = new EmptyNode(nodeSerial++, vehicle.initialPosition);
+            nodes.add(startNode);
+            startNodes.put(vehicle.id, startNode);
         }
 
         // Estrategia de entrega inteligente: decidir cuándo dividir pedidos
@@ -219,10 +247,13 @@ public class Environment {
     // Dist Max = 25 * 180 / 15 = 300 Km.
     // Fuel (in galons) = Distance (in km) * [weight (in kg) + 0.5 * GLP (in m3)] /
     // 180
-    public static double calculateFuelCost(Node from, Node to, Map<Position, Map<Position, Double>> distances,
-            PlannerVehicle vehicle) {
-        double distance = distances.get(from.getPosition()).get(to.getPosition());
-        double fuelCost = distance * (vehicle.weight / 1000 + vehicle.currentGLP * 0.5) / 180;
+    public double calculateFuelCost(Node from, Node to, PlannerVehicle vehicle) {
+        double distance = getDistanceMatrix().get(from, to);
+        return calculateFuelCost(distance, vehicle.weight, vehicle.currentGLP);
+    }
+
+    public static double calculateFuelCost(double distance, double weight, int currentGLP) {
+        double fuelCost = distance * (weight / 1000 + currentGLP * 0.5) / 180;
         return fuelCost;
     }
 
@@ -244,10 +275,7 @@ public class Environment {
         // Initialize routes for each vehicle with their starting position
         for (PlannerVehicle vehicle : this.vehicles) {
             solution.routes.put(vehicle.id, new ArrayList<>());
-            Node initialPositionNode = this.getNodes().stream()
-                .filter(node -> node.getPosition().equals(vehicle.initialPosition))
-                .findFirst().get();
-            solution.routes.get(vehicle.id).add(initialPositionNode);
+            solution.routes.get(vehicle.id).add(getStartNode(vehicle));
         }
 
         // Separate order nodes from refill nodes
@@ -473,6 +501,136 @@ public class Environment {
         return solution;
     }
 
+    /**
+     * Warm start: rebuilds the plan of the previous interval on this environment instead of
+     * starting from scratch. The part of each route that was already executed (before the
+     * vehicle's nextNodeIndex) is skipped and the remaining nodes are replaced by the nodes of
+     * this environment for the same order / warehouse, taking chunks until the same GLP is covered.
+     * Delivered or cancelled orders have no nodes here, so they disappear. Orders that are new
+     * (or not covered) are inserted where they add the least distance; leftover refills are
+     * assigned as in getRandomSolution.
+     */
+    public Solution getWarmStartSolution(Solution previous) {
+        Solution solution = new Solution(this);
+        solution.routes = new HashMap<>();
+        solution.setStartingTime(this.currentTime);
+
+        // Nodos de este entorno aún sin asignar: pedido -> chunks, almacén -> recargas
+        Map<Integer, ArrayDeque<Node>> orderPool = new LinkedHashMap<>();
+        Map<Integer, ArrayDeque<Node>> refillPool = new LinkedHashMap<>();
+        List<FinalNode> finalNodes = new ArrayList<>();
+        for (Node node : getNodes()) {
+            if (node instanceof OrderDeliverNode) {
+                orderPool.computeIfAbsent(((OrderDeliverNode) node).order.id, id -> new ArrayDeque<>()).add(node);
+            } else if (node instanceof ProductRefillNode) {
+                refillPool.computeIfAbsent(((ProductRefillNode) node).warehouse.id, id -> new ArrayDeque<>()).add(node);
+            } else if (node instanceof FinalNode) {
+                finalNodes.add((FinalNode) node);
+            }
+        }
+
+        int keptNodes = 0;
+        for (int v = 0; v < this.vehicles.size(); v++) {
+            PlannerVehicle vehicle = this.vehicles.get(v);
+            List<Node> route = new ArrayList<>();
+            route.add(getStartNode(vehicle));
+
+            List<Node> previousRoute = previous.routes.get(vehicle.id);
+            if (previousRoute != null) {
+                for (int i = Math.max(1, vehicle.nextNodeIndex); i < previousRoute.size() - 1; i++) {
+                    Node node = previousRoute.get(i);
+                    if (node instanceof OrderDeliverNode) {
+                        OrderDeliverNode deliverNode = (OrderDeliverNode) node;
+                        keptNodes += takeChunks(orderPool.get(deliverNode.order.id), deliverNode.amountGLP, route);
+                    } else if (node instanceof ProductRefillNode) {
+                        ProductRefillNode refillNode = (ProductRefillNode) node;
+                        keptNodes += takeChunks(refillPool.get(refillNode.warehouse.id), refillNode.amountGLP, route);
+                    }
+                }
+            }
+
+            route.add(finalNodes.get(v));
+            solution.routes.put(vehicle.id, route);
+        }
+
+        // Reabastecimientos que el plan anterior no usaba, igual que en getRandomSolution
+        List<VehicleLoadInfo> vehicleLoads = new ArrayList<>();
+        for (PlannerVehicle vehicle : this.vehicles) {
+            vehicleLoads.add(new VehicleLoadInfo(vehicle, 0, 0.0));
+        }
+        int leftoverRefills = 0;
+        for (ArrayDeque<Node> refills : refillPool.values()) {
+            for (Node refillNode : refills) {
+                VehicleLoadInfo vehicleWithMostNeed = findVehicleWithMostRefillNeed((ProductRefillNode) refillNode, vehicleLoads, solution);
+                insertRefillBeforeFirstNeed(vehicleWithMostNeed.vehicle.id, refillNode, solution);
+                leftoverRefills++;
+            }
+        }
+
+        // Pedidos nuevos o no cubiertos, los más urgentes primero. En cada ruta se prueba la posición
+        // que menos distancia agrega y se queda la ruta con mejor fitness (solo se reevalúa esa ruta).
+        // Si ninguna inserción mejora la solución el pedido queda fuera, como en getRandomSolution
+        // cuando no hay capacidad
+        List<OrderDeliverNode> pendingOrders = new ArrayList<>();
+        for (ArrayDeque<Node> chunks : orderPool.values()) {
+            for (Node node : chunks) {
+                pendingOrders.add((OrderDeliverNode) node);
+            }
+        }
+        pendingOrders.sort((o1, o2) -> o1.order.deadline.compareTo(o2.order.deadline));
+
+        DistanceMatrix distances = getDistanceMatrix();
+        int insertedOrders = 0;
+        for (OrderDeliverNode deliverNode : pendingOrders) {
+            Solution bestCandidate = solution;
+            for (PlannerVehicle vehicle : this.vehicles) {
+                List<Node> route = solution.routes.get(vehicle.id);
+                int bestPosition = 1;
+                double bestCost = Double.POSITIVE_INFINITY;
+                for (int i = 1; i < route.size(); i++) {
+                    Node prev = route.get(i - 1);
+                    Node next = route.get(i);
+                    double cost = distances.get(prev, deliverNode) + distances.get(deliverNode, next) - distances.get(prev, next);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestPosition = i;
+                    }
+                }
+
+                Solution candidate = solution.clone();
+                candidate.mutableRoute(vehicle.id).add(bestPosition, deliverNode);
+                if (candidate.fitness() > bestCandidate.fitness()) {
+                    bestCandidate = candidate;
+                }
+            }
+            if (bestCandidate != solution) {
+                solution = bestCandidate;
+                insertedOrders++;
+            }
+        }
+
+        System.out.println("♻️ Warm start: " + keptNodes + " nodos del plan anterior, " + insertedOrders + "/" + pendingOrders.size()
+            + " pedidos insertados, " + leftoverRefills + " reabastecimientos sin plan previo");
+
+        return solution;
+    }
+
+    // Saca del pool los chunks necesarios para cubrir amountGLP y los agrega a la ruta
+    private static int takeChunks(ArrayDeque<Node> pool, int amountGLP, List<Node> route) {
+        if (pool == null) {
+            return 0;
+        }
+        int taken = 0;
+        int coveredGLP = 0;
+        while (coveredGLP < amountGLP && !pool.isEmpty()) {
+            Node node = pool.poll();
+            coveredGLP += (node instanceof OrderDeliverNode) ? ((OrderDeliverNode) node).amountGLP : ((ProductRefillNode) node).amountGLP;
+            route.add(node);
+            taken++;
+        }
+        return taken;
+    }
+
     // Clase auxiliar para tracking de carga de vehículos
     private static class VehicleLoadInfo {
         public PlannerVehicle vehicle;
@@ -537,10 +695,10 @@ public class Environment {
     private double calculateDistanceScore(OrderDeliverNode deliverNode, PlannerVehicle vehicle, Solution solution) {
         // Obtener la posición actual del vehículo (último nodo en su ruta)
         List<Node> vehicleRoute = solution.routes.get(vehicle.id);
-        Position vehicleCurrentPosition = vehicleRoute.get(vehicleRoute.size() - 1).getPosition();
+        Node vehicleCurrentNode = vehicleRoute.get(vehicleRoute.size() - 1);
         
         // Calcular distancia al pedido
-        double distance = this.getDistances().get(vehicleCurrentPosition).get(deliverNode.getPosition());
+        double distance = this.getDistanceMatrix().get(vehicleCurrentNode, deliverNode);
         
         // Menor distancia = mejor score
         return -distance; // Negativo porque queremos minimizar distancia
@@ -5,8 +5,8 @@ import pucp.pdds.backend.algos.utils.Position;
 import pucp.pdds.backend.algos.utils.Time;
 
 public class OrderDeliverNode extends Node {
-    public PlannerOrder order;
-    public int amountGLP;
+    public final PlannerOrder order;
+    public final int amountGLP;
 
     public static int chunkSize = 5; // Max number of m3 of GLP that can be transported in one chunk
     
@@ -0,0 +1,10 @@
+package pucp.pdds.backend.algos.algorithm;
+
+/**
+ * Receives the improving solutions of Algorithm.run while the search is still going.
+ * Called from the search chain that found the improvement (one call at a time, in order of
+ * improvement), so it should return quickly.
+ */
+public interface PlanningListener {
+    void onImprovement(PlanningProgress progress);
+}
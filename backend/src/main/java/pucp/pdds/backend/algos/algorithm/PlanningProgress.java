@@ -0,0 +1,29 @@
+package pucp.pdds.backend.algos.algorithm;
+
+/**
+ * Snapshot of the search when the best solution found improves. solution is a copy that only
+ * the listener uses.
+ */
+public class PlanningProgress {
+    public final Solution solution;
+    public final double fitness;
+    public final boolean feasible;
+    public final int iteration;
+    public final int round;
+    public final long elapsedMs;
+
+    public PlanningProgress(Solution solution, double fitness, boolean feasible, int iteration, int round, long elapsedMs) {
+        this.solution = solution;
+        this.fitness = fitness;
+        this.feasible = feasible;
+        this.iteration = iteration;
+        this.round = round;
+        this.elapsedMs = elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanningProgress{fitness=" + fitness + ", feasible=" + feasible + ", iteration=" + iteration
+            + ", round=" + round + ", elapsedMs=" + elapsedMs + "}";
+    }
+}
@@ -4,8 +4,8 @@ import pucp.pdds.backend.algos.entities.PlannerWarehouse;
 import pucp.pdds.backend.algos.utils.Position;
 
 public class ProductRefillNode extends Node {
-    public PlannerWarehouse warehouse;
-    public int amountGLP;
+    public final PlannerWarehouse warehouse;
+    public final int amountGLP;
 
     public static int chunkSize = 5; // Max number of m3 of GLP that can be refilled in one chunk
 
@@ -4,11 +4,13 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
 
 import pucp.pdds.backend.algos.entities.PlannerOrder;
 import pucp.pdds.backend.algos.entities.PlannerVehicle;
 import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+import pucp.pdds.backend.algos.utils.PathBuilder;
 import pucp.pdds.backend.algos.utils.SimulationProperties;
 import pucp.pdds.backend.algos.utils.Time;
 
@@ -25,7 +27,11 @@ public class Solution implements Cloneable {
     private static final double W_FINAL_FUEL_LEVEL = 150.0;  // Penalty for finishing with low fuel
 
     // Solution model
+    // Routes are copy-on-write: clones share the route lists with their parent, so a route
+    // must be obtained through mutableRoute() (or replaced with setRoute()) before changing it.
+    // Nodes are immutable and shared between solutions.
     public Map<Integer, List<Node>> routes; // routes[vehicleId] -> nodes
+    private Set<Integer> ownedRoutes = new HashSet<>(); // routes this solution already copied
 
     private Environment environment;
     public Environment getEnvironment() {
@@ -40,6 +46,18 @@ public class Solution implements Cloneable {
 
     private List<String> errors = new ArrayList<>();
 
+    // Partial results of the simulation of each route (routes[vehicleId] -> evaluation).
+    // Evaluations are never modified once computed, so clones share them.
+    private Map<Integer, RouteEvaluation> routeEvaluations = new HashMap<>();
+
+    private static class RouteEvaluation {
+        double deliveredValue = 0.0;
+        double penalty = 0.0;
+        double finalFuel = 0.0;
+        Map<Integer, Integer> deliveredGLP = new HashMap<>(); // orderId -> GLP delivered by this route
+        List<String> errors = new ArrayList<>();
+    }
+
     public Solution(Environment environment) {
         routes = new HashMap<>();
         this.environment = environment;
@@ -48,13 +66,14 @@ public class Solution implements Cloneable {
     @Override
     public Solution clone() {
         Solution clone = new Solution(this.environment);
-        clone.routes = this.routes.entrySet().stream()
-            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream()
-            .map(Node::clone).collect(Collectors.toList())));
+        clone.routes = new HashMap<>(this.routes);
+        // Both solutions now share every route list
+        this.ownedRoutes.clear();
         clone.hasRunSimulation = false;
         clone.isFeasible = true;
         clone.fitness = 0;
         clone.startingTime = this.startingTime;
+        clone.routeEvaluations = new HashMap<>(this.routeEvaluations);
         return clone;
     }
 
@@ -82,40 +101,100 @@ public class Solution implements Cloneable {
         double totalPenalty = 0.0;
         this.errors.clear();
 
-        Map<Integer, PlannerOrder> orderMap = environment.orders.stream()
-            .collect(Collectors.toMap(order -> order.id, PlannerOrder::clone));
+        Map<Integer, PlannerOrder> orderMap = environment.getOrderMap();
+        Map<Integer, Integer> deliveredGLP = new HashMap<>();
 
-        Map<Integer, PlannerVehicle> vehicleMap = environment.vehicles.stream()
-            .collect(Collectors.toMap(vehicle -> vehicle.id, PlannerVehicle::clone));
-        
-        for (PlannerVehicle vehicle : vehicleMap.values()) {
-            List<Node> route = routes.get(vehicle.id);
-            if (route == null || route.isEmpty()) continue;
+        // Only the routes without a cached evaluation are replayed
+        for (PlannerVehicle vehicle : environment.vehicles) {
+            RouteEvaluation evaluation = routeEvaluations.get(vehicle.id);
+            if (evaluation == null) {
+                evaluation = evaluateRoute(vehicle, routes.get(vehicle.id), orderMap);
+                routeEvaluations.put(vehicle.id, evaluation);
+            }
+
+            deliveredValue += evaluation.deliveredValue;
+            totalPenalty += evaluation.penalty;
+            errors.addAll(evaluation.errors);
+            evaluation.deliveredGLP.forEach((orderId, amount) -> deliveredGLP.merge(orderId, amount, Integer::sum));
+        }
+
+        // --- Post-simulation Penalties ---
+
+        // Penalty for undelivered GLP
+        for (PlannerOrder order : orderMap.values()) {
+            int undeliveredGLP = order.amountGLP - deliveredGLP.getOrDefault(order.id, 0);
+            if (undeliveredGLP > 0) {
+                double undeliveredPenalty = W_UNDELIVERED_GLP * undeliveredGLP;
+                
+                // Apply scaling factor for timesForgiven orders
+                double scalingFactor = Math.pow(2, order.timesForgiven);
+                undeliveredPenalty *= scalingFactor;
+                
+                totalPenalty += undeliveredPenalty;
+                errors.add("Order for client " + order.clientId + " has undelivered GLP: " + undeliveredGLP + " (Scaling: x" + String.format("%.1f", scalingFactor) + ")");
+            }
+        }
+
+        // Penalty for low final fuel
+        for (PlannerVehicle vehicle : environment.vehicles) {
+            double finalFuel = routeEvaluations.get(vehicle.id).finalFuel;
+            double requiredFinalFuel = 0.3 * vehicle.maxFuel;
+            if (finalFuel < requiredFinalFuel) {
+                double finalFuelDeficit = requiredFinalFuel - finalFuel;
+                totalPenalty += W_FINAL_FUEL_LEVEL * finalFuelDeficit;
+                errors.add("Vehicle " + vehicle.plaque + " finished with low fuel. Deficit: " + String.format("%.2f", finalFuelDeficit));
+            }
+        }
+
+        isFeasible = errors.isEmpty();
+        this.fitness = deliveredValue - totalPenalty;
+
+        // Clamp fitness to avoid numerical instability in certain algorithms
+        if (!Double.isFinite(fitness)) {
+            this.fitness = -1.0e12; 
+        }
 
-            Time currentTime = environment.currentTime;
+        hasRunSimulation = true;
+    }
+
+    // Replays a single vehicle's route. Orders are only read, the GLP delivered to each
+    // one is returned so that undelivered penalties can be computed across routes.
+    private RouteEvaluation evaluateRoute(PlannerVehicle vehicle, List<Node> route, Map<Integer, PlannerOrder> orderMap) {
+        RouteEvaluation evaluation = new RouteEvaluation();
+        double currentFuel = vehicle.currentFuel;
+        int currentGLP = vehicle.currentGLP;
+
+        if (route != null && !route.isEmpty()) {
+            DistanceMatrix distances = environment.getDistanceMatrix();
+            TimeDependentDistances timeDependentDistances = SimulationProperties.timeDependentRouting
+                ? environment.getTimeDependentDistances() : null;
+            // Times are handled as epoch minutes (see Time) to avoid allocating one Time per edge
+            int startMinute = environment.currentTime.toEpochMinute();
+            int currentMinute = startMinute;
 
             if (vehicle.waitTransition > 0){
-                currentTime = currentTime.addMinutes(vehicle.waitTransition);
-                vehicle.waitTransition = 0;
+                currentMinute += vehicle.waitTransition;
             }
 
             for (int i = 0; i < route.size() - 1; i++) {
                 Node originNode = route.get(i);
                 Node destinationNode = route.get(i + 1);
 
-                double distance = environment.getDistances().get(originNode.getPosition()).get(destinationNode.getPosition());
-                int timeSpent = (int) Math.ceil(distance / SimulationProperties.speed) * 60;
-                currentTime = currentTime.addMinutes(timeSpent);
+                double distance = (timeDependentDistances != null)
+                    ? timeDependentDistances.get(originNode, destinationNode, currentMinute - startMinute)
+                    : distances.get(originNode, destinationNode);
+                int timeSpent = PathBuilder.estimateTravelMinutes(distance);
+                currentMinute += timeSpent;
 
-                double fuelCost = Environment.calculateFuelCost(originNode, destinationNode, environment.getDistances(), vehicle);
+                double fuelCost = Environment.calculateFuelCost(distance, vehicle.weight, currentGLP);
                 
                 // --- Fuel Deficit Penalty ---
-                if (vehicle.currentFuel < fuelCost) {
-                    double fuelDeficit = fuelCost - vehicle.currentFuel;
-                    totalPenalty += W_FUEL_DEFICIT * fuelDeficit;
-                    errors.add("Vehicle " + vehicle.plaque + " fuel deficit: " + String.format("%.2f", fuelDeficit));
+                if (currentFuel < fuelCost) {
+                    double fuelDeficit = fuelCost - currentFuel;
+                    evaluation.penalty += W_FUEL_DEFICIT * fuelDeficit;
+                    evaluation.errors.add("Vehicle " + vehicle.plaque + " fuel deficit: " + String.format("%.2f", fuelDeficit));
                 }
-                vehicle.currentFuel -= fuelCost;
+                currentFuel -= fuelCost;
 
                 if (destinationNode instanceof OrderDeliverNode) {
                     OrderDeliverNode deliverNode = (OrderDeliverNode) destinationNode;
@@ -123,91 +202,83 @@ public class Solution implements Cloneable {
                     int GLPToDeliver = deliverNode.amountGLP;
 
                     // --- GLP Deficit Penalty ---
-                    if (vehicle.currentGLP < GLPToDeliver) {
-                        double glpDeficit = GLPToDeliver - vehicle.currentGLP;
-                        totalPenalty += W_GLP_DEFICIT * glpDeficit;
-                        errors.add("Vehicle " + vehicle.plaque + " GLP deficit for order for client " + order.clientId + ": " + glpDeficit);
+                    if (currentGLP < GLPToDeliver) {
+                        double glpDeficit = GLPToDeliver - currentGLP;
+                        evaluation.penalty += W_GLP_DEFICIT * glpDeficit;
+                        evaluation.errors.add("Vehicle " + vehicle.plaque + " GLP deficit for order for client " + order.clientId + ": " + glpDeficit);
                     }
 
-                    vehicle.currentGLP -= GLPToDeliver;
-                    order.amountGLP -= GLPToDeliver;
+                    currentGLP -= GLPToDeliver;
+                    evaluation.deliveredGLP.merge(order.id, GLPToDeliver, Integer::sum);
 
                     // --- Tardiness Penalty vs. Earliness Bonus ---
-                    if (currentTime.isAfter(order.deadline)) {
-                        long minutesLate = currentTime.minutesSince(order.deadline);
+                    int deadlineMinute = order.deadline.toEpochMinute();
+                    if (currentMinute > deadlineMinute) {
+                        long minutesLate = currentMinute - deadlineMinute;
                         double tardinessPenalty = W_TARDINESS * minutesLate * GLPToDeliver;
                         
                         // Apply scaling factor for timesForgiven orders
                         double scalingFactor = Math.pow(2, order.timesForgiven);
                         tardinessPenalty *= scalingFactor;
                         
-                        totalPenalty += tardinessPenalty;
-                        errors.add("Order for client " + order.clientId + " delivered " + minutesLate + " minutes late. (Scaling: x" + String.format("%.1f", scalingFactor) + ")");
+                        evaluation.penalty += tardinessPenalty;
+                        evaluation.errors.add("Order for client " + order.clientId + " delivered " + minutesLate + " minutes late. (Scaling: x" + String.format("%.1f", scalingFactor) + ")");
                     } else {
                         double timeHorizon = environment.minutesToSimulate; // Normalization factor
-                        long minutesEarly = order.deadline.minutesSince(currentTime);
+                        long minutesEarly = deadlineMinute - currentMinute;
                         double deliveryValue = GLPToDeliver * (V_BASE_GLP_DELIVERED + V_EARLINESS_BONUS * (minutesEarly / timeHorizon));
                         
                         // Apply scaling factor for timesForgiven orders
                         double scalingFactor = Math.pow(2, order.timesForgiven);
                         deliveryValue *= scalingFactor;
                         
-                        deliveredValue += deliveryValue;
+                        evaluation.deliveredValue += deliveryValue;
                     }
 
                     boolean breaksOrderChain = !(originNode instanceof OrderDeliverNode) ||
                         (((OrderDeliverNode) originNode).order.id != deliverNode.order.id);
 
                     if (breaksOrderChain) {
-                        currentTime = currentTime.addMinutes(SimulationProperties.timeAfterDelivery);
+                        currentMinute += SimulationProperties.timeAfterDelivery;
                     }
                 }
 
                 if (destinationNode instanceof ProductRefillNode) {
                     ProductRefillNode refillNode = (ProductRefillNode) destinationNode;
-                    vehicle.currentGLP += refillNode.amountGLP;
+                    currentGLP += refillNode.amountGLP;
                     if (!refillNode.warehouse.wasVehicle) {
-                        vehicle.currentFuel = vehicle.maxFuel;
+                        currentFuel = vehicle.maxFuel;
                     }
                 }
             }
         }
 
-        // --- Post-simulation Penalties ---
-
-        // Penalty for undelivered GLP
-        for (PlannerOrder order : orderMap.values()) {
-            if (order.amountGLP > 0) {
-                double undeliveredPenalty = W_UNDELIVERED_GLP * order.amountGLP;
-                
-                // Apply scaling factor for timesForgiven orders
-                double scalingFactor = Math.pow(2, order.timesForgiven);
-                undeliveredPenalty *= scalingFactor;
-                
-                totalPenalty += undeliveredPenalty;
-                errors.add("Order for client " + order.clientId + " has undelivered GLP: " + order.amountGLP + " (Scaling: x" + String.format("%.1f", scalingFactor) + ")");
-            }
-        }
+        evaluation.finalFuel = currentFuel;
+        return evaluation;
+    }
 
-        // Penalty for low final fuel
-        for (PlannerVehicle vehicle : vehicleMap.values()) {
-            double requiredFinalFuel = 0.3 * vehicle.maxFuel;
-            if (vehicle.currentFuel < requiredFinalFuel) {
-                double finalFuelDeficit = requiredFinalFuel - vehicle.currentFuel;
-                totalPenalty += W_FINAL_FUEL_LEVEL * finalFuelDeficit;
-                errors.add("Vehicle " + vehicle.plaque + " finished with low fuel. Deficit: " + String.format("%.2f", finalFuelDeficit));
-            }
+    // Returns a route of this solution that can be modified in place, copying it first if it is shared
+    public List<Node> mutableRoute(int vehicleId) {
+        List<Node> route = routes.get(vehicleId);
+        if (route != null && !ownedRoutes.contains(vehicleId)) {
+            route = new ArrayList<>(route);
+            routes.put(vehicleId, route);
+            ownedRoutes.add(vehicleId);
         }
+        invalidateRoute(vehicleId);
+        return route;
+    }
 
-        isFeasible = errors.isEmpty();
-        this.fitness = deliveredValue - totalPenalty;
-
-        // Clamp fitness to avoid numerical instability in certain algorithms
-        if (!Double.isFinite(fitness)) {
-            this.fitness = -1.0e12; 
-        }
+    public void setRoute(int vehicleId, List<Node> route) {
+        routes.put(vehicleId, route);
+        ownedRoutes.add(vehicleId);
+        invalidateRoute(vehicleId);
+    }
 
-        hasRunSimulation = true;
+    // Must be called after modifying a route in place, so its cached evaluation is not reused
+    public void invalidateRoute(int vehicleId) {
+        routeEvaluations.remove(vehicleId);
+        hasRunSimulation = false;
     }
 
     public void compress(){
@@ -215,38 +286,60 @@ public class Solution implements Cloneable {
             return;
         }
 
-        for (List<Node> route : routes.values()){
-            if (route.size() < 2){
+        for (Integer vehicleId : new ArrayList<>(routes.keySet())){
+            List<Node> route = routes.get(vehicleId);
+            if (route == null || route.size() < 2 || !hasMergeableNodes(route)){
                 continue;
             }
 
-            for (int i = 0; i < route.size() - 1; i++){
-                Node originNode = route.get(i);
-                Node destinationNode = route.get(i + 1);
+            // Nodes are shared with other solutions, so merged nodes are replaced instead of modified
+            List<Node> compressedRoute = new ArrayList<>(route.size());
+            for (Node node : route){
+                Node lastNode = compressedRoute.isEmpty() ? null : compressedRoute.getLast();
 
                 // Compress order deliver nodes
-                if (originNode instanceof OrderDeliverNode && destinationNode instanceof OrderDeliverNode){
-                    if (((OrderDeliverNode) originNode).order.id == ((OrderDeliverNode) destinationNode).order.id){
-                        route.remove(i + 1);
-                        i--;
-                        ((OrderDeliverNode) originNode).amountGLP += ((OrderDeliverNode) destinationNode).amountGLP;
-                    }
-                }    
+                if (lastNode instanceof OrderDeliverNode && node instanceof OrderDeliverNode
+                        && ((OrderDeliverNode) lastNode).order.id == ((OrderDeliverNode) node).order.id){
+                    OrderDeliverNode merged = (OrderDeliverNode) lastNode;
+                    compressedRoute.set(compressedRoute.size() - 1,
+                        new OrderDeliverNode(merged.id, merged.order, merged.amountGLP + ((OrderDeliverNode) node).amountGLP));
+                    continue;
+                }
 
                 // Compress product refill nodes
-                if (originNode instanceof ProductRefillNode && destinationNode instanceof ProductRefillNode){
-                    if (((ProductRefillNode) originNode).warehouse.id == ((ProductRefillNode) destinationNode).warehouse.id){
-                        route.remove(i + 1);
-                        i--;
-                        ((ProductRefillNode) originNode).amountGLP += ((ProductRefillNode) destinationNode).amountGLP;
-                    }
+                if (lastNode instanceof ProductRefillNode && node instanceof ProductRefillNode
+                        && ((ProductRefillNode) lastNode).warehouse.id == ((ProductRefillNode) node).warehouse.id){
+                    ProductRefillNode merged = (ProductRefillNode) lastNode;
+                    compressedRoute.set(compressedRoute.size() - 1,
+                        new ProductRefillNode(merged.id, merged.warehouse, merged.amountGLP + ((ProductRefillNode) node).amountGLP));
+                    continue;
                 }
+
+                compressedRoute.add(node);
             }
+
+            setRoute(vehicleId, compressedRoute);
         }
         // Enforce invariant after compress
         // NOTE: This requires an Environment parameter, so compress should accept it
     }
 
+    private static boolean hasMergeableNodes(List<Node> route){
+        for (int i = 0; i < route.size() - 1; i++){
+            Node originNode = route.get(i);
+            Node destinationNode = route.get(i + 1);
+            if (originNode instanceof OrderDeliverNode && destinationNode instanceof OrderDeliverNode
+                    && ((OrderDeliverNode) originNode).order.id == ((OrderDeliverNode) destinationNode).order.id){
+                return true;
+            }
+            if (originNode instanceof ProductRefillNode && destinationNode instanceof ProductRefillNode
+                    && ((ProductRefillNode) originNode).warehouse.id == ((ProductRefillNode) destinationNode).warehouse.id){
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
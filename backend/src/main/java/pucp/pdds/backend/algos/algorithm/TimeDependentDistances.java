@@ -0,0 +1,100 @@
+package pucp.pdds.backend.algos.algorithm;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.utils.DistanceCache;
+import pucp.pdds.backend.algos.utils.PathBuilder;
+import pucp.pdds.backend.algos.utils.Position;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * Distances between the nodes of an environment for a given departure minute, applying only the
+ * blockages active at some moment of the trip (see PathBuilder.getBlockagesDuringTrip).
+ * The static DistanceMatrix, which applies every blockage of the interval, gives the trip duration
+ * upper bound and is returned as is when every blockage applies.
+ * Other results are cached by node pair and applied blockage set (the exact set, not a hash of it).
+ */
+public class TimeDependentDistances {
+    private record Key(int from, int to, BitSet applied) {} // applied: indexes in blockages, never modified
+
+    private final DistanceMatrix matrix;
+    private final List<PlannerBlockage> blockages;
+    private final int[] startMinutes; // minutes since the start of the interval
+    private final int[] endMinutes;
+    private final Map<Key, Double> cache = new ConcurrentHashMap<>();
+
+    public TimeDependentDistances(DistanceMatrix matrix, List<PlannerBlockage> blockages, Time startTime) {
+        this.matrix = matrix;
+        this.blockages = (blockages != null) ? blockages : new ArrayList<>();
+
+        int count = this.blockages.size();
+        startMinutes = new int[count];
+        endMinutes = new int[count];
+        for (int k = 0; k < count; k++) {
+            PlannerBlockage blockage = this.blockages.get(k);
+            startMinutes[k] = startTime.minutesUntil(blockage.startTime);
+            endMinutes[k] = startTime.minutesUntil(blockage.endTime);
+        }
+    }
+
+    public double get(Node from, Node to, int departureMinute) {
+        return get(matrix.indexOf(from), matrix.indexOf(to), departureMinute);
+    }
+
+    public double get(int from, int to, int departureMinute) {
+        double fullDistance = matrix.get(from, to);
+        if (from == to || blockages.isEmpty()) {
+            return fullDistance;
+        }
+
+        int arrivalMinute = Double.isFinite(fullDistance)
+            ? departureMinute + PathBuilder.estimateTravelMinutes(fullDistance)
+            : Integer.MAX_VALUE;
+
+        BitSet applied = new BitSet(startMinutes.length);
+        for (int k = 0; k < startMinutes.length; k++) {
+            if (endMinutes[k] >= departureMinute && startMinutes[k] <= arrivalMinute) {
+                applied.set(k);
+            }
+        }
+        if (applied.cardinality() == startMinutes.length) {
+            return fullDistance;
+        }
+
+        // Distances are symmetric
+        Key key = (from < to) ? new Key(from, to, applied) : new Key(to, from, applied);
+        Double distance = cache.get(key);
+        if (distance == null) {
+            distance = calculateDistance(key);
+            cache.put(key, distance);
+        }
+        return distance;
+    }
+
+    private double calculateDistance(Key key) {
+        Position from = matrix.getPosition(key.from());
+        Position to = matrix.getPosition(key.to());
+
+        List<PlannerBlockage> tripBlockages = new ArrayList<>();
+        for (int k = key.applied().nextSetBit(0); k >= 0; k = key.applied().nextSetBit(k + 1)) {
+            tripBlockages.add(blockages.get(k));
+        }
+        if (tripBlockages.isEmpty()) {
+            return PathBuilder.calculateDistance(from, to, tripBlockages);
+        }
+
+        DistanceCache.Segment shared = DistanceCache.segment(tripBlockages);
+        Double cached = shared.get(from, to);
+        if (cached != null) {
+            return cached;
+        }
+        double distance = PathBuilder.calculateDistance(from, to, tripBlockages);
+        shared.put(from, to, distance);
+        return distance;
+    }
+}
@@ -357,6 +357,18 @@ public class DataChunk {
         return activeIndicators;
     }
 
+    // intervalo: inicio (ya formateado) del intervalo que se está planificando
+    public static java.util.Map<String, Object> convertPlanningProgressToDataChunk(pucp.pdds.backend.algos.algorithm.PlanningProgress progress, String intervalo) {
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("intervalo", intervalo);
+        response.put("fitness", progress.fitness);
+        response.put("factible", progress.feasible);
+        response.put("iteracion", progress.iteration);
+        response.put("ronda", progress.round);
+        response.put("tiempoMs", progress.elapsedMs);
+        return response;
+    }
+
     public static List<Bloqueo> convertBlockagesToDataChunk(List<pucp.pdds.backend.algos.entities.PlannerBlockage> activeBlockages) {
         return activeBlockages.stream()
             .map(blockage -> {
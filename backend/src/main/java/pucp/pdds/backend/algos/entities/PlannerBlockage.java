@@ -51,7 +51,7 @@ public class PlannerBlockage implements Cloneable {
             for (Map<String, Object> vertexData : verticesData) {
                 double x = ((Number) vertexData.get("x")).doubleValue();
                 double y = ((Number) vertexData.get("y")).doubleValue();
-                vertices.add(new Position(x, y));
+                vertices.add(Position.of(x, y));
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse vertices JSON: " + e.getMessage());
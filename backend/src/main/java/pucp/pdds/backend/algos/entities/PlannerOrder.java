@@ -216,7 +216,7 @@ public class PlannerOrder implements Cloneable {
             pedido.getFechaRegistro().getMinute()
         ).addMinutes(pedido.getTiempoTolerancia() * 60);
         
-        Position position = new Position(pedido.getPosicionX(), pedido.getPosicionY());
+        Position position = Position.of(pedido.getPosicionX(), pedido.getPosicionY());
         
         return new PlannerOrder(
             pedido.getId().intValue(),
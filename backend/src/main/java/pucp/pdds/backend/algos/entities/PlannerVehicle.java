@@ -3,14 +3,8 @@ package pucp.pdds.backend.algos.entities;
 import java.util.ArrayList;
 import java.util.List;
 
-import pucp.pdds.backend.algos.algorithm.Node;
-import pucp.pdds.backend.algos.algorithm.OrderDeliverNode;
-import pucp.pdds.backend.algos.algorithm.ProductRefillNode;
-import pucp.pdds.backend.algos.data.Indicator;
 import pucp.pdds.backend.algos.utils.Position;
-import pucp.pdds.backend.algos.utils.SimulationProperties;
 import pucp.pdds.backend.algos.utils.Time;
-import pucp.pdds.backend.algos.utils.PathBuilder;
 import pucp.pdds.backend.model.Vehiculo;
 
 public class PlannerVehicle implements Cloneable {
@@ -61,7 +55,7 @@ public class PlannerVehicle implements Cloneable {
     public static PlannerVehicle fromEntity(Vehiculo vehiculo) {
         VehicleState state = vehiculo.isDisponible() ? VehicleState.IDLE : VehicleState.REPAIR;
         boolean isAveriado = vehiculo.isDisponible() ? false : true;
-        Position position = new Position(vehiculo.getPosicionX(), vehiculo.getPosicionY());
+        Position position = Position.of(vehiculo.getPosicionX(), vehiculo.getPosicionY());
         
         return new PlannerVehicle(
             vehiculo.getId().intValue(),
@@ -78,136 +72,6 @@ public class PlannerVehicle implements Cloneable {
         );
     }
 
-    // Path advancement method
-    public void advancePath(double units, Indicator indicators) {
-        if (currentPath == null || currentPath.isEmpty() || currentPath.size() < 2) {
-            currentPath = null;
-            return;
-        }
-
-        while (units > 0 && currentPath.size() > 1 && this.currentFuel > 0) {
-            Position from = currentPath.get(0);
-            Position to = currentPath.get(1);
-
-            double segmentDistance = PathBuilder.calculateDistance(List.of(from, to));
-            if (segmentDistance <= 0) {
-                currentPath.remove(0);
-                continue;
-            }
-
-            double fuelCostForSegment = segmentDistance * (this.weight / 1000 + this.currentGLP * 0.5) / 180;
-            double fuelPerUnit = fuelCostForSegment / segmentDistance;
-
-            double maxDistWithFuel = (fuelPerUnit > 0) ? this.currentFuel / fuelPerUnit : Double.POSITIVE_INFINITY;
-            double distanceToMove = Math.min(units, Math.min(segmentDistance, maxDistWithFuel));
-
-            double fuelUsed = distanceToMove * fuelPerUnit;
-            this.currentFuel -= fuelUsed;
-            switch (this.type) {
-                case "TA":
-                    indicators.fuelCounterTA += fuelUsed;
-                    break;
-                case "TB":
-                    indicators.fuelCounterTB += fuelUsed;
-                    break;
-                case "TC":
-                    indicators.fuelCounterTC += fuelUsed;
-                    break;
-                case "TD":
-                    indicators.fuelCounterTD += fuelUsed;
-                    break;
-                default:
-                    break;
-            }
-            indicators.fuelCounterTotal += fuelUsed;
-            units -= distanceToMove;
-
-            if (distanceToMove >= segmentDistance) {
-                this.position = to;
-                currentPath.remove(0);
-            } else {
-                double ratio = distanceToMove / segmentDistance;
-                double deltaX = (to.x - from.x) * ratio;
-                double deltaY = (to.y - from.y) * ratio;
-                Position newPosition = new Position(from.x + deltaX, from.y + deltaY);
-                this.position = newPosition;
-                currentPath.set(0, newPosition);
-            }
-        }
-
-        if (this.currentFuel <= 0) {
-            this.currentFuel = 0;
-            this.state = VehicleState.STUCK;
-        }
-    }
-
-    public void processNode(
-            Node node, 
-            PlannerVehicle vehicle, 
-            List<PlannerOrder> orders, 
-            List<PlannerWarehouse> warehouses, 
-            Time currentTime,
-            boolean shouldLog,
-            Indicator indicators
-    ) {
-        if (shouldLog && (node instanceof ProductRefillNode || node instanceof OrderDeliverNode)) {
-            System.out.println("Processing node " + node.toString() + " for vehicle " + vehicle.id);
-        }
-        if (node instanceof ProductRefillNode) {
-            ProductRefillNode refillNode = (ProductRefillNode) node;
-            PlannerWarehouse warehouse = warehouses.stream()
-                .filter(w -> w.id == refillNode.warehouse.id)
-                .findFirst()
-                .orElse(null);
-            if (warehouse == null) {
-                throw new RuntimeException("Warehouse with id " + refillNode.warehouse.id + " not found");
-            }
-
-            warehouse.currentGLP -= refillNode.amountGLP;
-            if (warehouse.position.x == 12 && warehouse.position.y == 8) {
-                indicators.glpFilledMain += refillNode.amountGLP;
-            } else if (warehouse.position.x == 42 && warehouse.position.y == 42) {
-                indicators.glpFilledNorth += refillNode.amountGLP;
-            } else if (warehouse.position.x == 63 && warehouse.position.y == 3) {
-                indicators.glpFilledEast += refillNode.amountGLP;
-            }
-            indicators.glpFilledTotal += refillNode.amountGLP;
-            vehicle.currentGLP += refillNode.amountGLP;
-            vehicle.currentFuel = vehicle.maxFuel;
-            this.waitTransition = SimulationProperties.timeAfterRefill;
-        }
-        if (node instanceof OrderDeliverNode) {
-            OrderDeliverNode deliverNode = (OrderDeliverNode) node;
-            PlannerOrder order = orders.stream()
-                .filter(o -> o.id == deliverNode.order.id)
-                .findFirst()
-                .orElse(null);
-            if (order == null) {
-                throw new RuntimeException("Order with id " + deliverNode.order.id + " not found");
-            }
-
-            if (shouldLog) {
-                System.out.println("Order " + order.id + " currently has " + order.amountGLP + " GLP left to deliver");
-            }
-
-            order.amountGLP -= deliverNode.amountGLP;
-            vehicle.currentGLP -= deliverNode.amountGLP;
-
-            if (order.amountGLP == 0) {
-                order.deliverTime = currentTime;
-                indicators.completedOrders ++;
-                double deliveryTotalMinutes = (double) order.releaseTime.minutesUntil(currentTime);
-                indicators.deliveryTimes.add(deliveryTotalMinutes);
-            }
-
-            if (order.amountGLP < 0) {
-                throw new RuntimeException("Order " + order.id + " has " + order.amountGLP + " GLP left to deliver");
-            }
-
-            this.waitTransition = SimulationProperties.timeAfterDelivery;
-        }
-    }
-
     @Override
     public String toString() {
         return "PlannerVehicle{" +
@@ -21,7 +21,7 @@ public class PlannerWarehouse implements Cloneable {
     }
 
     public static PlannerWarehouse fromEntity(Almacen almacen) {
-        Position position = new Position(almacen.getPosicionX(), almacen.getPosicionY());
+        Position position = Position.of(almacen.getPosicionX(), almacen.getPosicionY());
         
         return new PlannerWarehouse(
             almacen.getId().intValue(),
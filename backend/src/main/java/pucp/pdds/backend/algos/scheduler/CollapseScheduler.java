@@ -7,6 +7,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import pucp.pdds.backend.algos.algorithm.Algorithm;
 import pucp.pdds.backend.algos.algorithm.Solution;
 import pucp.pdds.backend.algos.data.DataChunk;
+import pucp.pdds.backend.algos.utils.SimulationProperties;
 import pucp.pdds.backend.algos.utils.Time;
 import pucp.pdds.backend.dto.SimulationResponse;
 import pucp.pdds.backend.dto.UpdateFailuresMessage;
@@ -31,8 +32,13 @@ public class CollapseScheduler implements Runnable {
     
     // Variables para acumulación de datos (similar a WeeklyScheduler)
     private List<Map<String, Object>> simulacionCompleta = new ArrayList<>();
+    private SimulationStatistics estadisticas = new SimulationStatistics();
     private Time tiempoInicio;
     private long tiempoPlanificacionInicio;
+    private Solution lastSolution;
+
+    // Modo headless: sin pausas entre minutos y un snapshot cada SimulationProperties.headlessSnapshotInterval minutos
+    private boolean headless = false;
 
     public CollapseScheduler(SimpMessagingTemplate messagingTemplate) {
         this.messagingTemplate = messagingTemplate;
@@ -42,10 +48,15 @@ public class CollapseScheduler implements Runnable {
         this.state = state;
         // Inicializar acumulación de datos
         simulacionCompleta.clear();
+        estadisticas.clear();
         tiempoInicio = state.getCurrTime().clone();
         tiempoPlanificacionInicio = System.currentTimeMillis();
     }
 
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
     public void stop() {
         this.running = false;
         logger.info("Collapse simulation stop requested.");
@@ -71,7 +82,10 @@ public class CollapseScheduler implements Runnable {
                 logger.info("Planning interval for collapse simulation started at " + state.getCurrTime());
                 stateLock.unlock();
 
-                Algorithm algorithm = new Algorithm(true);
+                Algorithm algorithm = headless
+                    ? new Algorithm(true, SimulationProperties.headlessMaxTimeMs)
+                    : new Algorithm(true);
+                algorithm.setWarmStart(lastSolution);
                 Solution sol = algorithm.run(environment, state.minutesToSimulate);
 
                 if (!sol.isFeasible()) {
@@ -88,6 +102,10 @@ public class CollapseScheduler implements Runnable {
                     onAfterExecution(i, sol);
                     stateLock.unlock();
 
+                    if (headless) {
+                        continue;
+                    }
+
                     try {
                         Thread.sleep(200);
                     } catch (InterruptedException e) {
@@ -108,12 +126,20 @@ public class CollapseScheduler implements Runnable {
     }
 
     private void onAfterExecution(int iteration, Solution sol) {
+        lastSolution = sol;
+        state.recordMinute(estadisticas);
+
+        // En modo headless solo se arma la respuesta completa cada headlessSnapshotInterval minutos
+        if (headless && (estadisticas.getMinutosSimulados() - 1) % SimulationProperties.headlessSnapshotInterval != 0) {
+            return;
+        }
+
         java.util.Map<String, Object> response = buildSimulationUpdateResponse(state, sol);
         
         // Acumular datos para el resumen
         simulacionCompleta.add(new HashMap<>(response));
         
-        sendResponse("SIMULATION_UPDATE", response);
+        sendResponse(headless ? "SIMULATION_SNAPSHOT" : "SIMULATION_UPDATE", response);
     }
 
     private java.util.Map<String, Object> buildSimulationUpdateResponse(SchedulerState state, Solution sol) {
@@ -127,6 +153,8 @@ public class CollapseScheduler implements Runnable {
         var bloqueos = DataChunk.convertBlockagesToDataChunk(state.getActiveBlockages());
         var indicadores = DataChunk.convertIndicatorsToDataChunk(state.getActiveIndicators());
 
+        estadisticas.recordOrders(pedidos);
+
         response.put("almacenes", almacenes);
         response.put("vehiculos", vehiculos);
         response.put("pedidos", pedidos);
@@ -141,8 +169,14 @@ public class CollapseScheduler implements Runnable {
         long tiempoPlanificacionFin = System.currentTimeMillis();
         long tiempoPlanificacionMs = tiempoPlanificacionFin - tiempoPlanificacionInicio;
         
+        // En modo headless el último snapshot puede no ser el último minuto
+        if (headless && lastSolution != null) {
+            this.estadisticas.recordOrders(DataChunk.convertOrdersToDataChunk(
+                state.getPastOrders(), state.getVehicles(), lastSolution.routes, state.getCurrTime()));
+        }
+
         // Calcular estadísticas
-        Map<String, Object> estadisticas = calculateStatistics();
+        Map<String, Object> estadisticas = this.estadisticas.toMap();
         
         // Calcular duración de la simulación
         String duracion = calculateDuration(tiempoInicio, state.getCurrTime());
@@ -161,7 +195,7 @@ public class CollapseScheduler implements Runnable {
         System.out.println("Pedidos entregados: " + estadisticas.get("pedidosEntregados"));
         System.out.println("Consumo petróleo: " + estadisticas.get("consumoPetroleo"));
         System.out.println("Tiempo planificación: " + tiempoPlanificacion);
-        System.out.println("Minutos simulados: " + simulacionCompleta.size());
+        System.out.println("Minutos simulados: " + this.estadisticas.getMinutosSimulados());
         System.out.println("Estadísticas: " + estadisticas);
         System.out.println("=========================================");
         
@@ -193,86 +227,8 @@ public class CollapseScheduler implements Runnable {
         sendResponse("COLLAPSE_SIMULATION_SUMMARY", summary);
     }
 
-    private Map<String, Object> calculateStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        int pedidosEntregados = 0;
-        double consumoPetroleo = 0.0;
-        int totalVehiculos = 0;
-        int maxVehiculosActivosEnUnMinuto = 0;
-        java.util.Set<String> placasActivasUnicas = new java.util.HashSet<>();
-        
-        // Calcular estadísticas de los datos acumulados
-        for (Map<String, Object> minuto : simulacionCompleta) {
-            @SuppressWarnings("unchecked")
-            java.util.List<Object> vehiculos = (java.util.List<Object>) minuto.get("vehiculos");
-            if (vehiculos != null) {
-                totalVehiculos = Math.max(totalVehiculos, vehiculos.size());
-                int vehiculosActivosEsteMinuto = 0;
-                for (Object v : vehiculos) {
-                    try {
-                        var estadoField = v.getClass().getField("estado");
-                        String estado = (String) estadoField.get(v);
-                        if ("ONTHEWAY".equals(estado) || "DELIVERING".equals(estado)) {
-                            vehiculosActivosEsteMinuto++;
-                            // Contar placa única
-                            var placaField = v.getClass().getField("placa");
-                            String placa = (String) placaField.get(v);
-                            if (placa != null) {
-                                placasActivasUnicas.add(placa);
-                            }
-                        }
-                        var combustibleField = v.getClass().getField("combustible");
-                        var maxCombustibleField = v.getClass().getField("maxCombustible");
-                        int combustible = (int) combustibleField.get(v);
-                        int maxCombustible = (int) maxCombustibleField.get(v);
-                        consumoPetroleo += (maxCombustible - combustible) * 0.1; // Factor de conversión
-                    } catch (Exception ignored) {}
-                }
-                maxVehiculosActivosEnUnMinuto = Math.max(maxVehiculosActivosEnUnMinuto, vehiculosActivosEsteMinuto);
-            }
-        }
-
-        // Contar pedidos entregados únicos SOLO en el último minuto simulado
-        java.util.Set<Integer> pedidosEntregadosUnicos = new java.util.HashSet<>();
-        if (!simulacionCompleta.isEmpty()) {
-            Map<String, Object> ultimoMinuto = simulacionCompleta.get(simulacionCompleta.size() - 1);
-            @SuppressWarnings("unchecked")
-            java.util.List<Object> pedidos = (java.util.List<Object>) ultimoMinuto.get("pedidos");
-            if (pedidos != null) {
-                for (Object p : pedidos) {
-                    try {
-                        var estadoField = p.getClass().getField("estado");
-                        String estado = (String) estadoField.get(p);
-                        var idField = p.getClass().getField("idPedido");
-                        int idPedido = (int) idField.get(p);
-                        if ("Completado".equals(estado)) {
-                            pedidosEntregadosUnicos.add(idPedido);
-                        }
-                    } catch (Exception ignored) {}
-                }
-            }
-        }
-        pedidosEntregados = pedidosEntregadosUnicos.size();
-
-        stats.put("pedidosEntregados", pedidosEntregados);
-        stats.put("consumoPetroleo", Math.round(consumoPetroleo * 100.0) / 100.0);
-        stats.put("totalVehiculos", totalVehiculos);
-        stats.put("maxVehiculosActivosEnUnMinuto", maxVehiculosActivosEnUnMinuto);
-        stats.put("vehiculosActivosUnicos", placasActivasUnicas.size());
-        stats.put("minutosSimulados", simulacionCompleta.size());
-        
-        return stats;
-    }
-
     private String calculateDuration(Time inicio, Time fin) {
-        int minutos = 0;
-        Time temp = inicio.clone();
-        
-        while (temp.isBefore(fin)) {
-            minutos++;
-            temp = temp.addMinutes(1);
-        }
+        int minutos = Math.max(0, inicio.minutesUntil(fin));
         
         int horas = minutos / 60;
         int mins = minutos % 60;
@@ -3,7 +3,6 @@ package pucp.pdds.backend.algos.scheduler;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +34,8 @@ public class DailyScheduler implements Runnable {
     private final int algorithmTimeout = 10 * 1000; // PUT BACK TO 10 
 
     private Map<String, Object> lastResponse = null;
+    private volatile Algorithm runningAlgorithm;
+    private Solution previousSolution; // Plan del intervalo anterior, punto de partida del siguiente
 
     public void setState(SchedulerState state) {
         this.state = state;
@@ -72,7 +73,16 @@ public class DailyScheduler implements Runnable {
                 }
                 stateLock.unlock();
                 Algorithm algorithm = new Algorithm(true, algorithmTimeout);
-                Solution sol = algorithm.run(environment, state.minutesToSimulate);
+                String intervalo = formatSimTime(environment.currentTime);
+                algorithm.setListener(progress -> sendResponse("PLANNING_PROGRESS", DataChunk.convertPlanningProgressToDataChunk(progress, intervalo)));
+                algorithm.setWarmStart(previousSolution);
+                runningAlgorithm = algorithm;
+                Solution sol;
+                try {
+                    sol = algorithm.run(environment, state.minutesToSimulate);
+                } finally {
+                    runningAlgorithm = null;
+                }
                 debugPrint(sol.toString());
                 // PLAN LOGIC
 
@@ -83,6 +93,7 @@ public class DailyScheduler implements Runnable {
                 stateLock.lock();
                 state.advance(sol, true);
                 onAfterExecution(sol);
+                previousSolution = sol;
                 stateLock.unlock();
 
                 LocalDateTime realTime = state.getCurrTime().toLocalDateTime();
@@ -135,15 +146,19 @@ public class DailyScheduler implements Runnable {
             PlannerFailure failure = new PlannerFailure(
                 lastId + 1, message.getType(), message.getShiftOccurredOn(),
                 message.getVehiclePlaque(), null);
-            List<PlannerFailure> failures = new ArrayList<>(state.getFailures());
-            failures.add(failure);
-            state.setFailures(failures);
+            state.addFailures(List.of(failure));
             
             System.out.println("[DAILY] Added failure: " + failure.toString());
             System.out.println("[DAILY] Total failures: " + state.getFailures().size());
         } finally {
             stateLock.unlock();
         }
+
+        // Evento urgente: usar la mejor solución hasta ahora para que el siguiente plan ya incluya la avería
+        Algorithm running = runningAlgorithm;
+        if (running != null) {
+            running.requestStop();
+        }
     }
 
     public void fetchData() {
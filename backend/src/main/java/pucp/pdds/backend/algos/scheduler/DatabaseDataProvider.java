@@ -1,7 +1,6 @@
 package pucp.pdds.backend.algos.scheduler;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,15 +114,13 @@ public class DatabaseDataProvider implements DataProvider {
             findByFechaRegistroBetween(fetchingInterval[0], fetchingInterval[1])
             .stream()
             .map(PlannerOrder::fromEntity)
-            .filter(o-> !state.getOrders().stream().anyMatch(o2->o2.id == o.id))
+            .filter(o-> !state.hasOrder(o.id))
             .collect(Collectors.toList());
         for (PlannerOrder o : newOrders) {
             System.out.println("[SHOW] New order: " + o.id);
         }
 
-        List<PlannerOrder> newAllOrders = new ArrayList<>(state.getOrders());
-        newAllOrders.addAll(newOrders);
-        state.setOrders(newAllOrders);
+        state.addOrders(newOrders);
 
         // WORKING FINE
         List<PlannerBlockage> newBlockages = bloqueoRepository.
@@ -136,9 +133,7 @@ public class DatabaseDataProvider implements DataProvider {
             System.out.println("[SHOW] New blockage: " + b.id);
         }
 
-        List<PlannerBlockage> newAllBlockages = new ArrayList<>(state.getBlockages());
-        newAllBlockages.addAll(newBlockages);
-        state.setBlockages(newAllBlockages);
+        state.addBlockages(newBlockages);
 
         // NOT TRIED
         List<PlannerFailure> newFailures = incidenciaRepository.
@@ -147,8 +142,6 @@ public class DatabaseDataProvider implements DataProvider {
             .filter(f-> !state.getFailures().stream().anyMatch(f2->f2.id == f.id))
             .collect(Collectors.toList());
 
-        List<PlannerFailure> newAllFailures = new ArrayList<>(state.getFailures());
-        newAllFailures.addAll(newFailures);
-        state.setFailures(newAllFailures);
+        state.addFailures(newFailures);
     }
 }
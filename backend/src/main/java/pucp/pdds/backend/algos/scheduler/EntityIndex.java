@@ -0,0 +1,320 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.entities.PlannerFailure;
+import pucp.pdds.backend.algos.entities.PlannerMaintenance;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * Lookup tables used by the per-minute loop of SchedulerState, so a tick does not scan
+ * every order, warehouse, failure and maintenance for every vehicle.
+ *
+ * Orders and warehouses are indexed by id, maintenances by plaque and failures still pending
+ * by plaque and shift. Each table keeps the order of the original list, so lookups return the
+ * same element the old stream().filter().findFirst() did. The tables are rebuilt when a list is
+ * replaced and extended in place when new entities are appended.
+ *
+ * Time queries (active blockages, maintenances and orders) go through interval trees over
+ * epoch minutes. Orders still waiting for delivery are also kept sorted by arrival, since their
+ * deadline moves and cannot be indexed; an order leaves that set when it is delivered.
+ */
+class EntityIndex {
+    private static final PlannerFailure.Shift[] SHIFTS = PlannerFailure.Shift.values();
+    private static final int SHIFT_MINUTES = Time.MINUTES_PER_DAY / 3; // T1, T2 y T3 duran 8 horas
+
+    private final IntTable<PlannerOrder> ordersById = new IntTable<>();
+    private final IntTable<PlannerWarehouse> warehousesById = new IntTable<>();
+    private PlannerWarehouse mainWarehouse;
+    private final Map<String, List<PlannerMaintenance>> maintenancesByPlaque = new HashMap<>();
+    private final Map<String, EnumMap<PlannerFailure.Shift, List<PlannerFailure>>> pendingFailuresByPlaque = new HashMap<>();
+
+    private final IntervalIndex<PlannerBlockage> blockagesByTime = new IntervalIndex<>();
+    private final IntervalIndex<PlannerMaintenance> maintenancesByTime = new IntervalIndex<>();
+    private final IntervalIndex<PlannerOrder> ordersByArrival = new IntervalIndex<>();
+    // Clave: minuto de llegada en los 32 bits altos, posición en la lista en los bajos
+    private final TreeMap<Long, PlannerOrder> undeliveredOrders = new TreeMap<>();
+    private final Map<PlannerOrder, Long> undeliveredKeys = new IdentityHashMap<>();
+    private int orderSeq = 0;
+
+    void indexOrders(List<PlannerOrder> orders, boolean reset) {
+        if (reset) {
+            ordersById.clear();
+            ordersByArrival.clear();
+            undeliveredOrders.clear();
+            undeliveredKeys.clear();
+            orderSeq = 0;
+        }
+        for (PlannerOrder order : orders) {
+            ordersById.putIfAbsent(order.id, order);
+            int arrival = order.arrivalTime.toEpochMinute();
+            ordersByArrival.add(order, arrival, arrival);
+            long key = ((long) arrival << 32) | orderSeq++;
+            if (order.deliverTime == null && !undeliveredKeys.containsKey(order)) {
+                undeliveredOrders.put(key, order);
+                undeliveredKeys.put(order, key);
+            }
+        }
+    }
+
+    void indexBlockages(List<PlannerBlockage> blockages, boolean reset) {
+        if (reset) {
+            blockagesByTime.clear();
+        }
+        for (PlannerBlockage blockage : blockages) {
+            blockagesByTime.add(blockage, blockage.startTime.toEpochMinute(), blockage.endTime.toEpochMinute());
+        }
+    }
+
+    void indexWarehouses(List<PlannerWarehouse> warehouses) {
+        warehousesById.clear();
+        mainWarehouse = null;
+        for (PlannerWarehouse warehouse : warehouses) {
+            warehousesById.putIfAbsent(warehouse.id, warehouse);
+            if (mainWarehouse == null && warehouse.isMain) {
+                mainWarehouse = warehouse;
+            }
+        }
+    }
+
+    void indexMaintenances(List<PlannerMaintenance> maintenances) {
+        maintenancesByPlaque.clear();
+        maintenancesByTime.clear();
+        for (PlannerMaintenance maintenance : maintenances) {
+            maintenancesByPlaque.computeIfAbsent(maintenance.vehiclePlaque, k -> new ArrayList<>()).add(maintenance);
+            // Activo desde el inicio hasta el minuto anterior al fin
+            maintenancesByTime.add(maintenance, maintenance.startDate.toEpochMinute(), maintenance.endDate.toEpochMinute() - 1);
+        }
+    }
+
+    void indexFailures(List<PlannerFailure> failures, boolean reset) {
+        if (reset) {
+            pendingFailuresByPlaque.clear();
+        }
+        for (PlannerFailure failure : failures) {
+            if (failure.hasBeenAssigned() || failure.shiftOccurredOn == null) {
+                continue;
+            }
+            shiftsOf(failure.vehiclePlaque).get(failure.shiftOccurredOn).add(failure);
+        }
+    }
+
+    PlannerOrder getOrder(int id) {
+        return ordersById.get(id);
+    }
+
+    PlannerWarehouse getWarehouse(int id) {
+        return warehousesById.get(id);
+    }
+
+    PlannerWarehouse getMainWarehouse() {
+        return mainWarehouse;
+    }
+
+    List<PlannerBlockage> getBlockages(int from, int to) {
+        return blockagesByTime.overlapping(from, to);
+    }
+
+    List<PlannerMaintenance> getActiveMaintenances(Time time) {
+        return maintenancesByTime.activeAt(time.toEpochMinute());
+    }
+
+    List<PlannerOrder> getOrdersArrivedBetween(int from, int to) {
+        return ordersByArrival.overlapping(from, to);
+    }
+
+    // Pedidos ya llegados, sin entregar y dentro de su plazo, en el orden de la lista
+    List<PlannerOrder> getActiveOrders(Time time) {
+        List<Long> keys = new ArrayList<>();
+        for (Map.Entry<Long, PlannerOrder> entry : undeliveredOrders.headMap((long) time.toEpochMinute() << 32).entrySet()) {
+            if (entry.getValue().isActive(time)) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.sort((a, b) -> Integer.compare((int) (long) a, (int) (long) b));
+        List<PlannerOrder> result = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            result.add(undeliveredOrders.get(key));
+        }
+        return result;
+    }
+
+    // Primer minuto desde 'from' en que llega un pedido
+    int nextOrderArrivalMinute(int from) {
+        return ordersByArrival.nextChange(from);
+    }
+
+    // Primer minuto desde 'from' en que un bloqueo empieza o termina
+    int nextBlockageChangeMinute(int from) {
+        return blockagesByTime.nextChange(from);
+    }
+
+    void orderDelivered(PlannerOrder order) {
+        Long key = undeliveredKeys.remove(order);
+        if (key != null) {
+            undeliveredOrders.remove(key);
+        }
+    }
+
+    // Primer mantenimiento activo del vehículo, null si no tiene
+    PlannerMaintenance getActiveMaintenance(String plaque, Time time) {
+        List<PlannerMaintenance> maintenances = maintenancesByPlaque.get(plaque);
+        if (maintenances == null) {
+            return null;
+        }
+        for (PlannerMaintenance maintenance : maintenances) {
+            if (maintenance.isActive(time)) {
+                return maintenance;
+            }
+        }
+        return null;
+    }
+
+    // Primera avería sin ocurrir del vehículo programada para el turno dado
+    PlannerFailure getPendingFailure(String plaque, PlannerFailure.Shift shift) {
+        EnumMap<PlannerFailure.Shift, List<PlannerFailure>> shifts = pendingFailuresByPlaque.get(plaque);
+        if (shifts == null) {
+            return null;
+        }
+        for (PlannerFailure failure : shifts.get(shift)) {
+            if (!failure.hasBeenAssigned()) {
+                return failure;
+            }
+        }
+        return null;
+    }
+
+    // Primer minuto desde 'from' en que el vehículo tiene un mantenimiento activo
+    int nextMaintenanceMinute(String plaque, int from) {
+        List<PlannerMaintenance> maintenances = maintenancesByPlaque.get(plaque);
+        int next = Integer.MAX_VALUE;
+        if (maintenances == null) {
+            return next;
+        }
+        for (PlannerMaintenance maintenance : maintenances) {
+            int start = maintenance.startDate.toEpochMinute();
+            int end = maintenance.endDate.toEpochMinute();
+            int first = Math.max(start, from);
+            if (first < end) {
+                next = Math.min(next, first);
+            }
+        }
+        return next;
+    }
+
+    // Primer minuto desde 'from' cuyo turno tiene una avería sin ocurrir para el vehículo
+    int nextPendingFailureMinute(String plaque, int from) {
+        if (!pendingFailuresByPlaque.containsKey(plaque)) {
+            return Integer.MAX_VALUE;
+        }
+        int shiftStart = from - Math.floorMod(from, SHIFT_MINUTES);
+        for (int k = 0; k < SHIFTS.length; k++) {
+            int minute = k == 0 ? from : shiftStart + k * SHIFT_MINUTES;
+            if (getPendingFailure(plaque, shiftOf(minute)) != null) {
+                return minute;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // La avería ya ocurrió, deja de ser candidata
+    void failureOccurred(PlannerFailure failure) {
+        EnumMap<PlannerFailure.Shift, List<PlannerFailure>> shifts = pendingFailuresByPlaque.get(failure.vehiclePlaque);
+        if (shifts != null && failure.shiftOccurredOn != null) {
+            shifts.get(failure.shiftOccurredOn).remove(failure);
+        }
+    }
+
+    static PlannerFailure.Shift shiftOf(Time time) {
+        return shiftOf(time.toEpochMinute());
+    }
+
+    static PlannerFailure.Shift shiftOf(int minute) {
+        return SHIFTS[Math.floorMod(minute, Time.MINUTES_PER_DAY) / SHIFT_MINUTES];
+    }
+
+    private EnumMap<PlannerFailure.Shift, List<PlannerFailure>> shiftsOf(String plaque) {
+        return pendingFailuresByPlaque.computeIfAbsent(plaque, k -> {
+            EnumMap<PlannerFailure.Shift, List<PlannerFailure>> shifts = new EnumMap<>(PlannerFailure.Shift.class);
+            for (PlannerFailure.Shift shift : SHIFTS) {
+                shifts.put(shift, new ArrayList<>());
+            }
+            return shifts;
+        });
+    }
+
+    /**
+     * Open-addressing hash table with int keys, avoids boxing the id on every lookup.
+     */
+    static class IntTable<V> {
+        private int[] keys = new int[16];
+        private Object[] values = new Object[16];
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        V get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return (V) values[slot];
+                }
+            }
+            return null;
+        }
+
+        void putIfAbsent(int key, V value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[capacity];
+            values = new Object[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldValues[slot] != null) {
+                    putIfAbsent(oldKeys[slot], (V) oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
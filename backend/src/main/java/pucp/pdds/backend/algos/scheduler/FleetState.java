@@ -0,0 +1,340 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pucp.pdds.backend.algos.data.Indicator;
+import pucp.pdds.backend.algos.entities.PlannerVehicle;
+import pucp.pdds.backend.algos.utils.Position;
+
+/**
+ * Struct-of-arrays copy of the fleet used by the per-minute loop of SchedulerState.
+ * Vehicle i of every array is vehicles[i]. Only the attributes that change minute by minute
+ * live here; the rest (plaque, failures, maintenances...) stays in the PlannerVehicle.
+ *
+ * Paths are stored as coordinate arrays with a cursor (pathStart) instead of a list that
+ * loses its first element on every step, so advancing a vehicle does not allocate.
+ * A path of size -1 is a null currentPath.
+ *
+ * wakeMinute[i] is the epoch minute of the next event of vehicle i (see
+ * SchedulerState.nextEventMinute). Before that minute the vehicle only counts down its timers.
+ *
+ * load() only reads the vehicles whose object no longer holds what was last read or written;
+ * those were modified outside the simulation and are also woken up. The others keep their arrays
+ * as they are, paths included.
+ */
+class FleetState {
+    static final PlannerVehicle.VehicleState[] STATES = PlannerVehicle.VehicleState.values();
+    static final int IDLE = PlannerVehicle.VehicleState.IDLE.ordinal();
+    static final int ONTHEWAY = PlannerVehicle.VehicleState.ONTHEWAY.ordinal();
+    static final int STUCK = PlannerVehicle.VehicleState.STUCK.ordinal();
+    static final int RETURNING_TO_BASE = PlannerVehicle.VehicleState.RETURNING_TO_BASE.ordinal();
+    static final int REPAIR = PlannerVehicle.VehicleState.REPAIR.ordinal();
+    static final int MAINTENANCE = PlannerVehicle.VehicleState.MAINTENANCE.ordinal();
+    static final int FINISHED = PlannerVehicle.VehicleState.FINISHED.ordinal();
+
+    private static final int TYPE_TA = 0, TYPE_TB = 1, TYPE_TC = 2, TYPE_TD = 3, TYPE_OTHER = -1;
+
+    final PlannerVehicle[] vehicles;
+    final double[] x;
+    final double[] y;
+    final double[] fuel;
+    final int[] glp;
+    final int[] state;
+    final int[] nextNodeIndex;
+    final int[] waitTransition;
+    final int[] minutesUntilFailure;
+    final int[] wakeMinute; // 0 = revisar en el próximo minuto
+
+    // Constantes durante la simulación
+    private final double[] weight;
+    private final int[] type;
+
+    private final double[][] pathX;
+    private final double[][] pathY;
+    private final int[] pathStart;
+    private final int[] pathEnd; // -1 = sin ruta
+    private final boolean[] pathChanged; // ruta modificada desde el último load/store
+
+    // Referencias vistas en el último load/store, para notar cambios hechos desde afuera
+    private final Object[] seenPath;
+    private final Object[] seenFailure;
+    private final Object[] seenMaintenance;
+    private final Object[] seenReincorporation;
+    private boolean synced = false; // false hasta el primer load
+
+    FleetState(List<PlannerVehicle> vehicles) {
+        int size = vehicles.size();
+        this.vehicles = vehicles.toArray(new PlannerVehicle[0]);
+        this.x = new double[size];
+        this.y = new double[size];
+        this.fuel = new double[size];
+        this.glp = new int[size];
+        this.state = new int[size];
+        this.nextNodeIndex = new int[size];
+        this.waitTransition = new int[size];
+        this.minutesUntilFailure = new int[size];
+        this.wakeMinute = new int[size];
+        this.weight = new double[size];
+        this.type = new int[size];
+        this.pathX = new double[size][];
+        this.pathY = new double[size][];
+        this.pathStart = new int[size];
+        this.pathEnd = new int[size];
+        this.pathChanged = new boolean[size];
+        this.seenPath = new Object[size];
+        this.seenFailure = new Object[size];
+        this.seenMaintenance = new Object[size];
+        this.seenReincorporation = new Object[size];
+        load();
+    }
+
+    int size() {
+        return vehicles.length;
+    }
+
+    /**
+     * True if this copy was built from exactly these vehicle objects, in this order.
+     */
+    boolean isViewOf(List<PlannerVehicle> list) {
+        if (list.size() != vehicles.length) {
+            return false;
+        }
+        for (int i = 0; i < vehicles.length; i++) {
+            if (list.get(i) != vehicles[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads into the arrays the vehicles modified since the last load or store.
+     */
+    void load() {
+        for (int i = 0; i < vehicles.length; i++) {
+            PlannerVehicle vehicle = vehicles[i];
+            if (synced && !changedOutside(i, vehicle)) {
+                continue;
+            }
+            wakeMinute[i] = 0;
+            x[i] = vehicle.position.x;
+            y[i] = vehicle.position.y;
+            fuel[i] = vehicle.currentFuel;
+            glp[i] = vehicle.currentGLP;
+            state[i] = vehicle.state.ordinal();
+            nextNodeIndex[i] = vehicle.nextNodeIndex;
+            waitTransition[i] = vehicle.waitTransition;
+            minutesUntilFailure[i] = vehicle.minutesUntilFailure;
+            weight[i] = vehicle.weight;
+            type[i] = typeIndex(vehicle.type);
+            setPath(i, vehicle.currentPath);
+            pathChanged[i] = false;
+            remember(i, vehicle);
+        }
+        synced = true;
+    }
+
+    /**
+     * Writes the arrays back to the vehicles. Positions and paths are only rebuilt when they changed.
+     */
+    void store() {
+        for (int i = 0; i < vehicles.length; i++) {
+            PlannerVehicle vehicle = vehicles[i];
+            if (vehicle.position.x != x[i] || vehicle.position.y != y[i]) {
+                vehicle.position = Position.of(x[i], y[i]);
+            }
+            vehicle.currentFuel = fuel[i];
+            vehicle.currentGLP = glp[i];
+            vehicle.state = STATES[state[i]];
+            vehicle.nextNodeIndex = nextNodeIndex[i];
+            vehicle.waitTransition = waitTransition[i];
+            vehicle.minutesUntilFailure = minutesUntilFailure[i];
+            if (pathChanged[i]) {
+                vehicle.currentPath = getPath(i);
+                pathChanged[i] = false;
+            }
+            remember(i, vehicle);
+        }
+    }
+
+    void wakeAll() {
+        Arrays.fill(wakeMinute, 0);
+    }
+
+    /**
+     * Minutes of a sleeping vehicle: the same counters advanceVehicle would decrement once per minute.
+     */
+    void sleepMinutes(int i, int minutes) {
+        if (minutesUntilFailure[i] > 0) {
+            minutesUntilFailure[i] = Math.max(minutesUntilFailure[i] - minutes, 0);
+        }
+        if (isActive(i) && waitTransition[i] > 0) {
+            waitTransition[i] = Math.max(waitTransition[i] - minutes, 0);
+        }
+    }
+
+    private void remember(int i, PlannerVehicle vehicle) {
+        seenPath[i] = vehicle.currentPath;
+        seenFailure[i] = vehicle.currentFailure;
+        seenMaintenance[i] = vehicle.currentMaintenance;
+        seenReincorporation[i] = vehicle.reincorporationTime;
+    }
+
+    // True si el objeto ya no tiene lo que se escribió o leyó la última vez
+    private boolean changedOutside(int i, PlannerVehicle vehicle) {
+        return vehicle.position.x != x[i] || vehicle.position.y != y[i]
+            || vehicle.currentFuel != fuel[i] || vehicle.currentGLP != glp[i]
+            || vehicle.state.ordinal() != state[i] || vehicle.nextNodeIndex != nextNodeIndex[i]
+            || vehicle.waitTransition != waitTransition[i] || vehicle.minutesUntilFailure != minutesUntilFailure[i]
+            || vehicle.currentPath != seenPath[i] || vehicle.currentFailure != seenFailure[i]
+            || vehicle.currentMaintenance != seenMaintenance[i] || vehicle.reincorporationTime != seenReincorporation[i];
+    }
+
+    Position getPosition(int i) {
+        return Position.of(x[i], y[i]);
+    }
+
+    boolean isActive(int i) {
+        return state[i] == IDLE || state[i] == FINISHED || state[i] == ONTHEWAY;
+    }
+
+    int pathSize(int i) {
+        return pathEnd[i] < 0 ? -1 : pathEnd[i] - pathStart[i];
+    }
+
+    /**
+     * Equivalent to currentPath == null || currentPath.isEmpty().
+     */
+    boolean hasNoPath(int i) {
+        return pathSize(i) <= 0;
+    }
+
+    void setPath(int i, List<Position> path) {
+        pathChanged[i] = true;
+        pathStart[i] = 0;
+        if (path == null) {
+            pathEnd[i] = -1;
+            return;
+        }
+        int size = path.size();
+        if (pathX[i] == null || pathX[i].length < size) {
+            int capacity = Math.max(size, 16);
+            pathX[i] = new double[capacity];
+            pathY[i] = new double[capacity];
+        }
+        for (int k = 0; k < size; k++) {
+            Position position = path.get(k);
+            pathX[i][k] = position.x;
+            pathY[i][k] = position.y;
+        }
+        pathEnd[i] = size;
+    }
+
+    void clearPath(int i) {
+        setPath(i, null);
+    }
+
+    List<Position> getPath(int i) {
+        if (pathEnd[i] < 0) {
+            return null;
+        }
+        List<Position> path = new ArrayList<>(pathEnd[i] - pathStart[i]);
+        for (int k = pathStart[i]; k < pathEnd[i]; k++) {
+            path.add(Position.of(pathX[i][k], pathY[i][k]));
+        }
+        return path;
+    }
+
+    /**
+     * Moves vehicle i up to units km along its path, burning fuel. Same rules as the former
+     * PlannerVehicle.advancePath, without allocating.
+     */
+    void advancePath(int i, double units, Indicator indicators) {
+        if (pathSize(i) < 2) {
+            clearPath(i);
+            return;
+        }
+
+        double[] px = pathX[i];
+        double[] py = pathY[i];
+        int start = pathStart[i];
+        int end = pathEnd[i];
+
+        while (units > 0 && end - start > 1 && fuel[i] > 0) {
+            double fromX = px[start], fromY = py[start];
+            double toX = px[start + 1], toY = py[start + 1];
+
+            double segmentDistance = Math.abs(fromX - toX) + Math.abs(fromY - toY);
+            if (segmentDistance <= 0) {
+                start++;
+                continue;
+            }
+
+            double fuelCostForSegment = segmentDistance * (weight[i] / 1000 + glp[i] * 0.5) / 180;
+            double fuelPerUnit = fuelCostForSegment / segmentDistance;
+
+            double maxDistWithFuel = (fuelPerUnit > 0) ? fuel[i] / fuelPerUnit : Double.POSITIVE_INFINITY;
+            double distanceToMove = Math.min(units, Math.min(segmentDistance, maxDistWithFuel));
+
+            double fuelUsed = distanceToMove * fuelPerUnit;
+            fuel[i] -= fuelUsed;
+            switch (type[i]) {
+                case TYPE_TA:
+                    indicators.fuelCounterTA += fuelUsed;
+                    break;
+                case TYPE_TB:
+                    indicators.fuelCounterTB += fuelUsed;
+                    break;
+                case TYPE_TC:
+                    indicators.fuelCounterTC += fuelUsed;
+                    break;
+                case TYPE_TD:
+                    indicators.fuelCounterTD += fuelUsed;
+                    break;
+                default:
+                    break;
+            }
+            indicators.fuelCounterTotal += fuelUsed;
+            units -= distanceToMove;
+
+            if (distanceToMove >= segmentDistance) {
+                x[i] = toX;
+                y[i] = toY;
+                start++;
+            } else {
+                double ratio = distanceToMove / segmentDistance;
+                double newX = fromX + (toX - fromX) * ratio;
+                double newY = fromY + (toY - fromY) * ratio;
+                x[i] = newX;
+                y[i] = newY;
+                px[start] = newX;
+                py[start] = newY;
+            }
+        }
+
+        pathStart[i] = start;
+        pathChanged[i] = true;
+
+        if (fuel[i] <= 0) {
+            fuel[i] = 0;
+            state[i] = STUCK;
+        }
+    }
+
+    private static int typeIndex(String type) {
+        switch (type) {
+            case "TA":
+                return TYPE_TA;
+            case "TB":
+                return TYPE_TB;
+            case "TC":
+                return TYPE_TC;
+            case "TD":
+                return TYPE_TD;
+            default:
+                return TYPE_OTHER;
+        }
+    }
+}
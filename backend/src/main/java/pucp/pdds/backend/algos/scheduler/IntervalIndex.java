@@ -0,0 +1,162 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static interval tree over epoch minutes: "which items overlap [from, to]" in O(log n + k).
+ *
+ * Items are kept in an array sorted by start. The tree is implicit: the middle of every range
+ * is the node and the halves are its children, and maxEnd[mid] holds the largest end of the
+ * subtree, so whole subtrees that end before the query are skipped.
+ *
+ * Appended items wait in a buffer until the next query, then the array is merged and the
+ * maxEnd values rebuilt once. Results come back in insertion order, the same order as the
+ * list the items came from.
+ *
+ * nextChange answers "when does the set of active items change next" with two binary searches,
+ * over the starts and over a sorted copy of the minutes right after each end.
+ */
+class IntervalIndex<T> {
+    private Object[] items = new Object[0];
+    private int[] start = new int[0];
+    private int[] end = new int[0];
+    private int[] seq = new int[0];
+    private int[] maxEnd = new int[0];
+    private int[] exits = new int[0]; // end + 1 de cada elemento, ordenados
+
+    private final List<T> pendingItems = new ArrayList<>();
+    private final List<int[]> pendingBounds = new ArrayList<>();
+    private int nextSeq = 0;
+
+    // start y end inclusivos
+    void add(T item, int startMinute, int endMinute) {
+        pendingItems.add(item);
+        pendingBounds.add(new int[] { startMinute, endMinute, nextSeq++ });
+    }
+
+    void clear() {
+        items = new Object[0];
+        start = end = seq = maxEnd = exits = new int[0];
+        pendingItems.clear();
+        pendingBounds.clear();
+        nextSeq = 0;
+    }
+
+    int size() {
+        return items.length + pendingItems.size();
+    }
+
+    List<T> overlapping(int from, int to) {
+        flush();
+        List<Integer> hits = new ArrayList<>();
+        collect(0, items.length, from, to, hits);
+        hits.sort((a, b) -> Integer.compare(seq[a], seq[b]));
+        List<T> result = new ArrayList<>(hits.size());
+        for (int hit : hits) {
+            result.add(item(hit));
+        }
+        return result;
+    }
+
+    List<T> activeAt(int minute) {
+        return overlapping(minute, minute);
+    }
+
+    // Primer minuto desde 'from' en que un elemento empieza o deja de estar activo, MAX_VALUE si no hay
+    int nextChange(int from) {
+        flush();
+        return Math.min(firstAtOrAfter(start, from), firstAtOrAfter(exits, from));
+    }
+
+    private static int firstAtOrAfter(int[] sorted, int from) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < sorted.length ? sorted[lo] : Integer.MAX_VALUE;
+    }
+
+    private void collect(int lo, int hi, int from, int to, List<Integer> hits) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] < from) {
+                return;
+            }
+            collect(lo, mid, from, to, hits);
+            if (start[mid] > to) {
+                return; // todo lo que sigue empieza después de la consulta
+            }
+            if (end[mid] >= from) {
+                hits.add(mid);
+            }
+            lo = mid + 1;
+        }
+    }
+
+    private void flush() {
+        if (pendingItems.isEmpty()) {
+            return;
+        }
+        int oldSize = items.length;
+        int size = oldSize + pendingItems.size();
+        Integer[] order = new Integer[size];
+        int[] allStart = Arrays.copyOf(start, size);
+        int[] allEnd = Arrays.copyOf(end, size);
+        int[] allSeq = Arrays.copyOf(seq, size);
+        Object[] allItems = Arrays.copyOf(items, size);
+        for (int k = 0; k < pendingItems.size(); k++) {
+            int[] bounds = pendingBounds.get(k);
+            allItems[oldSize + k] = pendingItems.get(k);
+            allStart[oldSize + k] = bounds[0];
+            allEnd[oldSize + k] = bounds[1];
+            allSeq[oldSize + k] = bounds[2];
+        }
+        for (int k = 0; k < size; k++) {
+            order[k] = k;
+        }
+        // Estable: a igual inicio se conserva el orden de inserción
+        Arrays.sort(order, (a, b) -> Integer.compare(allStart[a], allStart[b]));
+
+        items = new Object[size];
+        start = new int[size];
+        end = new int[size];
+        seq = new int[size];
+        for (int k = 0; k < size; k++) {
+            items[k] = allItems[order[k]];
+            start[k] = allStart[order[k]];
+            end[k] = allEnd[order[k]];
+            seq[k] = allSeq[order[k]];
+        }
+        maxEnd = new int[size];
+        buildMaxEnd(0, size);
+        exits = new int[size];
+        for (int k = 0; k < size; k++) {
+            exits[k] = end[k] == Integer.MAX_VALUE ? end[k] : end[k] + 1;
+        }
+        Arrays.sort(exits);
+        pendingItems.clear();
+        pendingBounds.clear();
+    }
+
+    private int buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(end[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int index) {
+        return (T) items[index];
+    }
+}
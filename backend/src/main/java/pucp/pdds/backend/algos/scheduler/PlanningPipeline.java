@@ -0,0 +1,215 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import pucp.pdds.backend.algos.algorithm.Solution;
+
+/**
+ * Plans replanning intervals ahead of the execution. The planner thread starts from a seed state,
+ * plans the interval, fast-forwards a copy of the state with that plan (minuteStep, the same per-minute
+ * rules as the execution) to predict the start of the next interval and keeps going, up to SimulationProperties.planAheadIntervals finished plans.
+ *
+ * Every plan remembers the fingerprint of the state it was planned from. When the executed state
+ * does not match (or an event calls restart) the queued plans are dropped and planning resumes from
+ * the real state.
+ *
+ * The planner also receives the plan of the previous interval (null if unknown) to warm-start
+ * the search from it, and can register a way to stop its search (registerSearch) so a restart
+ * cuts the search of the generation it invalidates.
+ */
+class PlanningPipeline {
+    static class Plan {
+        final Solution solution;
+        final int startMinute;
+        final long fingerprint;
+        final int generation;
+        final RuntimeException error;
+
+        Plan(Solution solution, int startMinute, long fingerprint, int generation, RuntimeException error) {
+            this.solution = solution;
+            this.startMinute = startMinute;
+            this.fingerprint = fingerprint;
+            this.generation = generation;
+            this.error = error;
+        }
+    }
+
+    private final BiFunction<SchedulerState, Solution, Solution> planner; // (estado, plan anterior) -> plan
+    private final BiConsumer<SchedulerState, Solution> minuteStep; // Avanza un minuto un estado previsto
+    private final Consumer<String> log; // Mensajes de depuración del scheduler
+    private final BlockingQueue<Plan> plans;
+    private final Object seedLock = new Object();
+    private volatile int generation = 0;
+    private SchedulerState seed;
+    private Solution seedSolution; // Plan ya conocido para el primer intervalo del seed
+    private Solution seedPrevious; // Plan ejecutado justo antes del seed
+    private Solution lastTaken; // Último plan entregado por next()
+    private int searchGeneration = -1; // Generación del plan que el hilo planificador está calculando
+    private Runnable searchStop; // Corta esa búsqueda, null si no hay una registrada
+    private Thread thread;
+
+    PlanningPipeline(BiFunction<SchedulerState, Solution, Solution> planner, BiConsumer<SchedulerState, Solution> minuteStep, int depth,
+            Consumer<String> log) {
+        this.planner = planner;
+        this.minuteStep = minuteStep;
+        this.log = log;
+        this.plans = new ArrayBlockingQueue<>(Math.max(1, depth));
+    }
+
+    /**
+     * Starts the planner thread. initialSolution, if not null, is used for the first interval
+     * instead of planning it.
+     */
+    void start(SchedulerState initialState, Solution initialSolution, String name) {
+        synchronized (seedLock) {
+            seed = initialState;
+            seedSolution = initialSolution;
+            seedPrevious = null;
+        }
+        thread = new Thread(this::runPlanner, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Drops every queued or in-progress plan and plans again from state, which must be the
+     * (predicted) state at the start of an interval reached by executing previous.
+     */
+    void restart(SchedulerState state, Solution previous) {
+        synchronized (seedLock) {
+            if (searchStop != null && searchGeneration == generation) {
+                searchStop.run();
+                searchStop = null;
+            }
+            generation++;
+            seed = state;
+            seedSolution = null;
+            seedPrevious = previous;
+            plans.clear();
+            seedLock.notifyAll();
+        }
+    }
+
+    /**
+     * Called by the planner, on the planner thread, when its search starts. stop is run when a restart
+     * invalidates the plan being computed, or right away if that already happened.
+     */
+    void registerSearch(Runnable stop) {
+        synchronized (seedLock) {
+            if (searchGeneration != generation) {
+                stop.run();
+            } else {
+                searchStop = stop;
+            }
+        }
+    }
+
+    /**
+     * Next plan for the interval starting at the current time of state. Plans from before the last
+     * restart are skipped and, if the state is not the prediction the plan was made for (other minute
+     * or other fingerprint), planning restarts from it.
+     */
+    Plan next(SchedulerState state, Lock stateLock) throws InterruptedException {
+        while (true) {
+            Plan plan = plans.take();
+            if (plan.error != null) {
+                throw plan.error;
+            }
+
+            SchedulerState divergedState = null;
+            stateLock.lock();
+            try {
+                if (plan.generation != generation) {
+                    continue; // Planeado antes del último restart, ya vienen los del nuevo seed
+                }
+                // Un plan vigente para otro minuto no se va a corregir solo: el resto de la cola sigue
+                // la misma predicción, así que se replanifica desde el estado real
+                if (plan.startMinute != state.getCurrTime().toEpochMinute()
+                        || plan.fingerprint != state.planningFingerprint()) {
+                    divergedState = state.clone();
+                }
+            } finally {
+                stateLock.unlock();
+            }
+
+            if (divergedState == null) {
+                lastTaken = plan.solution;
+                return plan;
+            }
+            log.accept("State diverged from the prediction, replanning");
+            restart(divergedState, lastTaken);
+        }
+    }
+
+    private void runPlanner() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                SchedulerState state;
+                Solution solution;
+                Solution previous;
+                int planGeneration;
+                synchronized (seedLock) {
+                    while (seed == null) {
+                        seedLock.wait();
+                    }
+                    state = seed;
+                    solution = seedSolution;
+                    previous = seedPrevious;
+                    planGeneration = generation;
+                    seed = null;
+                    seedSolution = null;
+                    seedPrevious = null;
+                }
+
+                while (planGeneration == generation) {
+                    long fingerprint = state.planningFingerprint();
+                    int startMinute = state.getCurrTime().toEpochMinute();
+                    if (solution == null) {
+                        synchronized (seedLock) {
+                            searchGeneration = planGeneration;
+                        }
+                        try {
+                            // El planificador modifica lo que recibe (stock de almacenes), la predicción parte del original
+                            solution = planner.apply(state.clone(), previous);
+                        } catch (RuntimeException e) {
+                            plans.put(new Plan(null, startMinute, fingerprint, planGeneration, e));
+                            return;
+                        } finally {
+                            synchronized (seedLock) {
+                                searchGeneration = -1;
+                                searchStop = null;
+                            }
+                        }
+                    }
+                    if (planGeneration != generation) {
+                        break;
+                    }
+                    plans.put(new Plan(solution, startMinute, fingerprint, planGeneration, null));
+
+                    // Estado previsto al inicio del siguiente intervalo
+                    SchedulerState predicted = state.clone();
+                    predicted.initializeVehicles();
+                    for (int i = 0; i < predicted.minutesToSimulate; i++) {
+                        minuteStep.accept(predicted, solution);
+                    }
+                    state = predicted;
+                    previous = solution;
+                    solution = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package pucp.pdds.backend.algos.scheduler;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import pucp.pdds.backend.algos.entities.PlannerVehicle;
@@ -11,6 +13,8 @@ import pucp.pdds.backend.algos.entities.PlannerWarehouse;
 import pucp.pdds.backend.algos.entities.PlannerFailure;
 import pucp.pdds.backend.algos.entities.PlannerMaintenance;
 import pucp.pdds.backend.algos.algorithm.Node;
+import pucp.pdds.backend.algos.algorithm.OrderDeliverNode;
+import pucp.pdds.backend.algos.algorithm.ProductRefillNode;
 import pucp.pdds.backend.algos.algorithm.Solution;
 import pucp.pdds.backend.algos.data.Indicator;
 import pucp.pdds.backend.algos.utils.Time;
@@ -34,6 +38,11 @@ public class SchedulerState {
         this.minutesToSimulate = minutesToSimulate;
         this.initTime = new Time(initTime);
         this.isDailyOperation = isDailyOperation;
+        index.indexOrders(this.orders, true);
+        index.indexBlockages(this.blockages, true);
+        index.indexWarehouses(this.warehouses);
+        index.indexFailures(this.failures, true);
+        index.indexMaintenances(this.maintenances);
     }
 
     private List<PlannerVehicle> vehicles = new ArrayList<>();
@@ -42,6 +51,20 @@ public class SchedulerState {
     private List<PlannerWarehouse> warehouses = new ArrayList<>();
     private List<PlannerFailure> failures = new ArrayList<>();
     private List<PlannerMaintenance> maintenances = new ArrayList<>();
+
+    // Copia struct-of-arrays de la flota usada por advance(). Mientras fleetLoaded sea true los
+    // arreglos tienen el estado más reciente; cualquier acceso a los vehículos lo vuelca a los objetos.
+    private FleetState fleet;
+    private boolean fleetLoaded = false;
+
+    // Índices por id, placa y turno para que advance() no recorra todas las listas por vehículo
+    private final EntityIndex index = new EntityIndex();
+    // Plan con el que se calcularon los próximos eventos de cada vehículo
+    private Solution scheduledSolution;
+    // Semilla de la distancia aleatoria hasta cada avería; clone() la copia para que el estado predicho
+    // sortee lo mismo que el ejecutado. Con algorithmSeed fija dos simulaciones iguales sortean lo mismo
+    private long failureSeed = SimulationProperties.algorithmSeed != null
+        ? SimulationProperties.algorithmSeed : ThreadLocalRandom.current().nextLong();
     
     private Time initTime;
     private Time currTime;
@@ -55,6 +78,7 @@ public class SchedulerState {
         return activeIndicators;
     }
     public List<PlannerVehicle> getVehicles() {
+        storeFleet();
         return vehicles;
     }
 
@@ -83,27 +107,71 @@ public class SchedulerState {
     }
 
     public void setVehicles(List<PlannerVehicle> vehicles) {
+        storeFleet();
         this.vehicles = vehicles != null ? vehicles : new ArrayList<>();
+        wakeVehicles();
     }
 
-    public void setOrders(List<PlannerOrder> orders) {
+    public synchronized void setOrders(List<PlannerOrder> orders) {
         this.orders = orders != null ? orders : new ArrayList<>();
+        index.indexOrders(this.orders, true);
+    }
+
+    /**
+     * Appends new orders without re-indexing the ones already known.
+     */
+    public synchronized void addOrders(List<PlannerOrder> newOrders) {
+        List<PlannerOrder> allOrders = new ArrayList<>(orders);
+        allOrders.addAll(newOrders);
+        this.orders = allOrders;
+        index.indexOrders(newOrders, false);
+    }
+
+    public synchronized boolean hasOrder(int id) {
+        return index.getOrder(id) != null;
     }
 
-    public void setBlockages(List<PlannerBlockage> blockages) {
+    public synchronized void setBlockages(List<PlannerBlockage> blockages) {
         this.blockages = blockages != null ? blockages : new ArrayList<>();
+        index.indexBlockages(this.blockages, true);
     }
 
-    public void setWarehouses(List<PlannerWarehouse> warehouses) {
+    /**
+     * Appends new blockages without re-indexing the ones already known.
+     */
+    public synchronized void addBlockages(List<PlannerBlockage> newBlockages) {
+        List<PlannerBlockage> allBlockages = new ArrayList<>(blockages);
+        allBlockages.addAll(newBlockages);
+        this.blockages = allBlockages;
+        index.indexBlockages(newBlockages, false);
+    }
+
+    public synchronized void setWarehouses(List<PlannerWarehouse> warehouses) {
         this.warehouses = warehouses != null ? warehouses : new ArrayList<>();
+        index.indexWarehouses(this.warehouses);
     }
 
-    public void setFailures(List<PlannerFailure> failures) {
+    public synchronized void setFailures(List<PlannerFailure> failures) {
         this.failures = failures != null ? failures : new ArrayList<>();
+        index.indexFailures(this.failures, true);
+        wakeVehicles();
     }
 
-    public void setMaintenances(List<PlannerMaintenance> maintenances) {
+    /**
+     * Appends new failures without re-indexing the ones already known.
+     */
+    public synchronized void addFailures(List<PlannerFailure> newFailures) {
+        List<PlannerFailure> allFailures = new ArrayList<>(failures);
+        allFailures.addAll(newFailures);
+        this.failures = allFailures;
+        index.indexFailures(newFailures, false);
+        wakeVehicles();
+    }
+
+    public synchronized void setMaintenances(List<PlannerMaintenance> maintenances) {
         this.maintenances = maintenances != null ? maintenances : new ArrayList<>();
+        index.indexMaintenances(this.maintenances);
+        wakeVehicles();
     }
 
     public void setCurrTime(Time currTime) {
@@ -114,32 +182,25 @@ public class SchedulerState {
         return isDailyOperation;
     }
 
-    public List<PlannerBlockage> getActiveBlockages() {
-        return blockages.stream()
-            .filter(blockage -> blockage.isActive(currTime))
-            .collect(Collectors.toList());
+    public synchronized List<PlannerBlockage> getActiveBlockages() {
+        int minute = currTime.toEpochMinute();
+        return index.getBlockages(minute, minute);
     }
 
-    public List<PlannerBlockage> getActiveBlockagesOverTimeFrame(Time startTime, Time endTime) {
-        return blockages.stream()
-            .filter(b -> (startTime.isBefore(b.endTime) || startTime.equals(b.endTime)) && 
-                        (endTime.isAfter(b.startTime) || endTime.equals(b.startTime)))
-            .collect(Collectors.toList());
+    public synchronized List<PlannerBlockage> getActiveBlockagesOverTimeFrame(Time startTime, Time endTime) {
+        return index.getBlockages(startTime.toEpochMinute(), endTime.toEpochMinute());
     }
 
-    public List<PlannerOrder> getActiveOrders() {
-        return orders.stream()
-            .filter(order -> order.isActive(currTime))
-            .collect(Collectors.toList());
+    public synchronized List<PlannerOrder> getActiveOrders() {
+        return index.getActiveOrders(currTime);
     }
 
-    public List<PlannerMaintenance> getActiveMaintenances() {
-        return maintenances.stream()
-            .filter(maintenance -> maintenance.isActive(currTime))
-            .collect(Collectors.toList());
+    public synchronized List<PlannerMaintenance> getActiveMaintenances() {
+        return index.getActiveMaintenances(currTime);
     }
 
     public List<PlannerVehicle> getActiveVehicles() {
+        storeFleet();
         return vehicles.stream()
             .filter(vehicle -> vehicle.isActive(currTime))
             .collect(Collectors.toList());
@@ -153,12 +214,11 @@ public class SchedulerState {
                 plannerVehicle.state = PlannerVehicle.VehicleState.IDLE;
             }
         }
+        wakeVehicles();
     }
 
-    public List<PlannerOrder> getPastOrders() {  
-        return orders.stream()
-            .filter(order -> order.arrivalTime.isBeforeOrAt(currTime) && order.arrivalTime.isAfterOrAt(initTime))
-            .collect(Collectors.toList());
+    public synchronized List<PlannerOrder> getPastOrders() {
+        return index.getOrdersArrivedBetween(initTime.toEpochMinute(), currTime.toEpochMinute());
     }
 
     public synchronized void advance(Solution sol, boolean shouldLog) {
@@ -183,279 +243,430 @@ public class SchedulerState {
             }
         }
 
-        for (PlannerVehicle plannerVehicle : getVehicles()) {
-            // If vehicle should pass to maintenance
-            if (plannerVehicle.state != PlannerVehicle.VehicleState.MAINTENANCE && getActiveMaintenances().stream().anyMatch(maintenance -> maintenance.vehiclePlaque.equals(plannerVehicle.plaque))) {
-                plannerVehicle.state = PlannerVehicle.VehicleState.MAINTENANCE;
-                plannerVehicle.currentMaintenance = getActiveMaintenances().stream().filter(maintenance -> maintenance.vehiclePlaque.equals(plannerVehicle.plaque)).findFirst().get();
-                if (shouldLog) {
-                    debugPrint("Vehicle " + plannerVehicle.id + " is going into maintenance: " + plannerVehicle.currentMaintenance);
-                }
-            } 
-            
-            // If vehicle should leave maintenance
-            if (plannerVehicle.state == PlannerVehicle.VehicleState.MAINTENANCE && plannerVehicle.currentMaintenance.endDate.isBefore(currTime)) {
-                plannerVehicle.state = PlannerVehicle.VehicleState.IDLE;
-                plannerVehicle.currentMaintenance = null;
-                if (shouldLog) {
-                    debugPrint("Vehicle " + plannerVehicle.id + " is leaving maintenance");
-                }
+        PlannerFailure.Shift currentShift = EntityIndex.shiftOf(currTime);
+        PlannerWarehouse mainWarehouse = index.getMainWarehouse();
+        FleetState fleet = loadFleet();
+        int now = currTime.toEpochMinute();
+        if (sol != scheduledSolution) {
+            // Otro plan: las rutas cambiaron y los eventos calculados ya no valen
+            fleet.wakeAll();
+            scheduledSolution = sol;
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            if (fleet.wakeMinute[i] > now) {
+                fleet.sleepMinutes(i, 1);
+                continue;
             }
+            advanceVehicle(fleet, i, sol, shouldLog, currentShift, mainWarehouse);
+            fleet.wakeMinute[i] = SimulationProperties.eventDrivenSimulation ? nextEventMinute(fleet, i, sol, now + 1) : 0;
+        }
 
-            // If vehicle should schedule a failure
-            Time currTimeCopy = currTime.clone();
-            PlannerFailure matchingFailure = failures.stream().filter(
-                failure -> 
-                    failure.vehiclePlaque.equals(plannerVehicle.plaque) &&
-                    !failure.hasBeenAssigned() &&
-                    (
-                        (failure.shiftOccurredOn == PlannerFailure.Shift.T1 && currTimeCopy.getHour() >= 0 && currTimeCopy.getHour() < 8) ||
-                        (failure.shiftOccurredOn == PlannerFailure.Shift.T2 && currTimeCopy.getHour() >= 8 && currTimeCopy.getHour() < 16) ||
-                        (failure.shiftOccurredOn == PlannerFailure.Shift.T3 && currTimeCopy.getHour() >= 16 && currTimeCopy.getHour() < 24)
-                    )
-            ).findFirst().orElse(null);
-            // tampoco deberia poder averiarse si esta en REPAIR
-            if (plannerVehicle.state != PlannerVehicle.VehicleState.STUCK &&
-            plannerVehicle.state != PlannerVehicle.VehicleState.MAINTENANCE &&
-                plannerVehicle.currentFailure == null &&
-                // !plannerVehicle.isAveriado &&
-                matchingFailure != null) {
-                List<Node> route = sol.routes.get(plannerVehicle.id);
-                if (route != null && route.size() > 0) {
-                    List<Position> path = PathBuilder.buildPath(plannerVehicle.position, route.get(1).getPosition(), getActiveBlockages());
-                    int distance = (int)(PathBuilder.calculateDistance(path) * (0.05 + Math.random() * 0.35));
-                    if (distance > 0) {
-                        plannerVehicle.minutesUntilFailure = distance;
-                        plannerVehicle.currentFailure = matchingFailure;
-                        if (shouldLog) {
-                            debugPrint("Assigned failure to happen to vehicle " + plannerVehicle.plaque + " in " + plannerVehicle.minutesUntilFailure + " minutes");
-                        }
+        currTime = currTime.addMinutes(1);
+    }
+
+    /**
+     * Minutes from now, at most limit, that advance(sol) would spend only counting down the timers of
+     * sleeping vehicles: no vehicle wakes up and there is no refill at midnight. It also stops at the
+     * next order arrival and blockage start or end, so the state shown at those minutes is reached by a
+     * normal advance. 1 whenever the next minute needs advance() (new plan, fleet not loaded...).
+     */
+    synchronized int quietMinutes(Solution sol, int limit) {
+        if (!SimulationProperties.eventDrivenSimulation || !fleetLoaded || sol != scheduledSolution || limit <= 1) {
+            return 1;
+        }
+        int now = currTime.toEpochMinute();
+        long next = (long) now + limit;
+        for (int i = 0; i < fleet.size(); i++) {
+            next = Math.min(next, fleet.wakeMinute[i]);
+        }
+        int midnight = now + Math.floorMod(-now, Time.MINUTES_PER_DAY);
+        next = Math.min(next, midnight);
+        next = Math.min(next, index.nextOrderArrivalMinute(now + 1));
+        next = Math.min(next, index.nextBlockageChangeMinute(now + 1));
+        return (int) Math.max(next - now, 1);
+    }
+
+    /**
+     * Same as calling advance(sol, ...) minutes times, for minutes given by quietMinutes(sol, ...).
+     */
+    synchronized void advanceQuiet(int minutes) {
+        for (int i = 0; i < fleet.size(); i++) {
+            fleet.sleepMinutes(i, minutes);
+        }
+        currTime = currTime.addMinutes(minutes);
+    }
+
+    private void advanceVehicle(FleetState fleet, int i, Solution sol, boolean shouldLog, PlannerFailure.Shift currentShift, PlannerWarehouse mainWarehouse) {
+        PlannerVehicle plannerVehicle = fleet.vehicles[i];
+
+        // If vehicle should pass to maintenance
+        PlannerMaintenance activeMaintenance = fleet.state[i] != FleetState.MAINTENANCE
+            ? index.getActiveMaintenance(plannerVehicle.plaque, currTime)
+            : null;
+        if (activeMaintenance != null) {
+            fleet.state[i] = FleetState.MAINTENANCE;
+            plannerVehicle.currentMaintenance = activeMaintenance;
+            if (shouldLog) {
+                debugPrint("Vehicle " + plannerVehicle.id + " is going into maintenance: " + plannerVehicle.currentMaintenance);
+            }
+        } 
+        
+        // If vehicle should leave maintenance
+        if (fleet.state[i] == FleetState.MAINTENANCE && plannerVehicle.currentMaintenance.endDate.isBefore(currTime)) {
+            fleet.state[i] = FleetState.IDLE;
+            plannerVehicle.currentMaintenance = null;
+            if (shouldLog) {
+                debugPrint("Vehicle " + plannerVehicle.id + " is leaving maintenance");
+            }
+        }
+
+        // If vehicle should schedule a failure
+        PlannerFailure matchingFailure = index.getPendingFailure(plannerVehicle.plaque, currentShift);
+        // tampoco deberia poder averiarse si esta en REPAIR
+        if (fleet.state[i] != FleetState.STUCK &&
+            fleet.state[i] != FleetState.MAINTENANCE &&
+            plannerVehicle.currentFailure == null &&
+            // !plannerVehicle.isAveriado &&
+            matchingFailure != null) {
+            List<Node> route = sol.routes.get(plannerVehicle.id);
+            if (route != null && route.size() > 0) {
+                List<Position> path = PathBuilder.buildPath(fleet.getPosition(i), route.get(1).getPosition(), getActiveBlockages());
+                int distance = (int)(PathBuilder.calculateDistance(path) * (0.05 + failureDraw(matchingFailure) * 0.35));
+                if (distance > 0) {
+                    fleet.minutesUntilFailure[i] = distance;
+                    plannerVehicle.currentFailure = matchingFailure;
+                    if (shouldLog) {
+                        debugPrint("Assigned failure to happen to vehicle " + plannerVehicle.plaque + " in " + fleet.minutesUntilFailure[i] + " minutes");
                     }
                 }
             }
-            // If vehicle should fail // tampoco deberia poder fallar si esta en REPAIR
-            else if (plannerVehicle.minutesUntilFailure <= 0 &&
-                plannerVehicle.currentFailure != null &&
-                // plannerVehicle.isAveriado &&
-                plannerVehicle.state != PlannerVehicle.VehicleState.STUCK) {
-                plannerVehicle.state = PlannerVehicle.VehicleState.STUCK;
-                plannerVehicle.currentFailure.timeOccuredOn = currTime;
-                plannerVehicle.currentPath = null;
-                if (shouldLog) {
-                    debugPrint("Vehicle " + plannerVehicle.plaque + " has failed");
-                }
-            } 
-            // If vehicle stuck time has ended
-            else if (plannerVehicle.state == PlannerVehicle.VehicleState.STUCK &&
-                plannerVehicle.currentFailure != null &&
-                // plannerVehicle.isAveriado &&
-                plannerVehicle.currentFailure.timeOccuredOn.addMinutes(plannerVehicle.currentFailure.type.getMinutesStuck()).isBefore(currTime)) {
-                PlannerWarehouse mainWarehouse = warehouses.stream().filter(warehouse -> warehouse.isMain).findFirst().orElse(null);
-                if (mainWarehouse == null) {
-                    throw new RuntimeException("No main warehouse found");
-                }
-                List<Position> path = PathBuilder.buildPath(plannerVehicle.position, mainWarehouse.position, getActiveBlockages());
-                Time reincorporationTime;
-                switch (plannerVehicle.currentFailure.type) {
-                    case Ti1:
-                        plannerVehicle.state = PlannerVehicle.VehicleState.IDLE;
-                        if (shouldLog) {
-                            debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti1");
-                        }
-                        reincorporationTime = new Time(
-                            plannerVehicle.currentFailure.timeOccuredOn.getYear(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getMonth(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getDay(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getHour(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getMinute()
-                            ).addMinutes(120);
-                            
-                        plannerVehicle.reincorporationTime = reincorporationTime;
-                        break;
-                    case Ti2:
-                        plannerVehicle.state = PlannerVehicle.VehicleState.RETURNING_TO_BASE;
-                        Time failureTime = plannerVehicle.currentFailure.timeOccuredOn;
-                        // Determine reincorporation time based on the shift
-                        switch (plannerVehicle.currentFailure.shiftOccurredOn) {
-                            case T1:  // 00:00-08:00
-                                // Available in T3 of same day
-                                reincorporationTime = new Time(
-                                    failureTime.getYear(),
-                                    failureTime.getMonth(),
-                                    failureTime.getDay(),
-                                    16,  // T3 starts at 16:00
-                                    0
-                                );
-                                break;
-                            case T2:  // 08:00-16:00
-                                // Available in T1 of next day
-                                reincorporationTime = new Time(
-                                    failureTime.getYear(),
-                                    failureTime.getMonth(),
-                                    failureTime.getDay() + 1,
-                                    0,  // T1 starts at 00:00
-                                    0
-                                );
-                                break;
-                            case T3:  // 16:00-24:00
-                                // Available in T2 of next day
-                                reincorporationTime = new Time(
-                                    failureTime.getYear(),
-                                    failureTime.getMonth(),
-                                    failureTime.getDay() + 1,
-                                    8,  // T2 starts at 08:00
-                                    0
-                                );
-                                break;
-                            default:
-                                throw new RuntimeException("Invalid shift");
-                        }
+        }
+        // If vehicle should fail // tampoco deberia poder fallar si esta en REPAIR
+        else if (fleet.minutesUntilFailure[i] <= 0 &&
+            plannerVehicle.currentFailure != null &&
+            // plannerVehicle.isAveriado &&
+            fleet.state[i] != FleetState.STUCK) {
+            fleet.state[i] = FleetState.STUCK;
+            plannerVehicle.currentFailure.timeOccuredOn = currTime;
+            index.failureOccurred(plannerVehicle.currentFailure);
+            fleet.clearPath(i);
+            if (shouldLog) {
+                debugPrint("Vehicle " + plannerVehicle.plaque + " has failed");
+            }
+        } 
+        // If vehicle stuck time has ended
+        else if (fleet.state[i] == FleetState.STUCK &&
+            plannerVehicle.currentFailure != null &&
+            // plannerVehicle.isAveriado &&
+            plannerVehicle.currentFailure.timeOccuredOn.addMinutes(plannerVehicle.currentFailure.type.getMinutesStuck()).isBefore(currTime)) {
+            if (mainWarehouse == null) {
+                throw new RuntimeException("No main warehouse found");
+            }
+            List<Position> path = PathBuilder.buildPath(fleet.getPosition(i), mainWarehouse.position, getActiveBlockages());
+            Time reincorporationTime;
+            switch (plannerVehicle.currentFailure.type) {
+                case Ti1:
+                    fleet.state[i] = FleetState.IDLE;
+                    if (shouldLog) {
+                        debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti1");
+                    }
+                    reincorporationTime = new Time(
+                        plannerVehicle.currentFailure.timeOccuredOn.getYear(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getMonth(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getDay(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getHour(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getMinute()
+                        ).addMinutes(120);
                         
-                        plannerVehicle.reincorporationTime = reincorporationTime;
+                    plannerVehicle.reincorporationTime = reincorporationTime;
+                    break;
+                case Ti2:
+                    fleet.state[i] = FleetState.RETURNING_TO_BASE;
+                    Time failureTime = plannerVehicle.currentFailure.timeOccuredOn;
+                    // Determine reincorporation time based on the shift
+                    switch (plannerVehicle.currentFailure.shiftOccurredOn) {
+                        case T1:  // 00:00-08:00
+                            // Available in T3 of same day
+                            reincorporationTime = new Time(
+                                failureTime.getYear(),
+                                failureTime.getMonth(),
+                                failureTime.getDay(),
+                                16,  // T3 starts at 16:00
+                                0
+                            );
+                            break;
+                        case T2:  // 08:00-16:00
+                            // Available in T1 of next day
+                            reincorporationTime = new Time(
+                                failureTime.getYear(),
+                                failureTime.getMonth(),
+                                failureTime.getDay() + 1,
+                                0,  // T1 starts at 00:00
+                                0
+                            );
+                            break;
+                        case T3:  // 16:00-24:00
+                            // Available in T2 of next day
+                            reincorporationTime = new Time(
+                                failureTime.getYear(),
+                                failureTime.getMonth(),
+                                failureTime.getDay() + 1,
+                                8,  // T2 starts at 08:00
+                                0
+                            );
+                            break;
+                        default:
+                            throw new RuntimeException("Invalid shift");
+                    }
+                    
+                    plannerVehicle.reincorporationTime = reincorporationTime;
+                    if (shouldLog) {
+                        debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti2, will be available at " + reincorporationTime);
+                    }
+                    break;
+                case Ti3:
+                    fleet.state[i] = FleetState.RETURNING_TO_BASE;
+                    plannerVehicle.reincorporationTime = new Time(
+                        plannerVehicle.currentFailure.timeOccuredOn.getYear(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getMonth(),
+                        plannerVehicle.currentFailure.timeOccuredOn.getDay() + 2,
+                        0,
+                        0
+                        );
                         if (shouldLog) {
-                            debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti2, will be available at " + reincorporationTime);
+                            debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti3");
                         }
                         break;
-                    case Ti3:
-                        plannerVehicle.state = PlannerVehicle.VehicleState.RETURNING_TO_BASE;
-                        plannerVehicle.reincorporationTime = new Time(
-                            plannerVehicle.currentFailure.timeOccuredOn.getYear(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getMonth(),
-                            plannerVehicle.currentFailure.timeOccuredOn.getDay() + 2,
-                            0,
-                            0
-                            );
-                            if (shouldLog) {
-                                debugPrint("Vehicle " + plannerVehicle.plaque + " has recovered from failure of type Ti3");
-                            }
-                            break;
-                }
-                plannerVehicle.currentFailure = null;
-                plannerVehicle.currentPath = path;
             }
-            // Handle vehicles returning to base for repair
-            PlannerWarehouse mainWarehouse = warehouses.stream().filter(warehouse -> warehouse.isMain).findFirst().orElse(null);
-            if (plannerVehicle.state == PlannerVehicle.VehicleState.RETURNING_TO_BASE &&
-                currTime.isBefore(plannerVehicle.reincorporationTime)) {
-                // Force return to main warehouse
-                if (plannerVehicle.currentPath == null || plannerVehicle.currentPath.isEmpty()) {
-                    plannerVehicle.currentPath = PathBuilder.buildPath(plannerVehicle.position, mainWarehouse.position, getActiveBlockages());
-                }
+            plannerVehicle.currentFailure = null;
+            fleet.setPath(i, path);
+        }
+        // Handle vehicles returning to base for repair
+        if (fleet.state[i] == FleetState.RETURNING_TO_BASE &&
+            currTime.isBefore(plannerVehicle.reincorporationTime)) {
+            // Force return to main warehouse
+            if (fleet.hasNoPath(i)) {
+                fleet.setPath(i, PathBuilder.buildPath(fleet.getPosition(i), mainWarehouse.position, getActiveBlockages()));
+            }
+            if (shouldLog) {
+                debugPrint("Vehicle " + plannerVehicle.plaque + " IS RETURNING to base for repair");
+            }
+            // Check if vehicle has reached the main warehouse
+            if (Math.abs(fleet.x[i] - mainWarehouse.position.x) <= 0.2 && 
+                Math.abs(fleet.y[i] - mainWarehouse.position.y) <= 0.2) {
+                fleet.waitTransition[i] = currTime.minutesUntil(plannerVehicle.reincorporationTime);
+                fleet.clearPath(i);
+                fleet.state[i] = FleetState.REPAIR;
                 if (shouldLog) {
-                    debugPrint("Vehicle " + plannerVehicle.plaque + " IS RETURNING to base for repair");
+                    debugPrint("Vehicle " + plannerVehicle.plaque + " HAS RETURNED to base for repair, waiting until " + plannerVehicle.reincorporationTime);
                 }
-                // Check if vehicle has reached the main warehouse
-                if (Math.abs(plannerVehicle.position.x - mainWarehouse.position.x) <= 0.2 && 
-                    Math.abs(plannerVehicle.position.y - mainWarehouse.position.y) <= 0.2) {
-                    plannerVehicle.waitTransition = currTime.minutesUntil(plannerVehicle.reincorporationTime);
-                    plannerVehicle.currentPath = null;
-                    plannerVehicle.state = PlannerVehicle.VehicleState.REPAIR;
-                    if (shouldLog) {
-                        debugPrint("Vehicle " + plannerVehicle.plaque + " HAS RETURNED to base for repair, waiting until " + plannerVehicle.reincorporationTime);
-                    }
+            }
+        }
+
+        if (
+            // plannerVehicle.isAveriado &&
+            fleet.state[i] == FleetState.REPAIR &&
+            plannerVehicle.reincorporationTime.isSameDateTime(currTime)) {
+                fleet.state[i] = FleetState.IDLE;
+                plannerVehicle.currentFailure = null;
+                // plannerVehicle.isAveriado = false; 
+                if (shouldLog) {
+                    debugPrint("Vehicle " + plannerVehicle.plaque + " has finished repairing");
                 }
+        }
+        
+        if (fleet.minutesUntilFailure[i] > 0) {
+            fleet.minutesUntilFailure[i]--;
+            if (shouldLog) {
+                debugPrint("Vehicle " + plannerVehicle.plaque + " has " + fleet.minutesUntilFailure[i] + " minutes until failure");
             }
+        }
 
-            if (
-                // plannerVehicle.isAveriado &&
-                plannerVehicle.state == PlannerVehicle.VehicleState.REPAIR &&
-                plannerVehicle.reincorporationTime.isSameDateTime(currTime)) {
-                    plannerVehicle.state = PlannerVehicle.VehicleState.IDLE;
-                    plannerVehicle.currentFailure = null;
-                    // plannerVehicle.isAveriado = false; 
-                    if (shouldLog) {
-                        debugPrint("Vehicle " + plannerVehicle.plaque + " has finished repairing");
-                    }
+        // Handle path advancement for vehicles returning to base
+        if (fleet.state[i] == FleetState.RETURNING_TO_BASE && !fleet.hasNoPath(i)) {
+            fleet.advancePath(i, SimulationProperties.speed / 60.0, activeIndicators);
+            return;
+        }
+
+        // Skip normal processing for vehicles that are not active or are repairing
+        if (!fleet.isActive(i) || fleet.state[i] == FleetState.REPAIR) {
+            return;
+        }
+
+        if (fleet.waitTransition[i] > 0) {
+            fleet.waitTransition[i]--;
+            return;
+        } 
+
+        // If no path or path is empty, check if at next node; if not, build path
+        if (fleet.hasNoPath(i)) {
+            List<Node> route = sol.routes.get(plannerVehicle.id);
+            if (route == null || fleet.nextNodeIndex[i] >= route.size()) {
+                return;
+            }
+            Node nextNode = route.get(fleet.nextNodeIndex[i]);
+            // Check if at the node's position
+            if (Math.abs(fleet.x[i] - nextNode.getPosition().x) > 0.2 || Math.abs(fleet.y[i] - nextNode.getPosition().y) > 0.2) {
+                // Not at node yet: build path to it
+                List<PlannerBlockage> plannedBlockages = getActiveBlockagesOverTimeFrame(currTime, currTime.addMinutes(minutesToSimulate));
+                fleet.setPath(i, SimulationProperties.timeDependentRouting
+                    ? PathBuilder.buildPath(fleet.getPosition(i), nextNode.getPosition(), plannedBlockages, currTime)
+                    : PathBuilder.buildPath(fleet.getPosition(i), nextNode.getPosition(), plannedBlockages));
+                fleet.advancePath(i, SimulationProperties.speed / 60.0, activeIndicators);
+                if (fleet.state[i] != FleetState.RETURNING_TO_BASE) {
+                    fleet.state[i] = FleetState.ONTHEWAY;
+                }
+                return;
             }
-            
-            if (plannerVehicle.minutesUntilFailure > 0) {
-                plannerVehicle.minutesUntilFailure--;
+            // Has arrived at location
+            processNode(fleet, i, nextNode, shouldLog);
+            activeIndicators.calculateMeanDeliveryTime();
+
+            if (fleet.nextNodeIndex[i] == route.size() - 1) {
+                // Just processed the FinalNode
                 if (shouldLog) {
-                    debugPrint("Vehicle " + plannerVehicle.plaque + " has " + plannerVehicle.minutesUntilFailure + " minutes until failure");
+                    debugPrint("Vehicle " + plannerVehicle.id + " has reached final node");
                 }
+                fleet.fuel[i] = plannerVehicle.maxFuel;
+                fleet.glp[i] = plannerVehicle.maxGLP;
+                fleet.state[i] = FleetState.FINISHED;
+                fleet.nextNodeIndex[i]++; // Optional: move index past end
+                return;
+            }
+            fleet.nextNodeIndex[i]++;
+            // No need to build path here; will do so on next iteration if needed
+        } else {
+            fleet.advancePath(i, SimulationProperties.speed / 60.0, activeIndicators);
+            if (fleet.state[i] != FleetState.RETURNING_TO_BASE) {
+                fleet.state[i] = FleetState.ONTHEWAY;
             }
+        }
+    }
 
-            // Handle path advancement for vehicles returning to base
-            if (plannerVehicle.state == PlannerVehicle.VehicleState.RETURNING_TO_BASE && 
-                plannerVehicle.currentPath != null && !plannerVehicle.currentPath.isEmpty()) {
-                plannerVehicle.advancePath(
-                    SimulationProperties.speed / 60.0,
-                    activeIndicators
-                );
-                continue;
+    private void processNode(FleetState fleet, int i, Node node, boolean shouldLog) {
+        PlannerVehicle vehicle = fleet.vehicles[i];
+        if (shouldLog && (node instanceof ProductRefillNode || node instanceof OrderDeliverNode)) {
+            System.out.println("Processing node " + node.toString() + " for vehicle " + vehicle.id);
+        }
+        if (node instanceof ProductRefillNode) {
+            ProductRefillNode refillNode = (ProductRefillNode) node;
+            PlannerWarehouse warehouse = index.getWarehouse(refillNode.warehouse.id);
+            if (warehouse == null) {
+                throw new RuntimeException("Warehouse with id " + refillNode.warehouse.id + " not found");
             }
 
-            // Skip normal processing for vehicles that are not active or are repairing
-            if (!getActiveVehicles().contains(plannerVehicle) || 
-                plannerVehicle.state == PlannerVehicle.VehicleState.REPAIR) {
-                continue;
+            warehouse.currentGLP -= refillNode.amountGLP;
+            if (warehouse.position.x == 12 && warehouse.position.y == 8) {
+                activeIndicators.glpFilledMain += refillNode.amountGLP;
+            } else if (warehouse.position.x == 42 && warehouse.position.y == 42) {
+                activeIndicators.glpFilledNorth += refillNode.amountGLP;
+            } else if (warehouse.position.x == 63 && warehouse.position.y == 3) {
+                activeIndicators.glpFilledEast += refillNode.amountGLP;
+            }
+            activeIndicators.glpFilledTotal += refillNode.amountGLP;
+            fleet.glp[i] += refillNode.amountGLP;
+            fleet.fuel[i] = vehicle.maxFuel;
+            fleet.waitTransition[i] = SimulationProperties.timeAfterRefill;
+        }
+        if (node instanceof OrderDeliverNode) {
+            OrderDeliverNode deliverNode = (OrderDeliverNode) node;
+            PlannerOrder order = index.getOrder(deliverNode.order.id);
+            if (order == null) {
+                throw new RuntimeException("Order with id " + deliverNode.order.id + " not found");
             }
 
-            if (plannerVehicle.waitTransition > 0) {
-                plannerVehicle.waitTransition--;
-                continue;
-            } 
+            if (shouldLog) {
+                System.out.println("Order " + order.id + " currently has " + order.amountGLP + " GLP left to deliver");
+            }
 
-            // If no path or path is empty, check if at next node; if not, build path
-            if (plannerVehicle.currentPath == null || plannerVehicle.currentPath.isEmpty() ) {
-                List<Node> route = sol.routes.get(plannerVehicle.id);
-                if (route == null || plannerVehicle.nextNodeIndex >= route.size()) {
-                    continue;
-                }
-                Node nextNode = route.get(plannerVehicle.nextNodeIndex);
-                // Check if at the node's position
-                if (Math.abs(plannerVehicle.position.x - nextNode.getPosition().x) > 0.2 || Math.abs(plannerVehicle.position.y - nextNode.getPosition().y) > 0.2) {
-                    // Not at node yet: build path to it
-                    plannerVehicle.currentPath = PathBuilder.buildPath(plannerVehicle.position, nextNode.getPosition(), getActiveBlockagesOverTimeFrame(currTime, currTime.addMinutes(minutesToSimulate)));
-                    plannerVehicle.advancePath(
-                        SimulationProperties.speed / 60.0,
-                        activeIndicators
-                    );
-                    if(plannerVehicle.state != PlannerVehicle.VehicleState.RETURNING_TO_BASE) {
-                        plannerVehicle.state = PlannerVehicle.VehicleState.ONTHEWAY;
-                    }
-                    continue;
-                }
-                // Has arrived at location
-                plannerVehicle.processNode(
-                    nextNode, 
-                    plannerVehicle, 
-                    orders, 
-                    warehouses, 
-                    currTime,
-                    shouldLog,
-                    activeIndicators
-                );
-                activeIndicators.calculateMeanDeliveryTime();
-
-                if (plannerVehicle.nextNodeIndex == route.size() - 1) {
-                    // Just processed the FinalNode
-                    if (shouldLog) {
-                        debugPrint("Vehicle " + plannerVehicle.id + " has reached final node");
-                    }
-                    plannerVehicle.currentFuel = plannerVehicle.maxFuel;
-                    plannerVehicle.currentGLP = plannerVehicle.maxGLP;
-                    plannerVehicle.state = PlannerVehicle.VehicleState.FINISHED;
-                    plannerVehicle.nextNodeIndex++; // Optional: move index past end
-                    continue;
-                }
-                plannerVehicle.nextNodeIndex++;
-                // No need to build path here; will do so on next iteration if needed
+            order.amountGLP -= deliverNode.amountGLP;
+            fleet.glp[i] -= deliverNode.amountGLP;
+
+            if (order.amountGLP == 0) {
+                order.deliverTime = currTime;
+                index.orderDelivered(order);
+                activeIndicators.completedOrders ++;
+                double deliveryTotalMinutes = (double) order.releaseTime.minutesUntil(currTime);
+                activeIndicators.deliveryTimes.add(deliveryTotalMinutes);
+            }
+
+            if (order.amountGLP < 0) {
+                throw new RuntimeException("Order " + order.id + " has " + order.amountGLP + " GLP left to deliver");
+            }
+
+            fleet.waitTransition[i] = SimulationProperties.timeAfterDelivery;
+        }
+    }
+
+    /**
+     * First minute at or after next in which advanceVehicle can do something other than count
+     * down waitTransition and minutesUntilFailure: reach a node, move, start or end a maintenance,
+     * get a failure assigned, break down, recover or come back from repair.
+     * Until then the vehicle sleeps and advance() only runs FleetState.sleepMinute on it.
+     * Moving vehicles and those whose next step depends on the plan return next.
+     */
+    private int nextEventMinute(FleetState fleet, int i, Solution sol, int next) {
+        PlannerVehicle vehicle = fleet.vehicles[i];
+        int state = fleet.state[i];
+        if (state == FleetState.RETURNING_TO_BASE) {
+            return next;
+        }
+
+        int wake = Integer.MAX_VALUE;
+        if (fleet.isActive(i)) {
+            if (fleet.waitTransition[i] > 0) {
+                wake = next + fleet.waitTransition[i];
+            } else if (!fleet.hasNoPath(i)) {
+                return next;
             } else {
-                plannerVehicle.advancePath(
-                    SimulationProperties.speed / 60.0,
-                    activeIndicators
-                );
-                if(plannerVehicle.state != PlannerVehicle.VehicleState.RETURNING_TO_BASE) {
-                    plannerVehicle.state = PlannerVehicle.VehicleState.ONTHEWAY;
+                List<Node> route = sol.routes.get(vehicle.id);
+                if (route != null && fleet.nextNodeIndex[i] < route.size()) {
+                    return next;
                 }
             }
+        } else if (state == FleetState.MAINTENANCE) {
+            if (vehicle.currentMaintenance == null) {
+                return next;
+            }
+            wake = vehicle.currentMaintenance.endDate.toEpochMinute() + 1;
+        } else if (state == FleetState.REPAIR) {
+            if (vehicle.reincorporationTime == null) {
+                return next;
+            }
+            int reincorporation = vehicle.reincorporationTime.toEpochMinute();
+            if (reincorporation >= next) {
+                wake = reincorporation;
+            }
         }
 
-        currTime = currTime.addMinutes(1);
+        if (vehicle.currentFailure != null) {
+            if (state != FleetState.STUCK) {
+                wake = Math.min(wake, next + Math.max(fleet.minutesUntilFailure[i], 0));
+            } else if (vehicle.currentFailure.timeOccuredOn == null) {
+                return next;
+            } else {
+                int recovery = vehicle.currentFailure.timeOccuredOn.toEpochMinute() + vehicle.currentFailure.type.getMinutesStuck() + 1;
+                wake = Math.min(wake, recovery);
+            }
+        } else if (state != FleetState.STUCK && state != FleetState.MAINTENANCE) {
+            wake = Math.min(wake, index.nextPendingFailureMinute(vehicle.plaque, next));
+        }
+
+        if (state != FleetState.MAINTENANCE) {
+            wake = Math.min(wake, index.nextMaintenanceMinute(vehicle.plaque, next));
+        }
+        return Math.max(wake, next);
+    }
+
+    // Los eventos calculados dejan de valer: todos los vehículos se revisan en el próximo minuto
+    private void wakeVehicles() {
+        if (fleet != null) {
+            fleet.wakeAll();
+        }
     }
 
     public SchedulerState clone() {
+        storeFleet();
         List<PlannerVehicle> clonedVehicles = vehicles.stream()
             .map(PlannerVehicle::clone)
             .collect(Collectors.toList());
@@ -477,7 +688,81 @@ public class SchedulerState {
         Time clonedTime = currTime.clone();
         Time clonedInitTime = initTime.clone();
 
-        return new SchedulerState(clonedVehicles, clonedOrders, clonedBlockages, clonedWarehouses, clonedFailures, clonedMaintenances, clonedTime, minutesToSimulate, clonedInitTime, isDailyOperation);
+        SchedulerState cloned = new SchedulerState(clonedVehicles, clonedOrders, clonedBlockages, clonedWarehouses, clonedFailures, clonedMaintenances, clonedTime, minutesToSimulate, clonedInitTime, isDailyOperation);
+        cloned.failureSeed = failureSeed;
+        return cloned;
+    }
+
+    // Depende solo de la semilla, la avería y el minuto, no de cuántos sorteos se hicieron antes
+    private double failureDraw(PlannerFailure failure) {
+        long key = failureSeed ^ ((long) failure.id << 32) ^ currTime.toEpochMinute();
+        return new SplittableRandom(key).nextDouble();
+    }
+
+    /**
+     * Adds the current minute to the statistics. While advance() owns the fleet the values are read
+     * from its arrays, so recording a minute does not write the vehicles back.
+     */
+    synchronized void recordMinute(SimulationStatistics statistics) {
+        if (fleetLoaded) {
+            statistics.recordMinute(fleet);
+        } else {
+            statistics.recordMinute(vehicles);
+        }
+    }
+
+    /**
+     * Hash of what the planner reads from this state (time, fleet, pending GLP, deadlines, stock and failures).
+     * Used by PlanningPipeline to tell if a predicted state still matches the executed one.
+     */
+    synchronized long planningFingerprint() {
+        storeFleet();
+        long hash = mix(0, currTime.toEpochMinute());
+        for (PlannerVehicle vehicle : vehicles) {
+            hash = mix(hash, vehicle.id);
+            hash = mix(hash, Double.doubleToLongBits(vehicle.position.x));
+            hash = mix(hash, Double.doubleToLongBits(vehicle.position.y));
+            hash = mix(hash, vehicle.state.ordinal());
+            hash = mix(hash, vehicle.currentGLP);
+            hash = mix(hash, Double.doubleToLongBits(vehicle.currentFuel));
+            hash = mix(hash, vehicle.currentFailure != null ? 1 : 0);
+        }
+        for (PlannerOrder order : orders) {
+            hash = mix(hash, order.amountGLP);
+            hash = mix(hash, order.deadline.toEpochMinute());
+        }
+        for (PlannerWarehouse warehouse : warehouses) {
+            hash = mix(hash, warehouse.currentGLP);
+        }
+        hash = mix(hash, failures.size());
+        for (PlannerFailure failure : failures) {
+            hash = mix(hash, failure.hasBeenAssigned() ? 1 : 0);
+        }
+        return hash;
+    }
+
+    // Paso de 64 bits al estilo xxHash: con el 31 * hash de 32 bits dos estados distintos coincidían con facilidad
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+    }
+
+    private synchronized FleetState loadFleet() {
+        if (!fleetLoaded) {
+            if (fleet == null || !fleet.isViewOf(vehicles)) {
+                fleet = new FleetState(vehicles);
+            } else {
+                fleet.load();
+            }
+            fleetLoaded = true;
+        }
+        return fleet;
+    }
+
+    private synchronized void storeFleet() {
+        if (fleetLoaded) {
+            fleet.store();
+            fleetLoaded = false;
+        }
     }
 
     private void debugPrint(String message) {
@@ -0,0 +1,100 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import pucp.pdds.backend.algos.data.DataChunk;
+import pucp.pdds.backend.algos.entities.PlannerVehicle;
+
+/**
+ * Estadísticas del resumen de simulación, acumuladas minuto a minuto.
+ * Antes se recalculaban al final recorriendo simulacionCompleta; así también funcionan
+ * en modo headless, donde solo se guardan algunos minutos.
+ */
+class SimulationStatistics {
+    private double consumoPetroleo = 0.0;
+    private int totalVehiculos = 0;
+    private int maxVehiculosActivosEnUnMinuto = 0;
+    private Set<String> placasActivasUnicas = new HashSet<>();
+    private Set<Integer> pedidosEntregadosUnicos = new HashSet<>();
+    private int minutosSimulados = 0;
+
+    void clear() {
+        consumoPetroleo = 0.0;
+        totalVehiculos = 0;
+        maxVehiculosActivosEnUnMinuto = 0;
+        placasActivasUnicas.clear();
+        pedidosEntregadosUnicos.clear();
+        minutosSimulados = 0;
+    }
+
+    /**
+     * Registra el estado de la flota en el minuto actual (mismos valores que DataChunk.Vehiculo).
+     */
+    void recordMinute(List<PlannerVehicle> vehicles) {
+        minutosSimulados++;
+        totalVehiculos = Math.max(totalVehiculos, vehicles.size());
+        int vehiculosActivosEsteMinuto = 0;
+        for (PlannerVehicle vehicle : vehicles) {
+            if (recordVehicle(vehicle, vehicle.state == PlannerVehicle.VehicleState.ONTHEWAY, vehicle.currentFuel)) {
+                vehiculosActivosEsteMinuto++;
+            }
+        }
+        maxVehiculosActivosEnUnMinuto = Math.max(maxVehiculosActivosEnUnMinuto, vehiculosActivosEsteMinuto);
+    }
+
+    /**
+     * Igual que recordMinute(vehicles), pero leyendo los arreglos de la simulación, sin volcarlos a los vehículos.
+     */
+    void recordMinute(FleetState fleet) {
+        minutosSimulados++;
+        totalVehiculos = Math.max(totalVehiculos, fleet.size());
+        int vehiculosActivosEsteMinuto = 0;
+        for (int i = 0; i < fleet.size(); i++) {
+            if (recordVehicle(fleet.vehicles[i], fleet.state[i] == FleetState.ONTHEWAY, fleet.fuel[i])) {
+                vehiculosActivosEsteMinuto++;
+            }
+        }
+        maxVehiculosActivosEnUnMinuto = Math.max(maxVehiculosActivosEnUnMinuto, vehiculosActivosEsteMinuto);
+    }
+
+    private boolean recordVehicle(PlannerVehicle vehicle, boolean enCamino, double currentFuel) {
+        // Contar placa única
+        if (enCamino && vehicle.plaque != null) {
+            placasActivasUnicas.add(vehicle.plaque);
+        }
+        int combustible = (int) Math.max(25, currentFuel);
+        consumoPetroleo += (vehicle.maxFuel - combustible) * 0.1; // Factor de conversión
+        return enCamino;
+    }
+
+    /**
+     * Pedidos entregados únicos: solo cuenta el último registro de pedidos.
+     */
+    void recordOrders(List<DataChunk.Pedido> pedidos) {
+        pedidosEntregadosUnicos.clear();
+        for (DataChunk.Pedido pedido : pedidos) {
+            if ("Completado".equals(pedido.estado)) {
+                pedidosEntregadosUnicos.add(pedido.idPedido);
+            }
+        }
+    }
+
+    int getMinutosSimulados() {
+        return minutosSimulados;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pedidosEntregados", pedidosEntregadosUnicos.size());
+        stats.put("consumoPetroleo", Math.round(consumoPetroleo * 100.0) / 100.0);
+        stats.put("totalVehiculos", totalVehiculos);
+        stats.put("maxVehiculosActivosEnUnMinuto", maxVehiculosActivosEnUnMinuto);
+        stats.put("vehiculosActivosUnicos", placasActivasUnicas.size());
+        stats.put("minutosSimulados", minutosSimulados);
+        return stats;
+    }
+}
@@ -3,12 +3,9 @@ package pucp.pdds.backend.algos.scheduler;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.SynchronousQueue;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,22 +32,50 @@ public class WeeklyScheduler implements Runnable {
     private final SimpMessagingTemplate messagingTemplate;
     private volatile boolean isRunning;
     private static final DateTimeFormatter SIM_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    // Desde este momento un pedido vencido detiene la simulación
+    private static final Time COLLAPSE_ALLOWED_AFTER = new Time(2025, 7, 10, 2, 3);
     
     // Para acumular datos de la simulación
     private List<Map<String, Object>> simulacionCompleta = new ArrayList<>();
+    private SimulationStatistics estadisticas = new SimulationStatistics();
     private Time tiempoInicio;
     private long tiempoPlanificacionInicio;
+    private SimulationSummaryDTO summary;
+    private volatile Exception failure;
+    private Solution lastSolution;
 
+    // Modo headless: sin pausas entre minutos, termina a los 7 días y solo envía un snapshot cada
+    // SimulationProperties.headlessSnapshotInterval minutos. Los minutos en que no pasa nada se saltan
+    private boolean headless = false;
 
-    private SynchronousQueue<SchedulerState> stateQueue = new SynchronousQueue<>();
-    private SynchronousQueue<Solution> solutionQueue = new SynchronousQueue<>();
 
-    private Thread algorithmThread;
+    // Planifica los siguientes intervalos mientras se ejecuta el actual
+    private PlanningPipeline pipeline;
+    private Solution currentSolution;
+    private int minutesLeftInInterval;
 
     public void setState(SchedulerState state) {
         this.state = state;
     }
 
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    // Resumen de la última ejecución, null mientras no termine
+    public SimulationSummaryDTO getSummary() {
+        return summary;
+    }
+
+    // Error que cortó la ejecución, null si terminó o la detuvieron normalmente
+    public Exception getFailure() {
+        return failure;
+    }
+
     @Autowired
     public WeeklyScheduler(SimpMessagingTemplate messagingTemplate) {
         this.messagingTemplate = messagingTemplate;
@@ -59,39 +84,12 @@ public class WeeklyScheduler implements Runnable {
 
     @Override
     public void run() {
-        algorithmThread = new Thread(() -> {
-            while(!Thread.currentThread().isInterrupted()) {
-                try {
-                    while (true) {
-                        SchedulerState state = stateQueue.take();
-                        Environment environment = new Environment(
-                            state.getActiveVehicles(), 
-                            state.getActiveOrders(), 
-                            state.getWarehouses(), 
-                            state.getActiveBlockagesOverTimeFrame(state.getCurrTime(), state.getCurrTime().addMinutes(state.minutesToSimulate)), 
-                            state.getFailures(), 
-                            state.getActiveMaintenances(), 
-                            state.getCurrTime(), 
-                            state.minutesToSimulate
-                        );
-                        Algorithm algorithm = new Algorithm(true);
-                        Solution sol = algorithm.run(environment, state.minutesToSimulate);
-                        solutionQueue.put(sol);
-                    }
-                } catch (InterruptedException e) {
-                    isRunning = false;
-                    Thread.currentThread().interrupt();
-                    algorithmThread.interrupt();
-                    sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-                    return;
-                }
-            }
-        });
-
-        algorithmThread.start();
+        pipeline = new PlanningPipeline(this::plan, this::advancePredicted, SimulationProperties.planAheadIntervals, this::debugPrint);
 
         // Inicializar acumulación de datos
         simulacionCompleta.clear();
+        estadisticas.clear();
+        summary = null;
         tiempoInicio = state.getCurrTime().clone();
         tiempoPlanificacionInicio = System.currentTimeMillis();
         
@@ -99,6 +97,7 @@ public class WeeklyScheduler implements Runnable {
 
         stateLock.lock();
         SchedulerState initialState = state.clone();
+        SchedulerState predictionSeed = state.clone(); // Sin las modificaciones que hace el planificador
         stateLock.unlock();
 
         Environment initialEnvironment = new Environment(
@@ -112,169 +111,89 @@ public class WeeklyScheduler implements Runnable {
             initialState.minutesToSimulate
         );
 
+        // El primer intervalo usa una solución aleatoria para empezar sin esperar al algoritmo
         Solution initialSolution = initialEnvironment.getRandomSolution();
-        Thread initialSolutionThread = new Thread(() -> {
-            try {
-                solutionQueue.put(initialSolution);
-            } catch (InterruptedException e) {
-                isRunning = false;
-                Thread.currentThread().interrupt();
-                algorithmThread.interrupt();
-                sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-            }
-        });
-        initialSolutionThread.start();
+        pipeline.start(predictionSeed, initialSolution, "planning-pipeline");
 
-        while(isRunning && !Thread.currentThread().isInterrupted()) {
+        while(isRunning && !Thread.currentThread().isInterrupted() && !isFinished(endSimulationTime)) {
             try {
                 Solution sol;
                 try {
-                    sol = solutionQueue.take();
+                    sol = pipeline.next(state, stateLock).solution;
                     debugPrint("SOLUTION TAKEN: " + sol);
                 } catch (InterruptedException e) {
                     isRunning = false;
                     Thread.currentThread().interrupt();
-                    algorithmThread.interrupt();
-                    sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-                    return;
-                }
-
-                stateLock.lock();
-                SchedulerState clonedState = state.clone();
-                stateLock.unlock();
-
-                clonedState.initializeVehicles();
-                for (int i = 0; i < clonedState.minutesToSimulate; i++) {
-                    clonedState.advance(sol, false);
-                }
-
-                try {
-                    stateQueue.put(clonedState);
-                } catch (InterruptedException e) {
-                    isRunning = false;
-                    Thread.currentThread().interrupt();
-                    algorithmThread.interrupt();
+                    pipeline.stop();
                     sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
                     return;
                 }
 
                 stateLock.lock();
                 state.initializeVehicles();
+                currentSolution = sol;
+                minutesLeftInInterval = state.minutesToSimulate;
                 stateLock.unlock();
 
-                for (int iteration = 0; iteration < state.minutesToSimulate && isRunning && !Thread.currentThread().isInterrupted(); iteration++) {
+                for (int iteration = 0; iteration < state.minutesToSimulate && isRunning && !Thread.currentThread().isInterrupted() && !isFinished(endSimulationTime); ) {
                     stateLock.lock();
-                    state.advance(sol, true);
-                    onAfterExecution(iteration, sol);
-                    stateLock.unlock();
-
-                    try {
-                        Thread.sleep(SimulationProperties.msPerMinute);
-                    } catch (InterruptedException e) {
-                        isRunning = false;
-                        Thread.currentThread().interrupt();
-                        algorithmThread.interrupt();
-                        sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-                        sendSimulationSummary();
-                        return;
+                    // Sin consumidores por minuto el reloj salta hasta el próximo evento, cayendo en cada snapshot
+                    int minutes = 1;
+                    if (headless) {
+                        int limit = Math.min(state.minutesToSimulate - iteration, state.getCurrTime().minutesUntil(endSimulationTime));
+                        limit = Math.min(limit, Math.floorMod(-estadisticas.getMinutosSimulados(), SimulationProperties.headlessSnapshotInterval) + 1);
+                        minutes = minutesToNextEvent(state, sol, limit);
                     }
-
-                    stateLock.lock();
-
-                    boolean canCollapse = state.getCurrTime().isAfter(new Time(2025,7,10,2,3));
-                    
-                    // SISTEMA ANTI-COLAPSO MEJORADO: Extensión inteligente de deadlines
-                    if (!canCollapse) {
-                        int extendedCount = 0;
-                        int emergencyCount = 0;
-                        
-                        for (PlannerOrder order : state.getOrders()) {
-                            if (!order.isDelivered() && order.amountGLP > 0) {
-                                // Actualizar urgencia del pedido
-                                order.updateUrgency(state.getCurrTime());
-                                
-                                // Verificar si está en riesgo de colapso
-                                if (order.isAtRiskOfCollapse(state.getCurrTime())) {
-                                    System.out.println("🚨 PEDIDO EN RIESGO: " + order.id + " - Deadline: " + order.deadline + 
-                                                     " (Tiempo restante: " + state.getCurrTime().minutesUntil(order.deadline) + " min)");
-                                    
-                                    // Intentar extensión de emergencia
-                                    if (order.extendDeadline(state.getCurrTime(), order.forgivenTime)) {
-                                        emergencyCount++;
-                                    } else {
-                                        // Si no se puede extender más, activar modo de emergencia
-                                        order.activateEmergencyMode(state.getCurrTime());
-                                        emergencyCount++;
-                                    }
-                                } else if (order.timesForgiven < order.timesToForgive) {
-                                    // Extensión preventiva para pedidos cercanos al deadline
-                                    long minutesUntilDeadline = state.getCurrTime().minutesUntil(order.deadline);
-                                    if (minutesUntilDeadline < 120) { // Menos de 2 horas
-                                        if (order.extendDeadline(state.getCurrTime(), order.forgivenTime)) {
-                                            extendedCount++;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        
-                        if (extendedCount > 0 || emergencyCount > 0) {
-                            System.out.println("✅ Sistema anti-colapso: " + extendedCount + " extensiones preventivas, " + emergencyCount + " emergencias activadas");
+                    if (minutes > 1) {
+                        state.advanceQuiet(minutes);
+                        for (int k = 1; k < minutes; k++) {
+                            state.recordMinute(estadisticas);
                         }
+                    } else {
+                        state.advance(sol, true);
                     }
-                    
-                    Optional<PlannerOrder> failedOrder = state.getOrders().stream()
-                        .filter(o -> o.deadline.isBefore(state.getCurrTime()) && !o.isDelivered())
-                        .findAny();
+                    iteration += minutes;
+                    minutesLeftInInterval -= minutes;
+                    onAfterExecution(iteration - 1, sol);
                     stateLock.unlock();
 
-                    if (failedOrder.isPresent()) {
-                        if (!canCollapse) {
-                            System.out.println("🚨 PEDIDO PERDIDO - Intentando rescate de emergencia...");
-                            System.out.println("Couldn't deliver order " + failedOrder.get().id + " at " + state.getCurrTime());
-                            System.out.println(failedOrder.get());
-
-                            boolean isInEnvironment = sol.getEnvironment().orders.stream().anyMatch(o -> o.id == failedOrder.get().id);
-                            System.out.println("Is in original orders: " + isInEnvironment);
-                            
-                            // SISTEMA DE RESCATE INFINITO: Siempre extender deadlines
-                            System.out.println("🆘 RESCATE INFINITO: Extendiendo deadline de pedido perdido " + failedOrder.get().id);
-                            
-                            // Extensión infinita - siempre funciona
-                            int emergencyExtension = 240; // 4 horas por defecto
-                            failedOrder.get().deadline = failedOrder.get().deadline.addMinutes(emergencyExtension);
-                            failedOrder.get().timesForgiven++;
-                            failedOrder.get().activateEmergencyMode(state.getCurrTime());
-                            
-                            System.out.println("✅ RESCATE INFINITO EXITOSO: Pedido " + failedOrder.get().id + 
-                                             " extendido por " + emergencyExtension + " minutos. Nuevo deadline: " + failedOrder.get().deadline +
-                                             " (extensión #" + failedOrder.get().timesForgiven + ")");
-                            
-                            // Continuar simulación - NUNCA colapsar
-                            System.out.println("🔄 Continuando simulación después del rescate...");
-                            continue; // Continuar con la siguiente iteración
-                        } else {
+                    if (!headless) {
+                        try {
+                            Thread.sleep(SimulationProperties.msPerMinute);
+                        } catch (InterruptedException e) {
+                            isRunning = false;
+                            Thread.currentThread().interrupt();
+                            pipeline.stop();
                             sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-                            algorithmThread.interrupt();
                             sendSimulationSummary();
                             return;
                         }
                     }
-                    
-                    // Si llegamos aquí, no hay pedidos fallidos - continuar normalmente
-                    // (Este código nunca se ejecuta porque si hay pedidos fallidos, se resuelven arriba)
+
+                    stateLock.lock();
+                    PlannerOrder failedOrder = applyDeadlinePolicy(state, sol, true);
+                    stateLock.unlock();
+
+                    // Solo hay pedido fallido cuando ya se permite colapsar
+                    if (failedOrder != null) {
+                        sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
+                        pipeline.stop();
+                        sendSimulationSummary();
+                        return;
+                    }
                 }
 
                 if (!isRunning || Thread.currentThread().isInterrupted()) {
                     sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-                    algorithmThread.interrupt();
+                    pipeline.stop();
                     sendSimulationSummary();
                     return;
                 }
             } catch (Exception e) {
+                failure = e;
                 sendError("Unexpected error during simulation: " + e.getMessage());
                 e.printStackTrace();
-                algorithmThread.interrupt();
+                pipeline.stop();
                 isRunning = false;
                 sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
                 sendSimulationSummary();
@@ -284,18 +203,186 @@ public class WeeklyScheduler implements Runnable {
 
         if (!isRunning) {
             sendResponse("SIMULATION_STOPPED", "Simulation stopped by user");
-            algorithmThread.interrupt();
+            pipeline.stop();
             sendSimulationSummary();
         } else {
             // Simulación completada normalmente
+            pipeline.stop();
             sendSimulationSummary();
         }
     }
 
+    // Solo el modo headless tiene fin: la simulación interactiva corre hasta que la detengan
+    private boolean isFinished(Time endSimulationTime) {
+        return headless && !state.getCurrTime().isBefore(endSimulationTime);
+    }
+
     public void stop() {
         isRunning = false;
     }
 
+    /**
+     * Minutes, at most limit, the executed state can jump from now with the same result as advancing
+     * it and applying the deadline policy minute by minute: the state must be quiet (see
+     * SchedulerState.quietMinutes) and the policy can only act at the minute it lands on.
+     */
+    static int minutesToNextEvent(SchedulerState state, Solution sol, int limit) {
+        int now = state.getCurrTime().toEpochMinute();
+        int minutes = state.quietMinutes(sol, limit);
+        return Math.max(1, Math.min(minutes, nextDeadlineCheckMinute(state, now + 1) - now));
+    }
+
+    /**
+     * First minute from 'from' in which applyDeadlinePolicy can do more than refresh the urgency of
+     * the orders: collapsing becomes allowed, an order enters the preventive or the critical window,
+     * or a deadline passes. Deadlines only move when the policy acts, and the urgency it refreshes
+     * depends only on the minute, so the minutes before can be skipped.
+     */
+    static int nextDeadlineCheckMinute(SchedulerState state, int from) {
+        long next = Integer.MAX_VALUE;
+        int collapse = COLLAPSE_ALLOWED_AFTER.toEpochMinute() + 1;
+        if (from <= collapse) {
+            next = collapse;
+        }
+        for (PlannerOrder order : state.getOrders()) {
+            if (order.isDelivered()) {
+                continue;
+            }
+            int deadline = order.deadline.toEpochMinute();
+            next = Math.min(next, (long) deadline + 1); // Pedido fallido
+            if (order.amountGLP > 0) {
+                next = Math.min(next, (long) deadline - PlannerOrder.criticalThreshold + 1);
+                if (order.timesForgiven < PlannerOrder.timesToForgive) {
+                    next = Math.min(next, (long) deadline - 120 + 1);
+                }
+            }
+            if (next <= from) {
+                return from;
+            }
+        }
+        return (int) next;
+    }
+
+    /**
+     * Anti-collapse deadline extensions applied after every simulated minute. Also used by the
+     * planning pipeline on predicted states, so their deadlines follow the real ones.
+     * Returns the order that could not be delivered once collapsing is allowed, null otherwise.
+     */
+    static PlannerOrder applyDeadlinePolicy(SchedulerState state, Solution sol, boolean shouldLog) {
+        boolean canCollapse = state.getCurrTime().isAfter(COLLAPSE_ALLOWED_AFTER);
+        
+        // SISTEMA ANTI-COLAPSO MEJORADO: Extensión inteligente de deadlines
+        if (!canCollapse) {
+            int extendedCount = 0;
+            int emergencyCount = 0;
+            
+            for (PlannerOrder order : state.getOrders()) {
+                if (!order.isDelivered() && order.amountGLP > 0) {
+                    // Actualizar urgencia del pedido
+                    order.updateUrgency(state.getCurrTime());
+                    
+                    // Verificar si está en riesgo de colapso
+                    if (order.isAtRiskOfCollapse(state.getCurrTime())) {
+                        if (shouldLog) {
+                            System.out.println("🚨 PEDIDO EN RIESGO: " + order.id + " - Deadline: " + order.deadline + 
+                                             " (Tiempo restante: " + state.getCurrTime().minutesUntil(order.deadline) + " min)");
+                        }
+                        
+                        // Intentar extensión de emergencia
+                        if (order.extendDeadline(state.getCurrTime(), order.forgivenTime)) {
+                            emergencyCount++;
+                        } else {
+                            // Si no se puede extender más, activar modo de emergencia
+                            order.activateEmergencyMode(state.getCurrTime());
+                            emergencyCount++;
+                        }
+                    } else if (order.timesForgiven < order.timesToForgive) {
+                        // Extensión preventiva para pedidos cercanos al deadline
+                        long minutesUntilDeadline = state.getCurrTime().minutesUntil(order.deadline);
+                        if (minutesUntilDeadline < 120) { // Menos de 2 horas
+                            if (order.extendDeadline(state.getCurrTime(), order.forgivenTime)) {
+                                extendedCount++;
+                            }
+                        }
+                    }
+                }
+            }
+            
+            if (shouldLog && (extendedCount > 0 || emergencyCount > 0)) {
+                System.out.println("✅ Sistema anti-colapso: " + extendedCount + " extensiones preventivas, " + emergencyCount + " emergencias activadas");
+            }
+        }
+        
+        Optional<PlannerOrder> failedOrder = state.getOrders().stream()
+            .filter(o -> o.deadline.isBefore(state.getCurrTime()) && !o.isDelivered())
+            .findAny();
+
+        if (failedOrder.isEmpty()) {
+            return null;
+        }
+        if (canCollapse) {
+            return failedOrder.get();
+        }
+
+        if (shouldLog) {
+            System.out.println("🚨 PEDIDO PERDIDO - Intentando rescate de emergencia...");
+            System.out.println("Couldn't deliver order " + failedOrder.get().id + " at " + state.getCurrTime());
+            System.out.println(failedOrder.get());
+
+            boolean isInEnvironment = sol.getEnvironment().orders.stream().anyMatch(o -> o.id == failedOrder.get().id);
+            System.out.println("Is in original orders: " + isInEnvironment);
+            
+            // SISTEMA DE RESCATE INFINITO: Siempre extender deadlines
+            System.out.println("🆘 RESCATE INFINITO: Extendiendo deadline de pedido perdido " + failedOrder.get().id);
+        }
+        
+        // Extensión infinita - siempre funciona
+        int emergencyExtension = 240; // 4 horas por defecto
+        failedOrder.get().deadline = failedOrder.get().deadline.addMinutes(emergencyExtension);
+        failedOrder.get().timesForgiven++;
+        failedOrder.get().activateEmergencyMode(state.getCurrTime());
+        
+        if (shouldLog) {
+            System.out.println("✅ RESCATE INFINITO EXITOSO: Pedido " + failedOrder.get().id + 
+                             " extendido por " + emergencyExtension + " minutos. Nuevo deadline: " + failedOrder.get().deadline +
+                             " (extensión #" + failedOrder.get().timesForgiven + ")");
+            
+            // Continuar simulación - NUNCA colapsar
+            System.out.println("🔄 Continuando simulación después del rescate...");
+        }
+        return null;
+    }
+
+    // Un minuto de un estado previsto: lo mismo que el bucle principal, sin logs ni envíos
+    private void advancePredicted(SchedulerState state, Solution sol) {
+        state.advance(sol, false);
+        applyDeadlinePolicy(state, sol, false);
+    }
+
+    private Solution plan(SchedulerState state, Solution previous) {
+        Environment environment = new Environment(
+            state.getActiveVehicles(), 
+            state.getActiveOrders(), 
+            state.getWarehouses(), 
+            state.getActiveBlockagesOverTimeFrame(state.getCurrTime(), state.getCurrTime().addMinutes(state.minutesToSimulate)), 
+            state.getFailures(), 
+            state.getActiveMaintenances(), 
+            state.getCurrTime(), 
+            state.minutesToSimulate
+        );
+        Algorithm algorithm = headless
+            ? new Algorithm(true, SimulationProperties.headlessMaxTimeMs)
+            : new Algorithm(true);
+        if (!headless) {
+            String intervalo = formatSimTime(state.getCurrTime());
+            algorithm.setListener(progress -> sendResponse("PLANNING_PROGRESS", DataChunk.convertPlanningProgressToDataChunk(progress, intervalo)));
+        }
+        algorithm.setWarmStart(previous);
+        // Si un restart deja obsoleto este plan, el pipeline corta la búsqueda
+        pipeline.registerSearch(algorithm::requestStop);
+        return algorithm.run(environment, state.minutesToSimulate);
+    }
+
     public void updateFailures(UpdateFailuresMessage message) {
         stateLock.lock();
         int lastId = state.getFailures().size() > 0 ? state.getFailures().getLast().id : 0;
@@ -303,10 +390,24 @@ public class WeeklyScheduler implements Runnable {
         PlannerFailure failure = new PlannerFailure(
             lastId + 1, message.getType(), message.getShiftOccurredOn(),
             message.getVehiclePlaque(), null);
-        List<PlannerFailure> failures = new ArrayList<>(state.getFailures());
-        failures.add(failure);
-        state.setFailures(failures);
+        state.addFailures(List.of(failure));
+
+        // Los planes adelantados ya no valen: replanificar desde el fin del intervalo actual con la nueva avería
+        SchedulerState predicted = null;
+        if (pipeline != null && currentSolution != null) {
+            predicted = state.clone();
+        }
+        Solution sol = currentSolution;
+        int minutesLeft = minutesLeftInInterval;
         stateLock.unlock();
+
+        if (predicted != null) {
+            for (int i = 0; i < minutesLeft; i++) {
+                advancePredicted(predicted, sol);
+            }
+            // También corta la búsqueda en curso, que ya no vale
+            pipeline.restart(predicted, sol);
+        }
     }
 
     private void debugPrint(String message) {
@@ -314,12 +415,20 @@ public class WeeklyScheduler implements Runnable {
     }
 
     private void onAfterExecution(int iteration, Solution sol) {
+        lastSolution = sol;
+        state.recordMinute(estadisticas);
+
+        // En modo headless solo se arma la respuesta completa cada headlessSnapshotInterval minutos
+        if (headless && (estadisticas.getMinutosSimulados() - 1) % SimulationProperties.headlessSnapshotInterval != 0) {
+            return;
+        }
+
         java.util.Map<String, Object> response = buildSimulationUpdateResponse(state, sol);
         
         // Acumular datos para el resumen
         simulacionCompleta.add(new HashMap<>(response));
         
-        sendResponse("SIMULATION_UPDATE", response);
+        sendResponse(headless ? "SIMULATION_SNAPSHOT" : "SIMULATION_UPDATE", response);
             // SimulationVisualizer.draw(state.getActiveVehicles(), state.getActiveBlockages(), state.getCurrTime(), state.minutesToSimulate, state.getWarehouses(), sol);
     }
 
@@ -341,6 +450,8 @@ public class WeeklyScheduler implements Runnable {
         formatMantenimientos(mantenimientos);
         formatBloqueos(bloqueos);
 
+        estadisticas.recordOrders(pedidos);
+
         response.put("almacenes", almacenes);
         response.put("vehiculos", vehiculos);
         response.put("pedidos", pedidos);
@@ -450,8 +561,10 @@ public class WeeklyScheduler implements Runnable {
 
 
     private void sendResponse(String type, Object data) {
-        SimulationResponse response = new SimulationResponse(type, data);
-        messagingTemplate.convertAndSend("/topic/simulation", response);
+        if (this.messagingTemplate != null) {
+            SimulationResponse response = new SimulationResponse(type, data);
+            messagingTemplate.convertAndSend("/topic/simulation", response);
+        }
     }
 
     private void sendError(String message) {
@@ -462,8 +575,14 @@ public class WeeklyScheduler implements Runnable {
         long tiempoPlanificacionFin = System.currentTimeMillis();
         long tiempoPlanificacionMs = tiempoPlanificacionFin - tiempoPlanificacionInicio;
         
+        // En modo headless el último snapshot puede no ser el último minuto
+        if (headless && lastSolution != null) {
+            this.estadisticas.recordOrders(DataChunk.convertOrdersToDataChunk(
+                state.getPastOrders(), state.getVehicles(), lastSolution.routes, state.getCurrTime()));
+        }
+
         // Calcular estadísticas
-        Map<String, Object> estadisticas = calculateStatistics();
+        Map<String, Object> estadisticas = this.estadisticas.toMap();
         
         // Calcular duración de la simulación
         String duracion = calculateDuration(tiempoInicio, state.getCurrTime());
@@ -482,11 +601,11 @@ public class WeeklyScheduler implements Runnable {
         System.out.println("Pedidos entregados: " + estadisticas.get("pedidosEntregados"));
         System.out.println("Consumo petróleo: " + estadisticas.get("consumoPetroleo"));
         System.out.println("Tiempo planificación: " + tiempoPlanificacion);
-        System.out.println("Minutos simulados: " + simulacionCompleta.size());
+        System.out.println("Minutos simulados: " + this.estadisticas.getMinutosSimulados());
         System.out.println("Estadísticas: " + estadisticas);
         System.out.println("================================");
         
-        SimulationSummaryDTO summary = new SimulationSummaryDTO(
+        summary = new SimulationSummaryDTO(
             formatSimTime(tiempoInicio),
             formatSimTime(state.getCurrTime()),
             duracion,
@@ -500,86 +619,8 @@ public class WeeklyScheduler implements Runnable {
         sendResponse("SIMULATION_SUMMARY", summary);
     }
 
-    private Map<String, Object> calculateStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        int pedidosEntregados = 0;
-        double consumoPetroleo = 0.0;
-        int totalVehiculos = 0;
-        int maxVehiculosActivosEnUnMinuto = 0;
-        Set<String> placasActivasUnicas = new HashSet<>();
-        
-        // Calcular estadísticas de los datos acumulados
-        for (Map<String, Object> minuto : simulacionCompleta) {
-            @SuppressWarnings("unchecked")
-            List<Object> vehiculos = (List<Object>) minuto.get("vehiculos");
-            if (vehiculos != null) {
-                totalVehiculos = Math.max(totalVehiculos, vehiculos.size());
-                int vehiculosActivosEsteMinuto = 0;
-                for (Object v : vehiculos) {
-                    try {
-                        var estadoField = v.getClass().getField("estado");
-                        String estado = (String) estadoField.get(v);
-                        if ("ONTHEWAY".equals(estado) || "DELIVERING".equals(estado)) {
-                            vehiculosActivosEsteMinuto++;
-                            // Contar placa única
-                            var placaField = v.getClass().getField("placa");
-                            String placa = (String) placaField.get(v);
-                            if (placa != null) {
-                                placasActivasUnicas.add(placa);
-                            }
-                        }
-                        var combustibleField = v.getClass().getField("combustible");
-                        var maxCombustibleField = v.getClass().getField("maxCombustible");
-                        int combustible = (int) combustibleField.get(v);
-                        int maxCombustible = (int) maxCombustibleField.get(v);
-                        consumoPetroleo += (maxCombustible - combustible) * 0.1; // Factor de conversión
-                    } catch (Exception ignored) {}
-                }
-                maxVehiculosActivosEnUnMinuto = Math.max(maxVehiculosActivosEnUnMinuto, vehiculosActivosEsteMinuto);
-            }
-        }
-
-        // Contar pedidos entregados únicos SOLO en el último minuto simulado
-        Set<Integer> pedidosEntregadosUnicos = new HashSet<>();
-        if (!simulacionCompleta.isEmpty()) {
-            Map<String, Object> ultimoMinuto = simulacionCompleta.get(simulacionCompleta.size() - 1);
-            @SuppressWarnings("unchecked")
-            List<Object> pedidos = (List<Object>) ultimoMinuto.get("pedidos");
-            if (pedidos != null) {
-                for (Object p : pedidos) {
-                    try {
-                        var estadoField = p.getClass().getField("estado");
-                        String estado = (String) estadoField.get(p);
-                        var idField = p.getClass().getField("idPedido");
-                        int idPedido = (int) idField.get(p);
-                        if ("Completado".equals(estado)) {
-                            pedidosEntregadosUnicos.add(idPedido);
-                        }
-                    } catch (Exception ignored) {}
-                }
-            }
-        }
-        pedidosEntregados = pedidosEntregadosUnicos.size();
-
-        stats.put("pedidosEntregados", pedidosEntregados);
-        stats.put("consumoPetroleo", Math.round(consumoPetroleo * 100.0) / 100.0);
-        stats.put("totalVehiculos", totalVehiculos);
-        stats.put("maxVehiculosActivosEnUnMinuto", maxVehiculosActivosEnUnMinuto);
-        stats.put("vehiculosActivosUnicos", placasActivasUnicas.size());
-        stats.put("minutosSimulados", simulacionCompleta.size());
-        
-        return stats;
-    }
-
     private String calculateDuration(Time inicio, Time fin) {
-        int minutos = 0;
-        Time temp = inicio.clone();
-        
-        while (temp.isBefore(fin)) {
-            minutos++;
-            temp = temp.addMinutes(1);
-        }
+        int minutos = Math.max(0, inicio.minutesUntil(fin));
         
         int horas = minutos / 60;
         int mins = minutos % 60;
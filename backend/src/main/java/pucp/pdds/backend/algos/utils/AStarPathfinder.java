@@ -3,367 +3,267 @@ package pucp.pdds.backend.algos.utils;
 import java.util.*;
 import pucp.pdds.backend.algos.entities.PlannerBlockage;
 
+/**
+ * A* over the road grid using primitive cell indexes (cell = x * rows + y).
+ * The search visits nodes in exactly the order of the previous PriorityQueue version, so it
+ * returns the same paths: the open set is an array heap with the same sift rules as
+ * java.util.PriorityQueue, ordered by (f, h) with no further tie-breaking, and a shorter path to
+ * an open cell pushes a second entry instead of updating the first one. Open entries are counted
+ * per cell, so the "already open" check only scans the heap for the rare cells with duplicates.
+ * All buffers live in thread-local scratch space reused between searches.
+ */
 class AStarPathfinder {
     private static final double EPSILON = 1e-6;
     private static final int GRID_RESOLUTION = 1; // 1 unit grid for collision checking
 
-    private static class Node implements Comparable<Node> {
-        Position pos;
-        Node parent;
-        double gCost; // Cost from start to this node
-        double hCost; // Estimated cost from this node to goal
-        
-        Node(Position pos, Node parent, double gCost, double hCost) {
-            this.pos = pos;
-            this.parent = parent;
-            this.gCost = gCost;
-            this.hCost = hCost;
-        }
-        
-        double fCost() {
-            return gCost + hCost;
-        }
-        
-        @Override
-        public int compareTo(Node other) {
-            double diff = this.fCost() - other.fCost();
-            if (Math.abs(diff) < EPSILON) {
-                // If f-costs are equal, prefer the one with lower h-cost
-                return Double.compare(this.hCost, other.hCost);
-            }
-            return Double.compare(this.fCost(), other.fCost());
-        }
-        
-        @Override
-        public boolean equals(Object obj) {
-            if (!(obj instanceof Node)) return false;
-            Node other = (Node) obj;
-            return Math.abs(this.pos.x - other.pos.x) < EPSILON && 
-                   Math.abs(this.pos.y - other.pos.y) < EPSILON;
+    // Neighbor order: Right, Left, Up, Down
+    private static final int[] DX = {GRID_RESOLUTION, -GRID_RESOLUTION, 0, 0};
+    private static final int[] DY = {0, 0, GRID_RESOLUTION, -GRID_RESOLUTION};
+
+    private static final ThreadLocal<Scratch> scratchBuffers = new ThreadLocal<>();
+
+    // Per-thread search state. openCount and openPosition are only valid for cells whose stamp matches the current search.
+    private static class Scratch {
+        final int columns; // x values: 0..gridLength
+        final int rows;    // y values: 0..gridWidth
+        final long[] closed;
+        final int[] stamp;
+        final int[] openCount;    // open entries of the cell
+        final int[] openPosition; // heap position of the cell's entry, valid when openCount == 1
+        int currentStamp;
+
+        // Entries (the nodes of the old version): cell, cost from the start, heuristic and parent entry
+        int[] entryCell;
+        int[] entryG;
+        int[] entryH;
+        int[] entryParent;
+        int entryCount;
+
+        int[] heap; // entry indexes
+        int heapSize;
+
+        Scratch(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            int cells = columns * rows;
+            closed = new long[(cells + 63) / 64];
+            stamp = new int[cells];
+            openCount = new int[cells];
+            openPosition = new int[cells];
+            entryCell = new int[cells];
+            entryG = new int[cells];
+            entryH = new int[cells];
+            entryParent = new int[cells];
+            heap = new int[cells];
         }
-        
-        @Override
-        public int hashCode() {
-            return Objects.hash(Math.round(pos.x * 1000), Math.round(pos.y * 1000));
+    }
+
+    private static Scratch getScratch() {
+        int columns = SimulationProperties.gridLength + 1;
+        int rows = SimulationProperties.gridWidth + 1;
+        Scratch scratch = scratchBuffers.get();
+        if (scratch == null || scratch.columns != columns || scratch.rows != rows) {
+            scratch = new Scratch(columns, rows);
+            scratchBuffers.set(scratch);
         }
+        return scratch;
     }
 
     static List<Position> findPath(Position start, Position end, List<PlannerBlockage> blockages) {
+        return findPath(start, end, BlockageGrid.of(blockages));
+    }
+
+    // Start and end must be grid points, which PathBuilder guarantees by rounding before calling A*
+    static List<Position> findPath(Position start, Position end, BlockageGrid grid) {
         // Add boundary check for start and end positions
         if (start == null || end == null || 
             !isWithinBounds(start) || !isWithinBounds(end)) {
             return null;
         }
 
-        // // Check if start or end is inside a blockage line (not at endpoints)
-        // for (PlannerBlockage blockage : blockages) {
-        //     for (int i = 0; i < blockage.vertices.size() - 1; i++) {
-        //         Position v1 = blockage.vertices.get(i);
-        //         Position v2 = blockage.vertices.get(i + 1);
-                
-        //         // If point is on blockage line but not at endpoints, path is impossible
-        //         if (isPointOnLine(start, v1, v2) && !isPointEqual(start, v1) && !isPointEqual(start, v2)) {
-        //             return null;
-        //         }
-        //         if (isPointOnLine(end, v1, v2) && !isPointEqual(end, v1) && !isPointEqual(end, v2)) {
-        //             return null;
-        //         }
-        //     }
-        // }
-
         if (Math.abs(start.x - end.x) < EPSILON && Math.abs(start.y - end.y) < EPSILON) {
             return new ArrayList<>();
         }
 
-        // Initialize open and closed sets
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        Set<Node> closedSet = new HashSet<>();
-        
-        // Create start node and add to open set
-        Node startNode = new Node(start, null, 0, heuristic(start, end));
-        openSet.add(startNode);
-        
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            // drawGrid(start, end, blockages, current.pos, "GOAL");
-            
+        if (!start.isInteger() || !end.isInteger()) {
+            return null;
+        }
+
+        Scratch s = getScratch();
+        int startX = (int) start.x, startY = (int) start.y;
+        int endX = (int) end.x, endY = (int) end.y;
+        int startCell = startX * s.rows + startY;
+        int endCell = endX * s.rows + endY;
+
+        // Reset the search state
+        s.currentStamp++;
+        if (s.currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(s.stamp, 0);
+            s.currentStamp = 1;
+        }
+        Arrays.fill(s.closed, 0L);
+        s.heapSize = 0;
+        s.entryCount = 0;
+
+        offer(s, newEntry(s, startCell, 0, -1, endX, endY));
+
+        while (s.heapSize > 0) {
+            int current = poll(s);
+            int currentCell = s.entryCell[current];
+
             // Check if we reached the goal
-            if (Math.abs(current.pos.x - end.x) < EPSILON && Math.abs(current.pos.y - end.y) < EPSILON) {
-                return reconstructPath(current);
+            if (currentCell == endCell) {
+                return reconstructPath(s, current);
             }
-            
-            closedSet.add(current);
-            
-            // boolean currentIsBlocked = isInsideBlockage(current.pos, blockages);
-            // Generate neighbors
-            for (Position neighborPos : getNeighbors(current.pos)) {
+
+            // Entries of a closed cell are still expanded when polled, as before
+            s.closed[currentCell >>> 6] |= 1L << currentCell;
+
+            int x = currentCell / s.rows;
+            int y = currentCell % s.rows;
+            for (int k = 0; k < 4; k++) {
+                int nx = x + DX[k];
+                int ny = y + DY[k];
+                if (nx < 0 || nx >= s.columns || ny < 0 || ny >= s.rows) continue;
+
+                int neighbor = nx * s.rows + ny;
                 // Skip if this move would cross a blockage or move along it
-                if (isBlocked(current.pos, neighborPos, blockages) && !isPointEqual(neighborPos, end) && !isPointEqual(current.pos, start)) continue;
-                
-                // If current is inside blockage, only allow moving to parent
-                // if (currentIsBlocked) {
-                //     if (current.parent == null || !isPointEqual(neighborPos, current.parent.pos)) {
-                //         continue;
-                //     }
-                // }
-                // Do NOT skip if neighbor is inside blockage (vehicles can enter blocked nodes)
-                // Node neighbor = new Node(...)
-                Node neighbor = new Node(
-                    neighborPos,
-                    current,
-                    current.gCost + GRID_RESOLUTION,
-                    heuristic(neighborPos, end)
-                );
-                
+                if (neighbor != endCell && currentCell != startCell && grid.isEdgeBlocked(x, y, nx, ny)) continue;
+
                 // Skip if we already processed this node
-                if (closedSet.contains(neighbor)) continue;
-                
+                if ((s.closed[neighbor >>> 6] & (1L << neighbor)) != 0) continue;
+
                 // If this is a new node or we found a better path to it
-                if (!openSet.contains(neighbor) || 
-                    neighbor.gCost < findNodeInSet(openSet, neighbor).gCost) {
-                    openSet.add(neighbor);
+                int gCost = s.entryG[current] + GRID_RESOLUTION;
+                int open = firstOpenEntry(s, neighbor);
+                if (open < 0 || gCost < s.entryG[open]) {
+                    offer(s, newEntry(s, neighbor, gCost, current, endX, endY));
                 }
             }
         }
         
         return null;
     }
-    
-    private static List<Position> getNeighbors(Position pos) {
-        List<Position> neighbors = new ArrayList<>();
-        
-        // Right
-        if (pos.x + GRID_RESOLUTION <= SimulationProperties.gridLength) {
-            neighbors.add(new Position(pos.x + GRID_RESOLUTION, pos.y));
-        }
-        
-        // Left
-        if (pos.x - GRID_RESOLUTION >= 0) {
-            neighbors.add(new Position(pos.x - GRID_RESOLUTION, pos.y));
-        }
-        
-        // Up
-        if (pos.y + GRID_RESOLUTION <= SimulationProperties.gridWidth) {
-            neighbors.add(new Position(pos.x, pos.y + GRID_RESOLUTION));
-        }
-        
-        // Down
-        if (pos.y - GRID_RESOLUTION >= 0) {
-            neighbors.add(new Position(pos.x, pos.y - GRID_RESOLUTION));
-        }
-        
-        return neighbors;
-    }
-    
-    private static boolean isBlocked(Position from, Position to, List<PlannerBlockage> blockages) {
-        // First check if either point is on a vertex
-        for (PlannerBlockage blockage : blockages) {
-            List<Position> vertices = blockage.vertices;
-            if (vertices.size() < 2) continue;
-            
-            boolean fromOnVertex = false;
-            boolean toOnVertex = false;
-            Position fromVertex = null;
-            Position toVertex = null;
-            
-            for (Position vertex : vertices) {
-                if (isPointEqual(from, vertex)) {
-                    fromOnVertex = true;
-                    fromVertex = vertex;
-                }
-                if (isPointEqual(to, vertex)) {
-                    toOnVertex = true;
-                    toVertex = vertex;
-                }
-            }
-            
-            // If both points are on vertices of the same blockage
-            if (fromOnVertex && toOnVertex) {
-                // Check if these vertices are connected by a blockage line
-                for (int i = 0; i < vertices.size() - 1; i++) {
-                    Position v1 = vertices.get(i);
-                    Position v2 = vertices.get(i + 1);
-                    if ((isPointEqual(fromVertex, v1) && isPointEqual(toVertex, v2)) ||
-                        (isPointEqual(fromVertex, v2) && isPointEqual(toVertex, v1))) {
-                        return true; // Movement along blockage line between vertices
-                    }
-                }
-            }
-            
-            // If one point is on a vertex, check if the movement is along a blockage line
-            if (fromOnVertex || toOnVertex) {
-                for (int i = 0; i < vertices.size() - 1; i++) {
-                    Position v1 = vertices.get(i);
-                    Position v2 = vertices.get(i + 1);
-                    if (isPointOnLine(from, v1, v2) && isPointOnLine(to, v1, v2)) {
-                        return true; // Moving along the blockage line
-                    }
-                }
-            }
-        }
 
-        // Check for line segment intersections
-        for (PlannerBlockage blockage : blockages) {
-            List<Position> vertices = blockage.vertices;
-            if (vertices.size() < 2) continue;
-            
-            for (int i = 0; i < vertices.size() - 1; i++) {
-                Position v1 = vertices.get(i);
-                Position v2 = vertices.get(i + 1);
-                
-                // Check if movement is along the blockage line
-                if (isPointOnLine(from, v1, v2) && isPointOnLine(to, v1, v2)) {
-                    return true;
-                }
-                
-                // Check for intersection
-                if (linesIntersect(from, to, v1, v2)) {
-                    return true;
-                }
-            }
+    private static int newEntry(Scratch s, int cell, int g, int parent, int endX, int endY) {
+        if (s.entryCount == s.entryCell.length) {
+            int capacity = s.entryCell.length * 2;
+            s.entryCell = Arrays.copyOf(s.entryCell, capacity);
+            s.entryG = Arrays.copyOf(s.entryG, capacity);
+            s.entryH = Arrays.copyOf(s.entryH, capacity);
+            s.entryParent = Arrays.copyOf(s.entryParent, capacity);
         }
-        return false;
-    }
-    
-    private static boolean linesIntersect(Position a1, Position a2, Position b1, Position b2) {
-        // Calculate line intersection using cross products
-        double denominator = (b2.y - b1.y) * (a2.x - a1.x) - (b2.x - b1.x) * (a2.y - a1.y);
-        if (Math.abs(denominator) < EPSILON) return false;
-        
-        double ua = ((b2.x - b1.x) * (a1.y - b1.y) - (b2.y - b1.y) * (a1.x - b1.x)) / denominator;
-        double ub = ((a2.x - a1.x) * (a1.y - b1.y) - (a2.y - a1.y) * (a1.x - b1.x)) / denominator;
-        
-        return ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1;
-    }
-    
-    private static double heuristic(Position from, Position to) {
+        int entry = s.entryCount++;
+        s.entryCell[entry] = cell;
+        s.entryG[entry] = g;
         // Using Manhattan distance as heuristic since we can only move in cardinal directions
-        return Math.abs(from.x - to.x) + Math.abs(from.y - to.y);
+        s.entryH[entry] = Math.abs(cell / s.rows - endX) + Math.abs(cell % s.rows - endY);
+        s.entryParent[entry] = parent;
+        return entry;
     }
-    
-    private static List<Position> reconstructPath(Node endNode) {
-        List<Position> path = new ArrayList<>();
-        Node current = endNode;
-        
-        while (current != null) {
-            path.add(0, current.pos);
-            current = current.parent;
+
+    // Open entry of the cell that PriorityQueue iteration (array order) finds first, -1 if none
+    private static int firstOpenEntry(Scratch s, int cell) {
+        if (s.stamp[cell] != s.currentStamp || s.openCount[cell] == 0) {
+            return -1;
         }
-        
-        return path;
-    }
-    
-    private static Node findNodeInSet(PriorityQueue<Node> set, Node node) {
-        for (Node n : set) {
-            if (n.equals(node)) return n;
+        if (s.openCount[cell] == 1) {
+            return s.heap[s.openPosition[cell]];
         }
-        return null;
+        for (int i = 0; i < s.heapSize; i++) {
+            if (s.entryCell[s.heap[i]] == cell) {
+                return s.heap[i];
+            }
+        }
+        return -1;
     }
 
-    private static boolean isWithinBounds(Position pos) {
-        return pos.x >= 0 && pos.x <= SimulationProperties.gridLength &&
-               pos.y >= 0 && pos.y <= SimulationProperties.gridWidth;
-    }
+    // --- Array heap with the sift rules of java.util.PriorityQueue, ordered by (f, h) ---
 
-    private static boolean isPointEqual(Position p1, Position p2) {
-        return Math.abs(p1.x - p2.x) < EPSILON && Math.abs(p1.y - p2.y) < EPSILON;
+    private static int compare(Scratch s, int a, int b) {
+        int fa = s.entryG[a] + s.entryH[a];
+        int fb = s.entryG[b] + s.entryH[b];
+        if (fa != fb) return Integer.compare(fa, fb);
+        // If f-costs are equal, prefer the one with lower h-cost
+        return Integer.compare(s.entryH[a], s.entryH[b]);
     }
 
-    private static boolean isPointOnLine(Position p, Position lineStart, Position lineEnd) {
-        // Check if point p lies on the line segment between lineStart and lineEnd
-        if (Math.abs(lineStart.x - lineEnd.x) < EPSILON) {
-            // Vertical line
-            return Math.abs(p.x - lineStart.x) < EPSILON &&
-                   p.y >= Math.min(lineStart.y, lineEnd.y) - EPSILON &&
-                   p.y <= Math.max(lineStart.y, lineEnd.y) + EPSILON;
-        } else {
-            // Horizontal line
-            return Math.abs(p.y - lineStart.y) < EPSILON &&
-                   p.x >= Math.min(lineStart.x, lineEnd.x) - EPSILON &&
-                   p.x <= Math.max(lineStart.x, lineEnd.x) + EPSILON;
+    private static void offer(Scratch s, int entry) {
+        int cell = s.entryCell[entry];
+        if (s.stamp[cell] != s.currentStamp) {
+            s.stamp[cell] = s.currentStamp;
+            s.openCount[cell] = 0;
         }
+        s.openCount[cell]++;
+        if (s.heapSize == s.heap.length) {
+            s.heap = Arrays.copyOf(s.heap, s.heap.length * 2);
+        }
+        siftUp(s, s.heapSize, entry);
+        s.heapSize++;
     }
 
-    private static boolean isInsideBlockage(Position pos, List<PlannerBlockage> blockages) {
-        for (PlannerBlockage blockage : blockages) {
-            for (int i = 0; i < blockage.vertices.size() - 1; i++) {
-                Position v1 = blockage.vertices.get(i);
-                Position v2 = blockage.vertices.get(i + 1);
-                
-                // Check if the point lies on the blockage line (but not at endpoints)
-                if (isPointOnLine(pos, v1, v2) && !isPointEqual(pos, v1) && !isPointEqual(pos, v2)) {
-                    return true;
+    private static int poll(Scratch s) {
+        int top = s.heap[0];
+        int n = --s.heapSize;
+        if (n > 0) {
+            siftDown(s, 0, s.heap[n]);
+        }
+        int cell = s.entryCell[top];
+        if (--s.openCount[cell] == 1) {
+            // The remaining duplicate may have moved while the other one was tracked
+            for (int i = 0; i < s.heapSize; i++) {
+                if (s.entryCell[s.heap[i]] == cell) {
+                    s.openPosition[cell] = i;
+                    break;
                 }
             }
         }
-        return false;
+        return top;
     }
 
-    private static void drawGrid(Position start, Position end, List<PlannerBlockage> blockages, Position current, String status) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("ASCII GRID - " + status);
-        System.out.println("=".repeat(60));
-        
-        // Determine grid bounds (focus on area around start/end with some padding)
-        int minX = Math.max(0, (int)Math.min(start.x, end.x) - 5);
-        int maxX = Math.min((int)SimulationProperties.gridLength, (int)Math.max(start.x, end.x) + 5);
-        int minY = Math.max(0, (int)Math.min(start.y, end.y) - 5);
-        int maxY = Math.min((int)SimulationProperties.gridWidth, (int)Math.max(start.y, end.y) + 5);
-        
-        // Print Y coordinates header
-        System.out.print("    ");
-        for (int x = minX; x <= maxX; x++) {
-            System.out.print(String.format("%2d", x % 100));
+    private static void place(Scratch s, int index, int entry) {
+        s.heap[index] = entry;
+        s.openPosition[s.entryCell[entry]] = index;
+    }
+
+    private static void siftUp(Scratch s, int index, int entry) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parentEntry = s.heap[parentIndex];
+            if (compare(s, entry, parentEntry) >= 0) break;
+            place(s, index, parentEntry);
+            index = parentIndex;
         }
-        System.out.println();
-        
-        // Draw grid
-        for (int y = maxY; y >= minY; y--) {
-            System.out.print(String.format("%2d ", y));
-            for (int x = minX; x <= maxX; x++) {
-                Position pos = new Position(x, y);
-                char symbol = '.';
-                
-                // Check if position is a blockage
-                if (isPositionOnBlockage(pos, blockages)) {
-                    symbol = '#';
-                }
-                
-                // Check if position is start
-                if (Math.abs(pos.x - start.x) < EPSILON && Math.abs(pos.y - start.y) < EPSILON) {
-                    symbol = 'S';
-                }
-                
-                // Check if position is end
-                if (Math.abs(pos.x - end.x) < EPSILON && Math.abs(pos.y - end.y) < EPSILON) {
-                    symbol = 'E';
-                }
-                
-                // Check if position is current
-                if (current != null && Math.abs(pos.x - current.x) < EPSILON && Math.abs(pos.y - current.y) < EPSILON) {
-                    symbol = 'C';
-                }
-                
-                System.out.print(" " + symbol);
+        place(s, index, entry);
+    }
+
+    private static void siftDown(Scratch s, int index, int entry) {
+        int half = s.heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < s.heapSize && compare(s, s.heap[child], s.heap[right]) > 0) {
+                child = right;
             }
-            System.out.println();
+            if (compare(s, entry, s.heap[child]) <= 0) break;
+            place(s, index, s.heap[child]);
+            index = child;
         }
-        
-        System.out.println("Legend: S=Start, E=End, C=Current, #=Blockage, .=Empty");
-        System.out.println("=".repeat(60));
+        place(s, index, entry);
     }
-    
-    private static boolean isPositionOnBlockage(Position pos, List<PlannerBlockage> blockages) {
-        for (PlannerBlockage blockage : blockages) {
-            for (int i = 0; i < blockage.vertices.size() - 1; i++) {
-                Position v1 = blockage.vertices.get(i);
-                Position v2 = blockage.vertices.get(i + 1);
-                
-                if (isPointOnLine(pos, v1, v2)) {
-                    return true;
-                }
-            }
+
+    private static List<Position> reconstructPath(Scratch s, int endEntry) {
+        List<Position> path = new ArrayList<>();
+        for (int entry = endEntry; entry != -1; entry = s.entryParent[entry]) {
+            int cell = s.entryCell[entry];
+            path.add(Position.of(cell / s.rows, cell % s.rows));
         }
-        return false;
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static boolean isWithinBounds(Position pos) {
+        return pos.x >= 0 && pos.x <= SimulationProperties.gridLength &&
+               pos.y >= 0 && pos.y <= SimulationProperties.gridWidth;
     }
-} 
\ No newline at end of file
+}
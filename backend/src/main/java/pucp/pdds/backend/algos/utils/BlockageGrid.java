@@ -0,0 +1,193 @@
+package pucp.pdds.backend.algos.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+
+/**
+ * Rasterized view of a blockage snapshot over the road grid, so pathfinding checks are bit tests
+ * instead of loops over every blockage segment.
+ *
+ * - Blocked unit edges (used by A*) are computed with the exact segment rule of the pathfinder,
+ *   evaluated once for the edges around each segment.
+ * - Blocked nodes are the grid points lying on a blockage. When every blockage is made of
+ *   integer, axis-aligned segments inside the grid, a straight grid-aligned route is blocked
+ *   exactly when it goes through one of them, which prefix sums answer in O(1).
+ *
+ * Grids are cached by blockage geometry, so each snapshot is rasterized once. The cache key is
+ * only a fingerprint, so a hit is accepted after comparing the vertices the grid was built from.
+ */
+public class BlockageGrid {
+    private static final double EPSILON = 1e-6;
+    private static final int MAX_CACHED_GRIDS = 32;
+
+    private static final Map<Long, BlockageGrid> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BlockageGrid> eldest) {
+            return size() > MAX_CACHED_GRIDS;
+        }
+    };
+
+    private final double[][] geometry; // vertices of each blockage (x0, y0, x1, y1...), sorted
+    private final int columns; // x values: 0..gridLength
+    private final int rows;    // y values: 0..gridWidth
+    private final BitSet blockedHorizontalEdges = new BitSet(); // (x, y) -> (x + 1, y), index x * rows + y
+    private final BitSet blockedVerticalEdges = new BitSet();   // (x, y) -> (x, y + 1), index x * rows + y
+
+    private final boolean gridAligned;
+    private final int[] rowPrefix;    // blocked nodes in row y before column x: [y * (columns + 1) + x]
+    private final int[] columnPrefix; // blocked nodes in column x before row y: [x * (rows + 1) + y]
+
+    public static BlockageGrid of(List<PlannerBlockage> blockages) {
+        int columns = SimulationProperties.gridLength + 1;
+        int rows = SimulationProperties.gridWidth + 1;
+        long key = DistanceCache.fingerprint(blockages) * 31 + (long) columns * rows;
+        double[][] geometry = DistanceCache.geometryOf(blockages);
+
+        BlockageGrid grid;
+        synchronized (cache) {
+            grid = cache.get(key);
+        }
+        // Two snapshots with the same fingerprint must not share a grid
+        if (grid == null || grid.columns != columns || grid.rows != rows || !Arrays.deepEquals(grid.geometry, geometry)) {
+            grid = new BlockageGrid(blockages, geometry, columns, rows);
+            synchronized (cache) {
+                cache.put(key, grid);
+            }
+        }
+        return grid;
+    }
+
+    private BlockageGrid(List<PlannerBlockage> blockages, double[][] geometry, int columns, int rows) {
+        this.geometry = geometry;
+        this.columns = columns;
+        this.rows = rows;
+
+        boolean aligned = true;
+        boolean[] blockedNodes = new boolean[columns * rows];
+
+        if (blockages != null) {
+            for (PlannerBlockage blockage : blockages) {
+                List<Position> vertices = blockage.vertices;
+                for (int i = 0; i < vertices.size() - 1; i++) {
+                    Position v1 = vertices.get(i);
+                    Position v2 = vertices.get(i + 1);
+                    rasterizeEdges(v1, v2);
+                    aligned &= markNodes(v1, v2, blockedNodes);
+                }
+            }
+        }
+
+        this.gridAligned = aligned;
+        this.rowPrefix = new int[rows * (columns + 1)];
+        this.columnPrefix = new int[columns * (rows + 1)];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                rowPrefix[y * (columns + 1) + x + 1] = rowPrefix[y * (columns + 1) + x] + (blockedNodes[x * rows + y] ? 1 : 0);
+            }
+        }
+        for (int x = 0; x < columns; x++) {
+            for (int y = 0; y < rows; y++) {
+                columnPrefix[x * (rows + 1) + y + 1] = columnPrefix[x * (rows + 1) + y] + (blockedNodes[x * rows + y] ? 1 : 0);
+            }
+        }
+    }
+
+    // Only edges touching the bounding box of the segment can be blocked by it
+    private void rasterizeEdges(Position v1, Position v2) {
+        int minX = Math.max(0, (int) Math.floor(Math.min(v1.x, v2.x)) - 1);
+        int maxX = Math.min(columns - 1, (int) Math.ceil(Math.max(v1.x, v2.x)) + 1);
+        int minY = Math.max(0, (int) Math.floor(Math.min(v1.y, v2.y)) - 1);
+        int maxY = Math.min(rows - 1, (int) Math.ceil(Math.max(v1.y, v2.y)) + 1);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                if (x + 1 < columns && blocksEdge(x, y, x + 1, y, v1, v2)) {
+                    blockedHorizontalEdges.set(x * rows + y);
+                }
+                if (y + 1 < rows && blocksEdge(x, y, x, y + 1, v1, v2)) {
+                    blockedVerticalEdges.set(x * rows + y);
+                }
+            }
+        }
+    }
+
+    // Marks the grid points of an integer axis-aligned segment, returns false if the segment is not one
+    private boolean markNodes(Position v1, Position v2, boolean[] blockedNodes) {
+        if (v1.x % 1 != 0 || v1.y % 1 != 0 || v2.x % 1 != 0 || v2.y % 1 != 0) return false;
+        if (v1.x != v2.x && v1.y != v2.y) return false;
+
+        int minX = (int) Math.min(v1.x, v2.x), maxX = (int) Math.max(v1.x, v2.x);
+        int minY = (int) Math.min(v1.y, v2.y), maxY = (int) Math.max(v1.y, v2.y);
+        if (minX < 0 || maxX >= columns || minY < 0 || maxY >= rows) return false;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                blockedNodes[x * rows + y] = true;
+            }
+        }
+        return true;
+    }
+
+    // Unit move between neighboring grid points, same rule as moving along a blockage segment or crossing it
+    public boolean isEdgeBlocked(int fromX, int fromY, int toX, int toY) {
+        if (fromY == toY) {
+            return blockedHorizontalEdges.get(Math.min(fromX, toX) * rows + fromY);
+        }
+        return blockedVerticalEdges.get(fromX * rows + Math.min(fromY, toY));
+    }
+
+    // Whether isRouteBlocked can answer for this route, otherwise the caller must check the blockages one by one
+    public boolean canCheckRoute(Position from, Position to) {
+        return gridAligned && from.isInteger() && to.isInteger() && (from.x == to.x || from.y == to.y)
+            && from.x >= 0 && from.x < columns && to.x >= 0 && to.x < columns
+            && from.y >= 0 && from.y < rows && to.y >= 0 && to.y < rows;
+    }
+
+    // Straight route between grid points, blocked if it goes through any blocked node
+    public boolean isRouteBlocked(Position from, Position to) {
+        if (from.y == to.y) {
+            int y = (int) from.y;
+            int minX = (int) Math.min(from.x, to.x), maxX = (int) Math.max(from.x, to.x);
+            return rowPrefix[y * (columns + 1) + maxX + 1] - rowPrefix[y * (columns + 1) + minX] > 0;
+        }
+        int x = (int) from.x;
+        int minY = (int) Math.min(from.y, to.y), maxY = (int) Math.max(from.y, to.y);
+        return columnPrefix[x * (rows + 1) + maxY + 1] - columnPrefix[x * (rows + 1) + minY] > 0;
+    }
+
+    private static boolean blocksEdge(double fromX, double fromY, double toX, double toY, Position v1, Position v2) {
+        // Movement along the blockage line or crossing it
+        return (isPointOnLine(fromX, fromY, v1, v2) && isPointOnLine(toX, toY, v1, v2))
+            || linesIntersect(fromX, fromY, toX, toY, v1, v2);
+    }
+
+    private static boolean linesIntersect(double a1x, double a1y, double a2x, double a2y, Position b1, Position b2) {
+        // Calculate line intersection using cross products
+        double denominator = (b2.y - b1.y) * (a2x - a1x) - (b2.x - b1.x) * (a2y - a1y);
+        if (Math.abs(denominator) < EPSILON) return false;
+        
+        double ua = ((b2.x - b1.x) * (a1y - b1.y) - (b2.y - b1.y) * (a1x - b1.x)) / denominator;
+        double ub = ((a2x - a1x) * (a1y - b1.y) - (a2y - a1y) * (a1x - b1.x)) / denominator;
+        
+        return ua >= 0 && ua <= 1 && ub >= 0 && ub <= 1;
+    }
+
+    private static boolean isPointOnLine(double px, double py, Position lineStart, Position lineEnd) {
+        if (Math.abs(lineStart.x - lineEnd.x) < EPSILON) {
+            // Vertical line
+            return Math.abs(px - lineStart.x) < EPSILON &&
+                   py >= Math.min(lineStart.y, lineEnd.y) - EPSILON &&
+                   py <= Math.max(lineStart.y, lineEnd.y) + EPSILON;
+        } else {
+            // Horizontal line
+            return Math.abs(py - lineStart.y) < EPSILON &&
+                   px >= Math.min(lineStart.x, lineEnd.x) - EPSILON &&
+                   px <= Math.max(lineStart.x, lineEnd.x) + EPSILON;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package pucp.pdds.backend.algos.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+
+/**
+ * Process-wide cache of road distances, shared by every planning interval.
+ * Distances are grouped in one segment per blockage geometry (segment(blockages)), so they are
+ * reused as long as the same blockages are active. Segments are found by fingerprint and a hit is
+ * only accepted after comparing the geometry, like BlockageGrid.
+ *
+ * Lookups inside a segment are lock-free (ConcurrentHashMap). When the cache holds more than
+ * SimulationProperties.distanceCacheSize distances, the least recently used segments are dropped.
+ */
+public class DistanceCache {
+    private record Key(double x1, double y1, double x2, double y2) {}
+
+    /**
+     * Distances for one blockage geometry.
+     */
+    public static final class Segment {
+        private final double[][] geometry;
+        private final Map<Key, Double> distances = new ConcurrentHashMap<>();
+        private volatile long lastUsed;
+
+        private Segment(double[][] geometry) {
+            this.geometry = geometry;
+        }
+
+        // Returns null on a miss
+        public Double get(Position from, Position to) {
+            Double distance = distances.get(key(from, to));
+            if (distance != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+            return distance;
+        }
+
+        public void put(Position from, Position to, double distance) {
+            // Un solo segmento más grande que el límite deja de crecer en vez de vaciarse
+            if (distances.size() >= SimulationProperties.distanceCacheSize) {
+                return;
+            }
+            if (distances.putIfAbsent(key(from, to), distance) == null
+                    && entries.incrementAndGet() > SimulationProperties.distanceCacheSize) {
+                evict(this);
+            }
+        }
+    }
+
+    private static final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private static final AtomicInteger entries = new AtomicInteger(); // Aproximado, evict() lo recalcula
+    private static final AtomicLong useClock = new AtomicLong();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    // Order-independent hash of the blockage geometry. Times are ignored since paths only depend on the vertices.
+    public static long fingerprint(List<PlannerBlockage> blockages) {
+        long fingerprint = 0;
+        if (blockages == null) {
+            return fingerprint;
+        }
+        for (PlannerBlockage blockage : blockages) {
+            fingerprint += fingerprint(blockage);
+        }
+        return fingerprint;
+    }
+
+    // Fingerprint of a single blockage, the fingerprint of a set is the sum of those of its blockages
+    public static long fingerprint(PlannerBlockage blockage) {
+        long hash = 1;
+        for (Position vertex : blockage.vertices) {
+            hash = 31 * hash + Double.hashCode(vertex.x);
+            hash = 31 * hash + Double.hashCode(vertex.y);
+        }
+        return mix(hash);
+    }
+
+    // Canonical form of a snapshot: the order of the blockages does not matter, as in the fingerprint
+    static double[][] geometryOf(List<PlannerBlockage> blockages) {
+        if (blockages == null) {
+            return new double[0][];
+        }
+        double[][] geometry = new double[blockages.size()][];
+        for (int b = 0; b < geometry.length; b++) {
+            List<Position> vertices = blockages.get(b).vertices;
+            double[] coordinates = new double[vertices.size() * 2];
+            for (int i = 0; i < vertices.size(); i++) {
+                coordinates[2 * i] = vertices.get(i).x;
+                coordinates[2 * i + 1] = vertices.get(i).y;
+            }
+            geometry[b] = coordinates;
+        }
+        Arrays.sort(geometry, Arrays::compare);
+        return geometry;
+    }
+
+    /**
+     * Segment of the given blockage snapshot, created if needed. Two snapshots with the same
+     * fingerprint but different geometry never share a segment: the newer one replaces the other.
+     */
+    public static Segment segment(List<PlannerBlockage> blockages) {
+        long fingerprint = fingerprint(blockages);
+        double[][] geometry = geometryOf(blockages);
+
+        Segment segment = segments.get(fingerprint);
+        if (segment == null || !Arrays.deepEquals(segment.geometry, geometry)) {
+            segment = segments.compute(fingerprint, (key, current) ->
+                current != null && Arrays.deepEquals(current.geometry, geometry) ? current : new Segment(geometry));
+        }
+        segment.lastUsed = useClock.incrementAndGet();
+        return segment;
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Segment segment : segments.values()) {
+            size += segment.distances.size();
+        }
+        return size;
+    }
+
+    public static void clear() {
+        synchronized (segments) {
+            segments.clear();
+            entries.set(0);
+        }
+    }
+
+    // Drops the least recently used segments (other than the one being filled) until the cache fits
+    private static void evict(Segment filling) {
+        synchronized (segments) {
+            // Recontar: los segmentos ya reemplazados que siguen en uso también sumaron al contador
+            entries.set(size());
+            while (entries.get() > SimulationProperties.distanceCacheSize) {
+                Map.Entry<Long, Segment> oldest = null;
+                for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+                    if (entry.getValue() != filling && (oldest == null || entry.getValue().lastUsed < oldest.getValue().lastUsed)) {
+                        oldest = entry;
+                    }
+                }
+                if (oldest == null) {
+                    return;
+                }
+                if (segments.remove(oldest.getKey(), oldest.getValue())) {
+                    entries.addAndGet(-oldest.getValue().distances.size());
+                }
+            }
+        }
+    }
+
+    // Distances are symmetric, so both directions share the same key
+    private static Key key(Position from, Position to) {
+        if (from.x < to.x || (from.x == to.x && from.y <= to.y)) {
+            return new Key(from.x, from.y, to.x, to.y);
+        }
+        return new Key(to.x, to.y, from.x, from.y);
+    }
+
+    // SplitMix64 finalizer, spreads the per-blockage hashes before adding them
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,9 +1,7 @@
 package pucp.pdds.backend.algos.utils;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 
 import pucp.pdds.backend.algos.entities.PlannerBlockage;
@@ -11,57 +9,42 @@ import pucp.pdds.backend.algos.entities.PlannerBlockage;
 public class PathBuilder {
     private static final double EPSILON = 1e-6;
 
-    // Static cache key for positions and blockages
-    private static class CacheKey {
-        final List<Position> positions;
-        final List<PlannerBlockage> blockages;
-        final int hash;
-        CacheKey(List<Position> positions, List<PlannerBlockage> blockages) {
-            this.positions = positions;
-            this.blockages = blockages;
-            this.hash = positions.hashCode() * 31 + blockages.hashCode();
+    // Road distance between two positions, infinite if they are not connected
+    public static double calculateDistance(Position from, Position to, List<PlannerBlockage> blockages) {
+        if (blockages == null || blockages.isEmpty()) {
+            return Math.abs(from.x - to.x) + Math.abs(from.y - to.y);
         }
-        @Override public boolean equals(Object o) {
-            if (!(o instanceof CacheKey)) return false;
-            CacheKey other = (CacheKey) o;
-            return positions.equals(other.positions) && blockages.equals(other.blockages);
-        }
-        @Override public int hashCode() { return hash; }
+        List<Position> path = buildPath(from, to, blockages);
+        return (path != null) ? calculateDistance(path) : Double.POSITIVE_INFINITY;
     }
 
-    private static class LazyDistanceCalculator {
-        private final List<PlannerBlockage> blockages;
-        private final Map<Position, Map<Position, Double>> cache = new HashMap<>();
-        private final boolean noBlockages;
+    // Travel time used for planning, rounded up to whole hours as in Solution.simulate
+    public static int estimateTravelMinutes(double distance) {
+        return (int) Math.ceil(distance / SimulationProperties.speed) * 60;
+    }
 
-        LazyDistanceCalculator(List<PlannerBlockage> blockages) {
-            this.blockages = blockages;
-            this.noBlockages = (blockages == null || blockages.isEmpty());
+    // Time-dependent routing: only the blockages active at some moment of a trip leaving at the
+    // departure time are applied. The trip duration is estimated with every blockage applied, an upper
+    // bound since removing blockages never makes the route longer.
+    public static List<PlannerBlockage> getBlockagesDuringTrip(Position from, Position to, List<PlannerBlockage> blockages, Time departure) {
+        if (blockages == null || blockages.isEmpty()) {
+            return blockages;
         }
 
-        public double getDistance(Position from, Position to) {
-            // Check cache first, handling symmetrical case
-            if (cache.containsKey(from) && cache.get(from).containsKey(to)) {
-                return cache.get(from).get(to);
-            }
-            if (cache.containsKey(to) && cache.get(to).containsKey(from)) {
-                return cache.get(to).get(from);
-            }
+        double distance = calculateDistance(from, to, blockages);
+        Time arrival = Double.isFinite(distance) ? departure.addMinutes(estimateTravelMinutes(distance)) : null;
 
-            // If not in cache, calculate it
-            double distance;
-            if (noBlockages) {
-                distance = Math.abs(from.x - to.x) + Math.abs(from.y - to.y);
-            } else {
-                List<Position> path = buildPath(from, to, blockages);
-                distance = (path != null) ? calculateDistance(path) : Double.POSITIVE_INFINITY;
+        List<PlannerBlockage> tripBlockages = new ArrayList<>();
+        for (PlannerBlockage blockage : blockages) {
+            if (!blockage.endTime.isBefore(departure) && (arrival == null || !blockage.startTime.isAfter(arrival))) {
+                tripBlockages.add(blockage);
             }
-
-            // Store in cache
-            cache.computeIfAbsent(from, k -> new HashMap<>()).put(to, distance);
-
-            return distance;
         }
+        return tripBlockages;
+    }
+
+    public static List<Position> buildPath(Position from, Position to, List<PlannerBlockage> blockages, Time departure) {
+        return buildPath(from, to, getBlockagesDuringTrip(from, to, blockages, departure));
     }
 
     // Returns null if no path is found, empty list if from == to, otherwise returns the path
@@ -92,6 +75,7 @@ public class PathBuilder {
         List<Position> path = new ArrayList<>();
         Position fromPos = from;
         Position toPos = to;
+        BlockageGrid grid = BlockageGrid.of(blockages);
 
         // Handle non-integer start position
         if (!from.isInteger()) {
@@ -120,7 +104,7 @@ public class PathBuilder {
             // System.out.println("Rounded to: " + roundedTo);
             
             // Check if direct path from rounded position is blocked
-            boolean pathFromRoundedBlocked = isPathBlocked(roundedTo, to, blockages);
+            boolean pathFromRoundedBlocked = isPathBlocked(roundedTo, to, blockages, grid);
             // System.out.println("Direct path from rounded position blocked: " + pathFromRoundedBlocked);
             
             if (pathFromRoundedBlocked) {
@@ -136,7 +120,7 @@ public class PathBuilder {
 
         // Try Manhattan path first with integer positions
         // System.out.println("🔄 Attempting Manhattan path...");
-        List<Position> mainPath = buildManhattanPath(fromPos, toPos, blockages);
+        List<Position> mainPath = buildManhattanPath(fromPos, toPos, blockages, grid);
         if (mainPath != null) {
             // System.out.println("✅ Manhattan path successful! Length: " + mainPath.size());
             // System.out.println("Manhattan path: " + mainPath);
@@ -157,7 +141,7 @@ public class PathBuilder {
 
         // Try A* as a fallback with integer positions
         // System.out.println("🔄 Attempting A* path...");
-        mainPath = buildAstarPath(fromPos, toPos, blockages);
+        mainPath = buildAstarPath(fromPos, toPos, grid);
         if (mainPath != null) {
             // System.out.println("✅ A* path successful! Length: " + mainPath.size());
             // System.out.println("A* path: " + mainPath);
@@ -219,48 +203,20 @@ public class PathBuilder {
         return distance;
     }
 
-    public static Map<Position, Map<Position, Double>> generateDistances(List<Position> positions, List<PlannerBlockage> blockages) {
-        LazyDistanceCalculator calculator = new LazyDistanceCalculator(blockages);
-        Map<Position, Map<Position, Double>> outerMap = new HashMap<>();
-
-        for (Position from : positions) {
-            // The inner map is a lazy map. It calculates distances on demand.
-            Map<Position, Double> innerMap = new java.util.AbstractMap<>() {
-                @Override
-                public boolean containsKey(Object key) {
-                    return positions.contains(key);
-                }
-
-                @Override
-                public Double get(Object key) {
-                    if (!(key instanceof Position)) {
-                        return null;
-                    }
-                    return calculator.getDistance(from, (Position) key);
-                }
-                
-                // This is required by AbstractMap. It's not efficient, but we assume
-                // the primary use case is .get(), not iteration.
-                @Override
-                public java.util.Set<Entry<Position, Double>> entrySet() {
-                    java.util.Set<Entry<Position, Double>> entries = new java.util.HashSet<>();
-                    for (Position to : positions) {
-                        entries.add(new java.util.AbstractMap.SimpleEntry<>(to, get(to)));
-                    }
-                    return entries;
-                }
-            };
-            outerMap.put(from, innerMap);
+    private static boolean isPathBlocked(Position from, Position to, List<PlannerBlockage> blockages, BlockageGrid grid) {
+        if (from.equals(to)) {
+            return false;
         }
-        return outerMap;
-    }
 
-    // Static holder for cache
-    private static class StaticCacheHolder {
-        static final Map<CacheKey, Map<Position, Map<Position, Double>>> cache = new java.util.concurrent.ConcurrentHashMap<>();
+        // Grid-aligned routes over grid-aligned blockages are answered by the rasterized snapshot
+        if (grid.canCheckRoute(from, to)) {
+            return grid.isRouteBlocked(from, to);
+        }
+        return isPathBlocked(from, to, blockages);
     }
 
-    private static boolean isPathBlocked(Position from, Position to, List<PlannerBlockage> blockages) {
+    // Per-blockage check, for the routes and snapshots the grid cannot answer
+    static boolean isPathBlocked(Position from, Position to, List<PlannerBlockage> blockages) {
         if (from.equals(to)) {
             return false;
         }
@@ -317,7 +273,7 @@ public class PathBuilder {
             double minY = Math.min(from.y, to.y);
             double maxY = Math.max(from.y, to.y);
             for (double y = minY; y <= maxY; y += 1.0) {
-                Position pos = new Position(from.x, y);
+                Position pos = Position.of(from.x, y);
                 if (isInsideBlockage(pos, blockages)) {
                     return true;
                 }
@@ -327,7 +283,7 @@ public class PathBuilder {
             double minX = Math.min(from.x, to.x);
             double maxX = Math.max(from.x, to.x);
             for (double x = minX; x <= maxX; x += 1.0) {
-                Position pos = new Position(x, from.y);
+                Position pos = Position.of(x, from.y);
                 if (isInsideBlockage(pos, blockages)) {
                     return true;
                 }
@@ -359,7 +315,7 @@ public class PathBuilder {
     }
 
     // Convention is that empty is for from = to, null is for no possible path
-    private static List<Position> buildManhattanPath(Position from, Position to, List<PlannerBlockage> blockages) {
+    private static List<Position> buildManhattanPath(Position from, Position to, List<PlannerBlockage> blockages, BlockageGrid grid) {
         if (from.equals(to)) {
             return new ArrayList<>();
         }
@@ -373,8 +329,8 @@ public class PathBuilder {
         path.add(from);
 
         // Try first L-shape: Move in Y direction first, then X
-        Position pivot1 = new Position(from.x, to.y);
-        if (isWithinBounds(pivot1) && !isPathBlocked(from, pivot1, blockages) && !isPathBlocked(pivot1, to, blockages)) {
+        Position pivot1 = Position.of(from.x, to.y);
+        if (isWithinBounds(pivot1) && !isPathBlocked(from, pivot1, blockages, grid) && !isPathBlocked(pivot1, to, blockages, grid)) {
             path.add(pivot1);
             path.add(to);
             return path;
@@ -383,8 +339,8 @@ public class PathBuilder {
         // Try second L-shape: Move in X direction first, then Y
         path.clear();
         path.add(from);
-        Position pivot2 = new Position(to.x, from.y);
-        if (isWithinBounds(pivot2) && !isPathBlocked(from, pivot2, blockages) && !isPathBlocked(pivot2, to, blockages)) {
+        Position pivot2 = Position.of(to.x, from.y);
+        if (isWithinBounds(pivot2) && !isPathBlocked(from, pivot2, blockages, grid) && !isPathBlocked(pivot2, to, blockages, grid)) {
             path.add(pivot2);
             path.add(to);
             return path;
@@ -399,8 +355,8 @@ public class PathBuilder {
     }
 
     // Convention is that empty is for from = to, null is for no possible path
-    private static List<Position> buildAstarPath(Position from, Position to, List<PlannerBlockage> blockages) {
-        return AStarPathfinder.findPath(from, to, blockages);
+    private static List<Position> buildAstarPath(Position from, Position to, BlockageGrid grid) {
+        return AStarPathfinder.findPath(from, to, grid);
     }
 
     private static List<Position> compressPath(List<Position> path) {
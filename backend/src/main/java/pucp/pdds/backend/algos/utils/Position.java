@@ -1,20 +1,63 @@
 package pucp.pdds.backend.algos.utils;
 
-public class Position implements Cloneable {
-    public double x;
-    public double y;
+/**
+ * Immutable point of the city grid with value semantics, so it can be used as a map key.
+ * Integer points inside the grid are interned: Position.of returns the same instance for the
+ * same coordinates and packedKey() identifies them with a single int. Fractional points
+ * (vehicles in the middle of an edge) are regular instances.
+ */
+public final class Position implements Cloneable {
+    public final double x;
+    public final double y;
+
+    // Interned integer points, built once with the grid size of SimulationProperties
+    private static final int GRID_COLUMNS = SimulationProperties.gridLength + 1;
+    private static final int GRID_ROWS = SimulationProperties.gridWidth + 1;
+    private static final Position[] GRID_POINTS = createGridPoints();
 
     public Position(double x, double y) {
         this.x = x;
         this.y = y;
     }
 
+    public static Position of(double x, double y) {
+        int index = gridIndex(x, y);
+        return index >= 0 ? GRID_POINTS[index] : new Position(x, y);
+    }
+
+    private static Position[] createGridPoints() {
+        Position[] points = new Position[GRID_COLUMNS * GRID_ROWS];
+        for (int x = 0; x < GRID_COLUMNS; x++) {
+            for (int y = 0; y < GRID_ROWS; y++) {
+                points[x * GRID_ROWS + y] = new Position(x, y);
+            }
+        }
+        return points;
+    }
+
+    private static int gridIndex(double x, double y) {
+        if (x % 1 != 0 || y % 1 != 0 || x < 0 || y < 0 || x >= GRID_COLUMNS || y >= GRID_ROWS) {
+            return -1;
+        }
+        return (int) x * GRID_ROWS + (int) y;
+    }
+
+    /**
+     * (x << 16) | y for integer points with non-negative coordinates below 2^15, -1 otherwise.
+     */
+    public int packedKey() {
+        if (!isInteger() || x < 0 || y < 0 || x >= (1 << 15) || y >= (1 << 15)) {
+            return -1;
+        }
+        return ((int) x << 16) | (int) y;
+    }
+
     public boolean isInteger() {
         return x % 1 == 0 && y % 1 == 0;
     }
 
     public Position round() {
-        return new Position(Math.round(x), Math.round(y));
+        return Position.of(Math.round(x), Math.round(y));
     }
 
     public boolean isPossible() {
@@ -23,18 +66,36 @@ public class Position implements Cloneable {
         return firstGuard && secondGuard;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Position)) {
+            return false;
+        }
+        Position position = (Position) other;
+        return x == position.x && y == position.y;
+    }
+
+    @Override
+    public int hashCode() {
+        int key = packedKey();
+        if (key >= 0) {
+            return key;
+        }
+        // + 0.0 so that -0.0 and 0.0 (equal under ==) hash the same
+        return 31 * Double.hashCode(x + 0.0) + Double.hashCode(y + 0.0);
+    }
+
     @Override
     public String toString() {
         return "Position{" + "x=" + x + ", y=" + y + '}';
     }
 
+    // Positions are immutable, a clone is the same instance
     @Override
     public Position clone() {
-        try {
-            Position clone = (Position) super.clone();
-            return clone;
-        } catch (CloneNotSupportedException e) {
-            throw new AssertionError(); // Can never happen
-        }
+        return this;
     }
 }
@@ -12,4 +12,17 @@ public class SimulationProperties {
     public static int replanningInterval = 120; // Más tiempo entre replanificaciones
 
     public static int maxTimeMs = (int) (msPerMinute * replanningInterval * 0.8); // Más tiempo para el algoritmo
+
+    public static int planAheadIntervals = 1; // Planes terminados que se pueden adelantar a la ejecución
+    public static int headlessMaxTimeMs = 2000; // Tiempo del algoritmo por replanificación en modo headless (sin pausas)
+    public static int headlessSnapshotInterval = 60; // Minutos simulados entre snapshots en modo headless
+
+    public static int algorithmWorkers = Runtime.getRuntime().availableProcessors(); // Búsquedas locales en paralelo
+    public static Long algorithmSeed = null; // Semilla fija para resultados reproducibles, null = aleatoria
+    public static boolean parallelNeighborScoring = true; // Evaluar en paralelo los vecinos de cada paso
+    public static int neighborScoringBatch = 16; // Vecinos generados y evaluados juntos en cada lote
+
+    public static int distanceCacheSize = 200_000; // Distancias guardadas entre replanificaciones
+    public static boolean timeDependentRouting = true; // Solo aplicar bloqueos activos durante cada viaje
+    public static boolean eventDrivenSimulation = true; // Saltar los minutos en que un vehículo solo espera (en headless, también el reloj)
 }
@@ -2,196 +2,166 @@ package pucp.pdds.backend.algos.utils;
 
 import java.time.LocalDateTime;
 
+/**
+ * Simulation timestamp stored as a single minute count ("epoch minute") using the project's
+ * calendar convention: 30-day months, 12-month years, counted from year 0. Adding, subtracting,
+ * comparing and diffing are plain int operations; year/month/day/hour/minute are derived on
+ * demand. Components outside their range (hour 24, day 32...) are normalized on construction.
+ *
+ * Day 31 is the exception, since real dates (LocalDateTime.now(), database rows) can fall on it.
+ * Its minute count is the one of day 1 of the next month, as in the 30-day calendar, but the
+ * Time keeps reporting the 31st (getters, toLocalDateTime) while arithmetic stays on that day.
+ * Past midnight it follows the minute count again, so times never go backwards.
+ * Hot loops can work directly with toEpochMinute() and only build a Time at the edges.
+ */
 public class Time implements Comparable<Time>, Cloneable {
-    private int year;
-    private int month;
-    private int day;
-    private int hour;
-    private int min;
+    public static final int MINUTES_PER_HOUR = 60;
+    public static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+    public static final int DAYS_PER_MONTH = 30;
+    public static final int MINUTES_PER_MONTH = DAYS_PER_MONTH * MINUTES_PER_DAY;
+    public static final int MINUTES_PER_YEAR = 12 * MINUTES_PER_MONTH;
+
+    private int minutes; // Enough for dates up to the year ~4100
+    private boolean day31; // minutes cuentan desde el día 1 del mes siguiente, pero la fecha real es el 31
 
     // No-arg constructor for Jackson
     public Time() {}
 
-    public Time(Time other) {   
-        this.year = other.year;
-        this.month = other.month;
-        this.day = other.day;
-        this.hour = other.hour;
-        this.min = other.min;
+    public Time(Time other) {
+        this.minutes = other.minutes;
+        this.day31 = other.day31;
     }
 
     public Time(int year,int month, int day, int hour, int min) {
-        this.year = year;
-        this.month = month;
-        this.day = day;
-        this.hour = hour;
-        this.min = min;
+        set(year, month, day, hour, min);
+    }
+
+    private Time(int minutes) {
+        this.minutes = minutes;
+    }
+
+    private void set(int year, int month, int day, int hour, int min) {
+        this.minutes = toEpochMinute(year, month, day, hour, min);
+        this.day31 = day == 31 && hour >= 0 && hour < 24 && min >= 0 && min < MINUTES_PER_HOUR;
+    }
+
+    // Minute count on the 30-day calendar of the date being shown (day 30 for a day 31)
+    private int calendarMinutes() {
+        return day31 ? minutes - MINUTES_PER_DAY : minutes;
+    }
+
+    public static Time ofEpochMinute(int minutes) {
+        return new Time(minutes);
+    }
+
+    public static int toEpochMinute(int year, int month, int day, int hour, int min) {
+        return year * MINUTES_PER_YEAR + (month - 1) * MINUTES_PER_MONTH + (day - 1) * MINUTES_PER_DAY
+            + hour * MINUTES_PER_HOUR + min;
+    }
+
+    public int toEpochMinute() {
+        return minutes;
     }
 
     public int getYear() {
-        return year;
+        return Math.floorDiv(calendarMinutes(), MINUTES_PER_YEAR);
     }
 
     public int getMonth() {
-        return month;
+        return Math.floorMod(Math.floorDiv(calendarMinutes(), MINUTES_PER_MONTH), 12) + 1;
     }
 
     public int getDay() {
-        return day;
+        return day31 ? 31 : Math.floorMod(Math.floorDiv(minutes, MINUTES_PER_DAY), DAYS_PER_MONTH) + 1;
     }
 
     public int getHour() {
-        return hour;
+        return Math.floorMod(Math.floorDiv(minutes, MINUTES_PER_HOUR), 24);
     }
 
     public int getMinute() {
-        return min;
+        return Math.floorMod(minutes, MINUTES_PER_HOUR);
     }
 
     public LocalDateTime toLocalDateTime() {
-        return LocalDateTime.of(year, month, day, hour, min);
+        return LocalDateTime.of(getYear(), getMonth(), getDay(), getHour(), getMinute());
     }
 
     @Override
     public String toString() {
-        return String.format("%04d/%02d/%02d %02d:%02d", year, month, day, hour, min);
+        return String.format("%04d/%02d/%02d %02d:%02d", getYear(), getMonth(), getDay(), getHour(), getMinute());
     }
 
     @Override
     public int compareTo(Time other) {
-        if (this.year != other.year) return this.year - other.year;
-        if (this.month != other.month) return this.month - other.month;
-        if (this.day != other.day) return this.day - other.day;
-        if (this.hour != other.hour) return this.hour - other.hour;
-        return this.min - other.min;
+        return Integer.compare(this.minutes, other.minutes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Time && ((Time) other).minutes == this.minutes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(minutes);
     }
 
     public boolean isBefore(Time other) {
-        if (this.year != other.year) return this.year < other.year;
-        if (this.month != other.month) return this.month < other.month;
-        if (this.day != other.day) return this.day < other.day;
-        if (this.hour != other.hour) return this.hour < other.hour;
-        return this.min < other.min;
+        return this.minutes < other.minutes;
     }
 
     public boolean isBeforeOrAt(Time other) {
-        if (this.year != other.year) return this.year < other.year;
-        if (this.month != other.month) return this.month < other.month;
-        if (this.day != other.day) return this.day < other.day;
-        if (this.hour != other.hour) return this.hour < other.hour;
-        return this.min <= other.min;
+        return this.minutes <= other.minutes;
     }
-    
+
 
     public boolean isAfter(Time other) {
-        return other.isBefore(this);
+        return this.minutes > other.minutes;
     }
 
     public boolean isAfterOrAt(Time other) {
-        return other.isBeforeOrAt(this);
+        return this.minutes >= other.minutes;
     }
 
     public Time addMinutes(int minutes) {
-        int totalMinutes = this.min + minutes;
-        int newMin = totalMinutes % 60;
-        int extraHours = totalMinutes / 60;
-        
-        int totalHours = this.hour + extraHours;
-        int newHour = totalHours % 24;
-        int extraDays = totalHours / 24;
-        
-        int newDay = this.day + extraDays;
-        int newMonth = this.month;
-        int newYear = this.year;
-        // Adjust for months and years (assuming 30 days per month)
-        while (newDay > 30) {
-            newDay -= 30;
-            newMonth++;
-            if (newMonth > 12) {
-                newMonth = 1;
-                newYear++;
-            }
-        }
-        
-        return new Time(newYear, newMonth, newDay, newHour, newMin);
+        return shifted(minutes);
     }
 
     public Time subtractMinutes(int minutes) {
-        int totalMinutes = this.min - minutes;
-        int newMin = (totalMinutes % 60 + 60) % 60; // Handle negative minutes
-        int extraHours = (int)Math.floorDiv(totalMinutes, 60);
-        
-        int totalHours = this.hour + extraHours;
-        int newHour = (totalHours % 24 + 24) % 24; // Handle negative hours
-        int extraDays = (int)Math.floorDiv(totalHours, 24);
-        
-        int newDay = this.day + extraDays;
-        int newMonth = this.month;
-        int newYear = this.year;
-        
-        // Handle days underflow (assuming 30 days per month)
-        while (newDay < 1) {
-            newMonth--;
-            if (newMonth < 1) {
-                newMonth = 12;
-                newYear--;
-            }
-            newDay += 30; // Add days from previous month
-        }
-        
-        return new Time(newYear, newMonth, newDay, newHour, newMin);
+        return shifted(-minutes);
+    }
+
+    // A day 31 stays on the 31st until midnight, then continues on the 30-day calendar
+    private Time shifted(int delta) {
+        Time result = new Time(this.minutes + delta);
+        result.day31 = day31 && Math.floorDiv(result.minutes, MINUTES_PER_DAY) == Math.floorDiv(this.minutes, MINUTES_PER_DAY);
+        return result;
     }
 
     public int minutesUntil(Time other) {
-        int yearsDiff = (other.year - this.year) * 12 * 30 * 24 * 60;
-        int monthsDiff = (other.month - this.month) * 30 * 24 * 60;
-        int daysDiff = (other.day - this.day) * 24 * 60;
-        int hoursDiff = (other.hour - this.hour) * 60;
-        int minsDiff = other.min - this.min;
-        
-        return yearsDiff + monthsDiff + daysDiff + hoursDiff + minsDiff;
+        return other.minutes - this.minutes;
     }
 
     public int minutesSince(Time other) {
-        return -this.minutesUntil(other);
+        return this.minutes - other.minutes;
     }
 
     public Time copy() {
-        return new Time(this.year, this.month, this.day, this.hour, this.min);
+        return new Time(this);
     }
-    public Time addTime(Time other) {
-        int totalMinutes = this.min + other.min;
-        int newMin = totalMinutes % 60;
-        int extraHours = totalMinutes / 60;
-
-        int totalHours = this.hour + other.hour + extraHours;
-        int newHour = totalHours % 24;
-        int extraDays = totalHours / 24;
-
-        int totalDays = this.day + other.day + extraDays;
-        int newDay = totalDays;
-        int newMonth = this.month;
-        int newYear = this.year;
-
-        // Adjust for months and years (assuming 30 days per month)
-        while (newDay > 30) {
-            newDay -= 30;
-            newMonth++;
-            if (newMonth > 12) {
-                newMonth = 1;
-                newYear++;
-            }
-        }
 
-        return new Time(newYear, newMonth, newDay, newHour, newMin);
+    // Treats other as a duration written as new Time(0, 0, days, hours, minutes)
+    public Time addTime(Time other) {
+        return addMinutes(other.minutes - toEpochMinute(0, 0, 0, 0, 0));
     }
 
     public boolean isSameDate(Time other) {
-        return this.year == other.year && this.month == other.month && this.day == other.day;
+        return Math.floorDiv(this.minutes, MINUTES_PER_DAY) == Math.floorDiv(other.minutes, MINUTES_PER_DAY);
     }
 
     public boolean isSameDateTime(Time other) {
-        return this.year == other.year && this.month == other.month && this.day == other.day && this.hour == other.hour && this.min == other.min;
+        return this.minutes == other.minutes;
     }
 
     @Override
@@ -204,23 +174,24 @@ public class Time implements Comparable<Time>, Cloneable {
         }
     }
 
+    // The setters keep the other components as shown, so a day 31 does not depend on the call order
     public void setYear(int year) {
-        this.year = year;
+        set(year, getMonth(), getDay(), getHour(), getMinute());
     }
 
     public void setMonth(int month) {
-        this.month = month;
+        set(getYear(), month, getDay(), getHour(), getMinute());
     }
 
     public void setDay(int day) {
-        this.day = day;
+        set(getYear(), getMonth(), day, getHour(), getMinute());
     }
 
     public void setHour(int hour) {
-        this.hour = hour;
+        set(getYear(), getMonth(), getDay(), hour, getMinute());
     }
 
     public void setMinute(int min) {
-        this.min = min;
+        set(getYear(), getMonth(), getDay(), getHour(), min);
     }
 }
@@ -1,8 +1,12 @@
 package pucp.pdds.backend.controller;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,18 +15,28 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import pucp.pdds.backend.dto.ImportReport;
 import pucp.pdds.backend.model.Bloqueo;
 import pucp.pdds.backend.repository.BloqueoRepository;
+import pucp.pdds.backend.service.BulkImportService;
 
 @RestController
 @RequestMapping("/api/bloqueos")
 public class BloqueoController {
 
+    private static final String INSERT_BLOQUEO =
+        "INSERT INTO bloqueo (start_time, end_time, vertices_json) VALUES (?, ?, ?)";
+
     @Autowired
     private BloqueoRepository bloqueoRepository;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
     @GetMapping
     public ResponseEntity<List<Bloqueo>> getAllBloqueos() {
         List<Bloqueo> bloqueos = bloqueoRepository.findAll();
@@ -67,4 +81,60 @@ public class BloqueoController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/importar")
+    public ResponseEntity<String> importarBloqueos(@RequestParam("file") MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.matches("\\d{6}\\.bloqueos\\.txt")) {
+            return ResponseEntity.badRequest().body("Nombre de archivo inválido. Debe ser YYYYMM.bloqueos.txt");
+        }
+
+        int year = Integer.parseInt(filename.substring(0, 4));
+        int month = Integer.parseInt(filename.substring(4, 6));
+        if (year < 2020 || year > LocalDate.now().getYear() || month < 1 || month > 12) {
+            return ResponseEntity.badRequest().body("Fecha inválida en el nombre del archivo.");
+        }
+
+        try {
+            ImportReport report = bulkImportService.importar(filename, file.getInputStream(),
+                linea -> parsearLineaBloqueo(linea, year, month),
+                INSERT_BLOQUEO,
+                (ps, bloqueo) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(bloqueo.getStartTime()));
+                    ps.setTimestamp(2, Timestamp.valueOf(bloqueo.getEndTime()));
+                    ps.setString(3, bloqueo.getVerticesJson());
+                });
+            return ResponseEntity.ok(report.resumen("bloqueos"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar: " + e.getMessage());
+        }
+    }
+
+    // Ejemplo línea: 01d06h00m-01d15h00m:50,45,50,40,44,40
+    private Bloqueo parsearLineaBloqueo(String linea, int year, int month) {
+        int dosPuntos = linea.indexOf(':');
+        int guion = linea.indexOf('-');
+        if (dosPuntos < 0 || guion < 0 || guion > dosPuntos) {
+            throw new IllegalArgumentException("Formato inválido");
+        }
+        LocalDateTime inicio = BulkImportService.parseDiaHora(linea.substring(0, guion), year, month);
+        LocalDateTime fin = BulkImportService.parseDiaHora(linea.substring(guion + 1, dosPuntos), year, month);
+
+        String[] coordenadas = linea.substring(dosPuntos + 1).split(",");
+        if (coordenadas.length < 4 || coordenadas.length % 2 != 0) {
+            throw new IllegalArgumentException("Se esperaban pares de coordenadas y hay " + coordenadas.length + " valores");
+        }
+        // Mismo JSON que lee PlannerBlockage.fromEntity, armado sin pasar por un ObjectMapper
+        StringBuilder vertices = new StringBuilder(coordenadas.length * 12).append('[');
+        for (int k = 0; k < coordenadas.length; k += 2) {
+            if (k > 0) {
+                vertices.append(',');
+            }
+            vertices.append("{\"x\":").append(Integer.parseInt(coordenadas[k].strip()))
+                .append(",\"y\":").append(Integer.parseInt(coordenadas[k + 1].strip())).append('}');
+        }
+        vertices.append(']');
+
+        return new Bloqueo(inicio, fin, vertices.toString());
+    }
+}
@@ -17,6 +17,11 @@ public class CollapseController {
         collapseService.startSimulation(fechaInicioStr);
     }
 
+    @MessageMapping("/init-collapse-headless")
+    public void startHeadlessCollapseSimulation(@Payload String fechaInicioStr) {
+        collapseService.startHeadlessSimulation(fechaInicioStr);
+    }
+
     @MessageMapping("/stop-collapse")
     public void stopCollapseSimulation() {
         collapseService.stopSimulation();
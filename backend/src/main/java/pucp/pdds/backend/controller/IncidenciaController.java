@@ -1,13 +1,21 @@
 package pucp.pdds.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import pucp.pdds.backend.dto.ImportReport;
 import pucp.pdds.backend.model.Incidencia;
 import pucp.pdds.backend.model.Vehiculo;
 import pucp.pdds.backend.repository.IncidenciaRepository;
 import pucp.pdds.backend.repository.VehiculoRepository;
+import pucp.pdds.backend.service.BulkImportService;
 
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,6 +29,12 @@ public class IncidenciaController {
     
     @Autowired
     private VehiculoRepository vehiculoRepository;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    private static final String INSERT_INCIDENCIA =
+        "INSERT INTO incidencia (fecha, turno, vehiculo_id, ocurrido) VALUES (?, ?, ?, ?)";
     
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> getAllIncidencias() {
@@ -83,4 +97,47 @@ public class IncidenciaController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Imports an averias.txt file (lines like T1_TA01_TI3). The file has no dates, so every
+     * failure is registered on the given fecha, today by default.
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<String> importarIncidencias(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "fecha", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        LocalDate dia = fecha != null ? fecha : LocalDate.now();
+        Map<String, Vehiculo> vehiculosPorPlaca = new HashMap<>();
+        for (Vehiculo vehiculo : vehiculoRepository.findAll()) {
+            vehiculosPorPlaca.put(vehiculo.getPlaca(), vehiculo);
+        }
+
+        try {
+            ImportReport report = bulkImportService.importar(file.getOriginalFilename(), file.getInputStream(),
+                linea -> parsearLineaIncidencia(linea, vehiculosPorPlaca, dia),
+                INSERT_INCIDENCIA,
+                (ps, incidencia) -> {
+                    ps.setDate(1, Date.valueOf(incidencia.getFecha()));
+                    ps.setString(2, incidencia.getTurno().name());
+                    ps.setLong(3, incidencia.getVehiculo().getId());
+                    ps.setBoolean(4, incidencia.isOcurrido());
+                });
+            return ResponseEntity.ok(report.resumen("incidencias"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar: " + e.getMessage());
+        }
+    }
+
+    // Ejemplo línea: T1_TA01_TI3 (el tipo de avería no se guarda en la incidencia)
+    private Incidencia parsearLineaIncidencia(String linea, Map<String, Vehiculo> vehiculosPorPlaca, LocalDate fecha) {
+        String[] partes = linea.split("_");
+        if (partes.length != 3) {
+            throw new IllegalArgumentException("Formato inválido");
+        }
+        Incidencia.Turno turno = Incidencia.Turno.valueOf(partes[0]);
+        Vehiculo vehiculo = vehiculosPorPlaca.get(partes[1]);
+        if (vehiculo == null) {
+            throw new IllegalArgumentException("Vehículo no encontrado: " + partes[1]);
+        }
+        return new Incidencia(fecha, turno, vehiculo, false);
+    }
 }
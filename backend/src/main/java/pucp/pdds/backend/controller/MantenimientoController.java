@@ -1,8 +1,16 @@
 package pucp.pdds.backend.controller;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,23 +19,33 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import pucp.pdds.backend.dto.ImportReport;
 import pucp.pdds.backend.model.Mantenimiento;
 import pucp.pdds.backend.model.Vehiculo;
 import pucp.pdds.backend.repository.MantenimientoRepository;
 import pucp.pdds.backend.repository.VehiculoRepository;
+import pucp.pdds.backend.service.BulkImportService;
 
 @RestController
 @RequestMapping("/api/mantenimientos")
 public class MantenimientoController {
 
+    private static final String INSERT_MANTENIMIENTO =
+        "INSERT INTO mantenimiento (vehiculo_id, start_time, end_time) VALUES (?, ?, ?)";
+
     @Autowired
     private MantenimientoRepository mantenimientoRepository;
     
     @Autowired
     private VehiculoRepository vehiculoRepository;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
     @GetMapping
     public ResponseEntity<List<Mantenimiento>> getAllMantenimientos() {
         List<Mantenimiento> mantenimientos = mantenimientoRepository.findAll();
@@ -85,4 +103,54 @@ public class MantenimientoController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Imports a mantenimientosYYYYMM.txt file. Each line is one day of maintenance for a vehicle;
+     * with ciclos > 1 it is repeated every two months, as the preventive maintenance schedule does.
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<String> importarMantenimientos(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "ciclos", defaultValue = "1") int ciclos) {
+        if (ciclos < 1) {
+            return ResponseEntity.badRequest().body("ciclos debe ser al menos 1.");
+        }
+        Map<String, Vehiculo> vehiculosPorPlaca = new HashMap<>();
+        for (Vehiculo vehiculo : vehiculoRepository.findAll()) {
+            vehiculosPorPlaca.put(vehiculo.getPlaca(), vehiculo);
+        }
+
+        try {
+            ImportReport report = bulkImportService.importarVarias(file.getOriginalFilename(), file.getInputStream(),
+                linea -> parsearLineaMantenimiento(linea, vehiculosPorPlaca, ciclos),
+                INSERT_MANTENIMIENTO,
+                (ps, mantenimiento) -> {
+                    ps.setLong(1, mantenimiento.getVehiculo().getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(mantenimiento.getStartTime()));
+                    ps.setTimestamp(3, Timestamp.valueOf(mantenimiento.getEndTime()));
+                });
+            return ResponseEntity.ok(report.resumen("mantenimientos"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar: " + e.getMessage());
+        }
+    }
+
+    // Ejemplo línea: 20250101:TA02
+    private List<Mantenimiento> parsearLineaMantenimiento(String linea, Map<String, Vehiculo> vehiculosPorPlaca, int ciclos) {
+        String[] partes = linea.split(":");
+        if (partes.length != 2 || partes[0].length() != 8) {
+            throw new IllegalArgumentException("Formato inválido");
+        }
+        Vehiculo vehiculo = vehiculosPorPlaca.get(partes[1].strip());
+        if (vehiculo == null) {
+            throw new IllegalArgumentException("Vehículo no encontrado: " + partes[1].strip());
+        }
+        LocalDate dia = LocalDate.parse(partes[0], DateTimeFormatter.BASIC_ISO_DATE);
+
+        List<Mantenimiento> mantenimientos = new ArrayList<>(ciclos);
+        for (int ciclo = 0; ciclo < ciclos; ciclo++) {
+            LocalDateTime inicio = dia.plusMonths(2L * ciclo).atStartOfDay();
+            mantenimientos.add(new Mantenimiento(vehiculo, inicio, inicio.plusHours(23).plusMinutes(59)));
+        }
+        return mantenimientos;
+    }
+}
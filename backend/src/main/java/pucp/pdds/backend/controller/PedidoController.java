@@ -1,10 +1,8 @@
 package pucp.pdds.backend.controller;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-// import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,15 +21,23 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import pucp.pdds.backend.dto.ImportReport;
 import pucp.pdds.backend.model.Pedido;
 import pucp.pdds.backend.repository.PedidoRepository;
+import pucp.pdds.backend.service.BulkImportService;
 
 @RestController
 @RequestMapping("/api/pedidos")
 public class PedidoController {
     
+    private static final String INSERT_PEDIDO =
+        "INSERT INTO pedido (codigo_cliente, fecha_registro, posicionx, posiciony, cantidadglp, tiempo_tolerancia) VALUES (?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private BulkImportService bulkImportService;
     
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> getAllPedidos() {
@@ -85,72 +91,66 @@ public class PedidoController {
     }
     @PostMapping("/importar")
     public ResponseEntity<String> importarPedidos(@RequestParam("file") MultipartFile file) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            // List<Pedido> pedidos = new ArrayList<>();
-
-            String filename = file.getOriginalFilename();
-            if (filename == null || !filename.matches("ventas\\d{6}\\.txt")) {
-                return ResponseEntity.badRequest().body("Nombre de archivo inválido. Debe ser ventasYYYYMM.txt");
-            }
-
-            int year = Integer.parseInt(filename.substring(6, 10));
-            int month = Integer.parseInt(filename.substring(10, 12));
-            int count = 0;
-            if (year < 2020 || year > LocalDate.now().getYear() || month < 1 || month > 12) {
-                return ResponseEntity.badRequest().body("Fecha inválida en el nombre del archivo.");
-            }
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Pedido pedido = parsearLineaPedido(line, year, month);
-                if (pedido != null) {
-                    pedido.setId(null); // asegurar que se cree nuevo
-                    pedidoRepository.save(pedido); // aquí usamos save individualmente
-                    count++;
-                    // System.out.println("Insertando pedido: " + pedido.getCodigoCliente());
-
-                }
-            }
-
-            //pedidoRepository.saveAll(pedidos);
-            return ResponseEntity.ok(count + "Pedidos importados correctamente.");
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.matches("ventas\\d{6}\\.txt")) {
+            return ResponseEntity.badRequest().body("Nombre de archivo inválido. Debe ser ventasYYYYMM.txt");
+        }
+
+        int year = Integer.parseInt(filename.substring(6, 10));
+        int month = Integer.parseInt(filename.substring(10, 12));
+        if (year < 2020 || year > LocalDate.now().getYear() || month < 1 || month > 12) {
+            return ResponseEntity.badRequest().body("Fecha inválida en el nombre del archivo.");
+        }
+
+        try {
+            ImportReport report = bulkImportService.importar(filename, file.getInputStream(),
+                linea -> parsearLineaPedido(linea, year, month),
+                INSERT_PEDIDO,
+                (ps, pedido) -> {
+                    ps.setString(1, pedido.getCodigoCliente());
+                    ps.setTimestamp(2, Timestamp.valueOf(pedido.getFechaRegistro()));
+                    ps.setInt(3, pedido.getPosicionX());
+                    ps.setInt(4, pedido.getPosicionY());
+                    ps.setInt(5, pedido.getCantidadGLP());
+                    ps.setInt(6, pedido.getTiempoTolerancia());
+                });
+            return ResponseEntity.ok(report.resumen("pedidos"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar: " + e.getMessage());
         }
     }
 
+    // Lanza una excepción si la línea no tiene el formato esperado, el importador la cuenta como rechazada
     private Pedido parsearLineaPedido(String linea, int year, int month) {
-        try {
-            // Ejemplo línea: 01d00h24m:16,13,c-198,3m3,4h
-            String[] partes = linea.split(":");
-            if (partes.length != 2) throw new RuntimeException("Formato inválido: " + linea);
-
-            String tiempo = partes[0];  // "01d00h24m"
-            String[] datos = partes[1].split(",");
-
-            int day = Integer.parseInt(tiempo.substring(0, 2));
-            int hour = Integer.parseInt(tiempo.substring(3, 5));
-            int minute = Integer.parseInt(tiempo.substring(6, 8));
-
-            int posicionX = Integer.parseInt(datos[0]);
-            int posicionY = Integer.parseInt(datos[1]);
-            String codigoCliente = datos[2]; // c-198
-            int cantidadGLP = Integer.parseInt(datos[3].replace("m3", ""));
-            int tiempoTolerancia = Integer.parseInt(datos[4].replace("h", ""));
-
-            LocalDateTime fechaRegistro = LocalDateTime.of(year, month, day, hour, minute);
-
-            Pedido pedido = new Pedido();
-            pedido.setCodigoCliente(codigoCliente);
-            pedido.setFechaRegistro(fechaRegistro);
-            pedido.setPosicionX(posicionX);
-            pedido.setPosicionY(posicionY);
-            pedido.setCantidadGLP(cantidadGLP);
-            pedido.setTiempoTolerancia(tiempoTolerancia);
-
-            return pedido;
-        } catch (Exception e) {
-            return null;
-        }
+        // Ejemplo línea: 01d00h24m:16,13,c-198,3m3,4h
+        String[] partes = linea.split(":");
+        if (partes.length != 2) throw new IllegalArgumentException("Formato inválido");
+
+        String tiempo = partes[0];  // "01d00h24m"
+        String[] datos = partes[1].split(",");
+        if (datos.length != 5) throw new IllegalArgumentException("Se esperaban 5 campos y hay " + datos.length);
+
+        int day = Integer.parseInt(tiempo.substring(0, 2));
+        int hour = Integer.parseInt(tiempo.substring(3, 5));
+        int minute = Integer.parseInt(tiempo.substring(6, 8));
+
+        int posicionX = Integer.parseInt(datos[0]);
+        int posicionY = Integer.parseInt(datos[1]);
+        String codigoCliente = datos[2]; // c-198
+        int cantidadGLP = Integer.parseInt(datos[3].replace("m3", ""));
+        int tiempoTolerancia = Integer.parseInt(datos[4].replace("h", ""));
+
+        LocalDateTime fechaRegistro = LocalDateTime.of(year, month, day, hour, minute);
+
+        Pedido pedido = new Pedido();
+        pedido.setCodigoCliente(codigoCliente);
+        pedido.setFechaRegistro(fechaRegistro);
+        pedido.setPosicionX(posicionX);
+        pedido.setPosicionY(posicionY);
+        pedido.setCantidadGLP(cantidadGLP);
+        pedido.setTiempoTolerancia(tiempoTolerancia);
+
+        return pedido;
     }
 
 
@@ -5,10 +5,15 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import pucp.pdds.backend.dto.UpdateFailuresMessage;
 import pucp.pdds.backend.service.SimulationService;
@@ -26,6 +31,27 @@ public class SimulationController {
         simulationService.isSimulationActive();
     }
 
+    @MessageMapping("/init-headless")
+    public void startHeadlessSimulation(@Payload String fechaInicioStr) {
+        System.out.println("Received start headless simulation request with date: " + fechaInicioStr);
+
+        simulationService.startHeadlessSimulation(fechaInicioStr);
+        simulationService.isSimulationActive();
+    }
+
+    // Semana completa sin pausas, responde con el resumen al terminar (409 si ya hay una corriendo)
+    @PostMapping("/api/simulation/headless")
+    @ResponseBody
+    public ResponseEntity<?> runHeadlessSimulation(@RequestBody String fechaInicioStr) {
+        try {
+            return ResponseEntity.ok(simulationService.runHeadlessSimulation(fechaInicioStr));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error running headless simulation: " + e.getMessage());
+        }
+    }
+
     @MessageMapping("/update-failures")
     public void updateFailures(UpdateFailuresMessage message) {
         System.out.println("failure request message: " + message);
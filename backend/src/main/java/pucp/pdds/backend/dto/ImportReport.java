@@ -0,0 +1,77 @@
+package pucp.pdds.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk import: rows written, rejected lines and throughput.
+ * Only the first MAX_ERRORS rejected lines keep their message.
+ */
+public class ImportReport {
+    public static final int MAX_ERRORS = 20;
+
+    private final String archivo;
+    private int filasImportadas = 0;
+    private int lineasRechazadas = 0;
+    private final List<String> errores = new ArrayList<>();
+    private long milisegundos = 0;
+
+    public ImportReport(String archivo) {
+        this.archivo = archivo;
+    }
+
+    public void addImportadas(int filas) {
+        filasImportadas += filas;
+    }
+
+    public void addRechazada(int numeroLinea, String linea, String motivo) {
+        lineasRechazadas++;
+        if (errores.size() < MAX_ERRORS) {
+            errores.add("Línea " + numeroLinea + " (" + linea + "): " + motivo);
+        }
+    }
+
+    public void setMilisegundos(long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+
+    public String getArchivo() {
+        return archivo;
+    }
+
+    public int getFilasImportadas() {
+        return filasImportadas;
+    }
+
+    public int getLineasRechazadas() {
+        return lineasRechazadas;
+    }
+
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public double getFilasPorSegundo() {
+        return milisegundos > 0 ? filasImportadas * 1000.0 / milisegundos : filasImportadas;
+    }
+
+    public String resumen(String entidad) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(filasImportadas).append(" ").append(entidad).append(" importados correctamente");
+        sb.append(String.format(" en %d ms (%.0f filas/s).", milisegundos, getFilasPorSegundo()));
+        if (lineasRechazadas > 0) {
+            sb.append(" ").append(lineasRechazadas).append(" líneas rechazadas:");
+            for (String error : errores) {
+                sb.append("\n").append(error);
+            }
+            if (lineasRechazadas > errores.size()) {
+                sb.append("\n...");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package pucp.pdds.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import pucp.pdds.backend.dto.ImportReport;
+
+/**
+ * Streaming import of the scripts/data text formats (ventas, bloqueos, mantenimientos, averías).
+ *
+ * The file is read line by line and never held in memory. Each parsed row goes into a buffer
+ * that is written with one JDBC batch every batchSize rows and then reused, instead of one
+ * repository.save() per row (IDENTITY ids keep Hibernate from batching). Lines the parser
+ * rejects are counted in the report, they do not abort the import. The whole file is one
+ * transaction: if the database fails, nothing is imported.
+ */
+@Service
+public class BulkImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${importacion.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Turns one line into a row. Returns null for lines to skip silently (headers, comments)
+     * and throws to reject the line.
+     */
+    @FunctionalInterface
+    public interface LineParser<T> {
+        T parse(String line) throws Exception;
+    }
+
+    @Transactional
+    public <T> ImportReport importar(String archivo, InputStream input, LineParser<T> parser,
+            String insertSql, ParameterizedPreparedStatementSetter<T> setter) throws IOException {
+        return importarVarias(archivo, input, line -> {
+            T row = parser.parse(line);
+            return row != null ? List.of(row) : null;
+        }, insertSql, setter);
+    }
+
+    /**
+     * Same as importar for formats where one line expands to several rows
+     * (a maintenance repeated every cycle, for instance).
+     */
+    @Transactional
+    public <T> ImportReport importarVarias(String archivo, InputStream input, LineParser<List<T>> parser,
+            String insertSql, ParameterizedPreparedStatementSetter<T> setter) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ImportReport report = new ImportReport(archivo);
+        List<T> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_CHARS)) {
+            String line;
+            int numeroLinea = 0;
+            while ((line = reader.readLine()) != null) {
+                numeroLinea++;
+                line = line.strip();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<T> rows;
+                try {
+                    rows = parser.parse(line);
+                } catch (Exception e) {
+                    report.addRechazada(numeroLinea, line, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                    continue;
+                }
+                if (rows == null) {
+                    continue;
+                }
+                batch.addAll(rows);
+                if (batch.size() >= batchSize) {
+                    flush(batch, insertSql, setter, report);
+                }
+            }
+        }
+        flush(batch, insertSql, setter, report);
+
+        report.setMilisegundos(System.currentTimeMillis() - inicio);
+        logger.info("Importación {}: {} filas, {} rechazadas, {} ms ({} filas/s)", archivo, report.getFilasImportadas(),
+            report.getLineasRechazadas(), report.getMilisegundos(), String.format("%.0f", report.getFilasPorSegundo()));
+        return report;
+    }
+
+    /**
+     * Parses the "01d06h30m" timestamps of the data files within the given month.
+     */
+    public static LocalDateTime parseDiaHora(String texto, int year, int month) {
+        int d = texto.indexOf('d');
+        int h = texto.indexOf('h', d + 1);
+        int m = texto.indexOf('m', h + 1);
+        if (d <= 0 || h < 0 || m < 0) {
+            throw new IllegalArgumentException("Tiempo inválido: " + texto);
+        }
+        int day = Integer.parseInt(texto.substring(0, d));
+        int hour = Integer.parseInt(texto.substring(d + 1, h));
+        int minute = Integer.parseInt(texto.substring(h + 1, m));
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private <T> void flush(List<T> batch, String insertSql, ParameterizedPreparedStatementSetter<T> setter, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(insertSql, batch, batch.size(), setter);
+        report.addImportadas(batch.size());
+        batch.clear();
+    }
+}
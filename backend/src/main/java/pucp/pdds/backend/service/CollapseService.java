@@ -39,6 +39,15 @@ public class CollapseService {
     }
 
     public void startSimulation(String fechaInicioStr) {
+        startSimulation(fechaInicioStr, false);
+    }
+
+    // Sin pausas entre minutos, hasta el colapso; solo envía snapshots periódicos
+    public void startHeadlessSimulation(String fechaInicioStr) {
+        startSimulation(fechaInicioStr, true);
+    }
+
+    private void startSimulation(String fechaInicioStr, boolean headless) {
         synchronized (simulationLock) {
             stopCurrentSimulation();
 
@@ -98,6 +107,7 @@ public class CollapseService {
 
                 currentSimulation = new CollapseScheduler(messagingTemplate);
                 currentSimulation.setState(schedulerState);
+                currentSimulation.setHeadless(headless);
                 simulationThread = new Thread(currentSimulation, "collapse-simulation-thread");
                 simulationThread.start();
 
@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ import pucp.pdds.backend.algos.entities.PlannerVehicle.VehicleState;
 import pucp.pdds.backend.algos.scheduler.DataProvider;
 import pucp.pdds.backend.dto.InitMessage;
 import pucp.pdds.backend.dto.SimulationResponse;
+import pucp.pdds.backend.dto.SimulationSummaryDTO;
 import pucp.pdds.backend.dto.UpdateFailuresMessage;
 
 @Service
@@ -35,6 +37,8 @@ public class SimulationService {
     private Thread simulationThread;
     private final Object simulationLock = new Object();
     private boolean isSimulationActive = false;
+    // Una semana headless ocupa todos los núcleos: no se corren dos a la vez
+    private final AtomicBoolean headlessRunning = new AtomicBoolean(false);
 
     public void isSimulationActive() {
         sendResponse("SIMULATION_STATE", isSimulationActive);
@@ -50,6 +54,19 @@ public class SimulationService {
 
 
     public void startSimulation(String fechaInicioStr) {
+        startSimulation(fechaInicioStr, false);
+    }
+
+    /**
+     * Same simulation without pacing: the planner runs with SimulationProperties.headlessMaxTimeMs,
+     * only one snapshot every headlessSnapshotInterval minutes is sent and the run ends after
+     * 7 simulated days with a SIMULATION_SUMMARY.
+     */
+    public void startHeadlessSimulation(String fechaInicioStr) {
+        startSimulation(fechaInicioStr, true);
+    }
+
+    private void startSimulation(String fechaInicioStr, boolean headless) {
         synchronized (simulationLock) {
             stopCurrentSimulation();
 
@@ -57,67 +74,12 @@ public class SimulationService {
                 logger.info("Starting simulation - loading fresh data from database...");
                 sendResponse("SIMULATION_LOADING", "Loading data from database...");
 
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(fechaInicioStr);
-                JsonNode timeNode = root.path("initialTime");
-
-                int year = timeNode.path("year").asInt();
-                int month = timeNode.path("month").asInt();
-                int day = timeNode.path("day").asInt();
-                int hour = timeNode.path("hour").asInt();
-                int minute = timeNode.path("minute").asInt();
-
-                LocalDateTime fechaInicio = LocalDateTime.of(year, month, day, hour, minute);
-                Time startTime = new Time(year, month, day, hour, minute);
-
-                // Initialize scheduler state with fresh data from database
-                var vehicles = dataProvider.getVehicles();
-                var orders = dataProvider.getOrdersForWeek(startTime);
-                var blockages = dataProvider.getBlockages();
-                var warehouses = dataProvider.getWarehouses();
-                var failures = dataProvider.getFailures();
-                var maintenances = dataProvider.getMaintenances();
-                
-                logger.info("Loaded {} vehicles, {} orders, {} blockages, {} warehouses, {} failures, {} maintenances", 
-                    vehicles.size(), orders.size(), blockages.size(), warehouses.size(), failures.size(), maintenances.size());
-
-                Position mainWarehousePosition = warehouses.stream().filter(w -> w.isMain).findFirst().orElseThrow().position;
-                
-                vehicles.forEach(v -> {
-                    v.currentFuel = v.maxFuel;
-                    v.currentGLP = v.maxGLP;
-                    v.initialPosition = mainWarehousePosition;
-                    v.position = mainWarehousePosition;
-                    v.currentPath = null;
-                    v.nextNodeIndex = 0;
-                    v.currentFailure = null;
-                    v.minutesUntilFailure = 0;
-                    v.reincorporationTime = null;
-                    v.state = VehicleState.IDLE;
-                    v.waitTransition = 0;
-                });
-
-                warehouses.forEach(w -> {
-                    w.currentGLP = w.maxGLP;
-                });
-
-                SchedulerState schedulerState = new SchedulerState(
-                    vehicles.stream().map(v -> v.clone()).toList(),
-                    orders.stream().map(o -> o.clone()).toList(),
-                    blockages.stream().map(b -> b.clone()).toList(),
-                    warehouses.stream().map(w -> w.clone()).toList(),
-                    failures.stream().map(f->f.clone()).toList(),
-                    maintenances.stream().map(m -> m.clone()).toList(),
-                    new Time(fechaInicio.getYear(), fechaInicio.getMonthValue(), 
-                    fechaInicio.getDayOfMonth(), fechaInicio.getHour(), fechaInicio.getMinute()),
-                    SimulationProperties.replanningInterval,
-                    new Time(fechaInicio.getYear(), fechaInicio.getMonthValue(),
-                    fechaInicio.getDayOfMonth(), fechaInicio.getHour(), fechaInicio.getMinute())
-                );
+                SchedulerState schedulerState = buildSchedulerState(fechaInicioStr);
 
                 currentSimulation = new WeeklyScheduler(messagingTemplate);
-                simulationThread = new Thread(currentSimulation, "simulation-thread");
+                simulationThread = new Thread(currentSimulation, headless ? "headless-simulation-thread" : "simulation-thread");
                 currentSimulation.setState(schedulerState);
+                currentSimulation.setHeadless(headless);
                 simulationThread.start();
 
                 isSimulationActive = true;
@@ -131,6 +93,101 @@ public class SimulationService {
             }
         }
     }
+
+    /**
+     * Runs a headless week in the calling thread and returns its summary. Nothing is sent over the
+     * WebSocket and the interactive simulation is not replaced, so it can be used for batch
+     * evaluations while the UI is in use.
+     *
+     * Throws IllegalStateException if another headless run is in progress, and an exception with the
+     * cause if the run fails before the end of the week (no partial summary is returned).
+     */
+    public SimulationSummaryDTO runHeadlessSimulation(String fechaInicioStr) throws Exception {
+        if (!headlessRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A headless simulation is already running");
+        }
+        try {
+            logger.info("Running headless simulation - loading fresh data from database...");
+            SchedulerState schedulerState = buildSchedulerState(fechaInicioStr);
+
+            WeeklyScheduler scheduler = new WeeklyScheduler(null);
+            scheduler.setState(schedulerState);
+            scheduler.setHeadless(true);
+            scheduler.run();
+
+            if (scheduler.getFailure() != null) {
+                logger.error("Headless simulation failed", scheduler.getFailure());
+                throw new Exception("Headless simulation failed: " + scheduler.getFailure().getMessage(), scheduler.getFailure());
+            }
+            if (scheduler.getSummary() == null) {
+                throw new Exception("Headless simulation stopped before the end of the week");
+            }
+            logger.info("Headless simulation finished");
+            return scheduler.getSummary();
+        } finally {
+            headlessRunning.set(false);
+        }
+    }
+
+    private SchedulerState buildSchedulerState(String fechaInicioStr) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(fechaInicioStr);
+        JsonNode timeNode = root.path("initialTime");
+
+        int year = timeNode.path("year").asInt();
+        int month = timeNode.path("month").asInt();
+        int day = timeNode.path("day").asInt();
+        int hour = timeNode.path("hour").asInt();
+        int minute = timeNode.path("minute").asInt();
+
+        LocalDateTime fechaInicio = LocalDateTime.of(year, month, day, hour, minute);
+        Time startTime = new Time(year, month, day, hour, minute);
+
+        // Initialize scheduler state with fresh data from database
+        var vehicles = dataProvider.getVehicles();
+        var orders = dataProvider.getOrdersForWeek(startTime);
+        var blockages = dataProvider.getBlockages();
+        var warehouses = dataProvider.getWarehouses();
+        var failures = dataProvider.getFailures();
+        var maintenances = dataProvider.getMaintenances();
+        
+        logger.info("Loaded {} vehicles, {} orders, {} blockages, {} warehouses, {} failures, {} maintenances", 
+            vehicles.size(), orders.size(), blockages.size(), warehouses.size(), failures.size(), maintenances.size());
+
+        Position mainWarehousePosition = warehouses.stream().filter(w -> w.isMain).findFirst().orElseThrow().position;
+        
+        vehicles.forEach(v -> {
+            v.currentFuel = v.maxFuel;
+            v.currentGLP = v.maxGLP;
+            v.initialPosition = mainWarehousePosition;
+            v.position = mainWarehousePosition;
+            v.currentPath = null;
+            v.nextNodeIndex = 0;
+            v.currentFailure = null;
+            v.minutesUntilFailure = 0;
+            v.reincorporationTime = null;
+            v.state = VehicleState.IDLE;
+            v.waitTransition = 0;
+        });
+
+        warehouses.forEach(w -> {
+            w.currentGLP = w.maxGLP;
+        });
+
+        return new SchedulerState(
+            vehicles.stream().map(v -> v.clone()).toList(),
+            orders.stream().map(o -> o.clone()).toList(),
+            blockages.stream().map(b -> b.clone()).toList(),
+            warehouses.stream().map(w -> w.clone()).toList(),
+            failures.stream().map(f->f.clone()).toList(),
+            maintenances.stream().map(m -> m.clone()).toList(),
+            new Time(fechaInicio.getYear(), fechaInicio.getMonthValue(), 
+            fechaInicio.getDayOfMonth(), fechaInicio.getHour(), fechaInicio.getMinute()),
+            SimulationProperties.replanningInterval,
+            new Time(fechaInicio.getYear(), fechaInicio.getMonthValue(),
+            fechaInicio.getDayOfMonth(), fechaInicio.getHour(), fechaInicio.getMinute())
+        );
+    }
     
     public void updateFailures(UpdateFailuresMessage message) {
         synchronized (simulationLock) {
@@ -0,0 +1,157 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.entities.PlannerMaintenance;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.utils.Position;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * The time queries of EntityIndex must return the same elements, in the same order, as the
+ * stream filters SchedulerState used before the index.
+ */
+class EntityIndexTest {
+	private static final int START = new Time(2025, 1, 1, 0, 0).toEpochMinute();
+	private static final int SPAN = 3 * Time.MINUTES_PER_DAY;
+
+	@Test
+	void blockagesMatchTheStreamFilters() {
+		Random random = new Random(2);
+		List<PlannerBlockage> blockages = new ArrayList<>();
+		for (int k = 0; k < 150; k++) {
+			int start = START + random.nextInt(SPAN);
+			int end = start + random.nextInt(600);
+			blockages.add(new PlannerBlockage(k, Time.ofEpochMinute(start), Time.ofEpochMinute(end),
+				List.of(Position.of(0, 0), Position.of(1, 0))));
+		}
+		EntityIndex index = new EntityIndex();
+		index.indexBlockages(blockages.subList(0, 100), true);
+		index.getBlockages(START, START); // Los siguientes se agregan después de un flush
+		index.indexBlockages(blockages.subList(100, 150), false);
+
+		for (int minute = START - 10; minute < START + SPAN + 700; minute += 7) {
+			Time time = Time.ofEpochMinute(minute);
+			assertEquals(blockages.stream().filter(b -> b.isActive(time)).collect(Collectors.toList()),
+				index.getBlockages(minute, minute), time.toString());
+
+			Time end = time.addMinutes(random.nextInt(300));
+			List<PlannerBlockage> expected = blockages.stream()
+				.filter(b -> (time.isBefore(b.endTime) || time.equals(b.endTime)) &&
+					(end.isAfter(b.startTime) || end.equals(b.startTime)))
+				.collect(Collectors.toList());
+			assertEquals(expected, index.getBlockages(minute, end.toEpochMinute()), time + " - " + end);
+		}
+	}
+
+	@Test
+	void blockageBoundsAreInclusive() {
+		PlannerBlockage blockage = new PlannerBlockage(1, Time.ofEpochMinute(START + 10), Time.ofEpochMinute(START + 20),
+			List.of(Position.of(0, 0), Position.of(1, 0)));
+		EntityIndex index = new EntityIndex();
+		index.indexBlockages(List.of(blockage), true);
+
+		assertEquals(List.of(), index.getBlockages(START + 9, START + 9));
+		assertEquals(List.of(blockage), index.getBlockages(START + 10, START + 10));
+		assertEquals(List.of(blockage), index.getBlockages(START + 20, START + 20));
+		assertEquals(List.of(), index.getBlockages(START + 21, START + 21));
+	}
+
+	@Test
+	void maintenancesEndTheMinuteBeforeEndDate() {
+		PlannerMaintenance maintenance = new PlannerMaintenance(1, "TA01", Time.ofEpochMinute(START + 10), Time.ofEpochMinute(START + 20));
+		EntityIndex index = new EntityIndex();
+		index.indexMaintenances(List.of(maintenance));
+
+		assertEquals(List.of(), index.getActiveMaintenances(Time.ofEpochMinute(START + 9)));
+		assertEquals(List.of(maintenance), index.getActiveMaintenances(Time.ofEpochMinute(START + 10)));
+		assertEquals(List.of(maintenance), index.getActiveMaintenances(Time.ofEpochMinute(START + 19)));
+		assertEquals(List.of(), index.getActiveMaintenances(Time.ofEpochMinute(START + 20)));
+	}
+
+	@Test
+	void maintenancesMatchTheStreamFilter() {
+		Random random = new Random(3);
+		List<PlannerMaintenance> maintenances = new ArrayList<>();
+		for (int k = 0; k < 100; k++) {
+			int start = START + random.nextInt(SPAN);
+			maintenances.add(new PlannerMaintenance(k, "TA0" + (k % 4), Time.ofEpochMinute(start),
+				Time.ofEpochMinute(start + random.nextInt(Time.MINUTES_PER_DAY))));
+		}
+		EntityIndex index = new EntityIndex();
+		index.indexMaintenances(maintenances);
+
+		for (int minute = START - 10; minute < START + SPAN + Time.MINUTES_PER_DAY; minute += 5) {
+			Time time = Time.ofEpochMinute(minute);
+			assertEquals(maintenances.stream().filter(m -> m.isActive(time)).collect(Collectors.toList()),
+				index.getActiveMaintenances(time), time.toString());
+		}
+	}
+
+	@Test
+	void ordersMatchTheStreamFilters() {
+		Random random = new Random(4);
+		List<PlannerOrder> orders = new ArrayList<>();
+		EntityIndex index = new EntityIndex();
+		int nextId = 0;
+		Time initTime = Time.ofEpochMinute(START + 60);
+
+		for (int minute = START; minute < START + SPAN; minute++) {
+			Time time = Time.ofEpochMinute(minute);
+
+			// Pedidos nuevos, a veces con la misma llegada que uno anterior o ya llegados
+			if (random.nextInt(20) == 0) {
+				List<PlannerOrder> newOrders = new ArrayList<>();
+				for (int k = random.nextInt(3); k >= 0; k--) {
+					int arrival = minute + random.nextInt(240) - 60;
+					newOrders.add(new PlannerOrder(nextId++, Time.ofEpochMinute(arrival), Position.of(1, 1), 5, "c",
+						Time.ofEpochMinute(arrival + 240 + random.nextInt(600))));
+				}
+				orders.addAll(newOrders);
+				index.indexOrders(newOrders, false);
+			}
+
+			// Entregas y plazos que cambian
+			if (!orders.isEmpty() && random.nextInt(10) == 0) {
+				PlannerOrder order = orders.get(random.nextInt(orders.size()));
+				if (order.deliverTime == null) {
+					order.deliverTime = time;
+					index.orderDelivered(order);
+				}
+			}
+			if (!orders.isEmpty() && random.nextInt(10) == 0) {
+				PlannerOrder order = orders.get(random.nextInt(orders.size()));
+				order.deadline = order.deadline.addMinutes(random.nextInt(120) - 60);
+			}
+
+			assertEquals(orders.stream().filter(o -> o.isActive(time)).collect(Collectors.toList()),
+				index.getActiveOrders(time), time.toString());
+			assertEquals(orders.stream()
+					.filter(o -> o.arrivalTime.isBeforeOrAt(time) && o.arrivalTime.isAfterOrAt(initTime))
+					.collect(Collectors.toList()),
+				index.getOrdersArrivedBetween(initTime.toEpochMinute(), minute), time.toString());
+		}
+	}
+
+	@Test
+	void orderArrivingNowIsNotActiveYet() {
+		Time arrival = Time.ofEpochMinute(START + 30);
+		PlannerOrder order = new PlannerOrder(1, arrival, Position.of(1, 1), 5, "c", arrival.addMinutes(240));
+		EntityIndex index = new EntityIndex();
+		index.indexOrders(List.of(order), true);
+
+		assertEquals(List.of(), index.getActiveOrders(arrival));
+		assertEquals(List.of(order), index.getActiveOrders(arrival.addMinutes(1)));
+		assertEquals(List.of(order), index.getActiveOrders(arrival.addMinutes(239)));
+		assertEquals(List.of(), index.getActiveOrders(arrival.addMinutes(240)));
+		assertEquals(List.of(order), index.getOrdersArrivedBetween(arrival.toEpochMinute(), arrival.toEpochMinute()));
+	}
+}
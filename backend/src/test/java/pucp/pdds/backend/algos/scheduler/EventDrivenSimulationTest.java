@@ -0,0 +1,285 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.algorithm.Algorithm;
+import pucp.pdds.backend.algos.algorithm.Environment;
+import pucp.pdds.backend.algos.algorithm.Solution;
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+import pucp.pdds.backend.algos.entities.PlannerFailure;
+import pucp.pdds.backend.algos.entities.PlannerMaintenance;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.entities.PlannerVehicle;
+import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+import pucp.pdds.backend.algos.utils.Position;
+import pucp.pdds.backend.algos.utils.SimulationProperties;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * SchedulerState.advance with eventDrivenSimulation must leave the state exactly as the
+ * per-minute loop does, and so must the clock jumps of the headless loop. Both runs get the
+ * same plans, on a fixture with maintenances, failures on every shift and blockages.
+ */
+class EventDrivenSimulationTest {
+	private static final long SEED = 42L;
+	private static final int INTERVALS = 18; // 36 horas con replanningInterval = 120
+	private static final int ALGORITHM_MS = 150;
+
+	private boolean eventDriven;
+	private Long algorithmSeed;
+
+	@BeforeEach
+	void saveProperties() {
+		eventDriven = SimulationProperties.eventDrivenSimulation;
+		algorithmSeed = SimulationProperties.algorithmSeed;
+		SimulationProperties.algorithmSeed = SEED;
+	}
+
+	@AfterEach
+	void restoreProperties() {
+		SimulationProperties.eventDrivenSimulation = eventDriven;
+		SimulationProperties.algorithmSeed = algorithmSeed;
+	}
+
+	@Test
+	void sameStateEveryMinute() {
+		runLockstep(true);
+	}
+
+	// Sin leer los vehículos entre minutos, la flota se queda en los arreglos todo el intervalo
+	@Test
+	void sameStateAtTheEndOfEachInterval() {
+		runLockstep(false);
+	}
+
+	// Los saltos del modo headless (avance y política de plazos) caen en los mismos estados que el bucle por minuto
+	@Test
+	void clockJumpsLandOnTheSameState() {
+		SchedulerState perMinute = fixture();
+		SchedulerState jumping = perMinute.clone();
+		int jumps = 0;
+
+		for (int interval = 0; interval < INTERVALS; interval++) {
+			Solution sol = plan(perMinute);
+			perMinute.initializeVehicles();
+			jumping.initializeVehicles();
+
+			for (int minute = 0; minute < perMinute.minutesToSimulate; ) {
+				SimulationProperties.eventDrivenSimulation = true;
+				int minutes = WeeklyScheduler.minutesToNextEvent(jumping, sol, perMinute.minutesToSimulate - minute);
+				if (minutes > 1) {
+					jumping.advanceQuiet(minutes);
+					jumps++;
+				} else {
+					jumping.advance(sol, false);
+				}
+				WeeklyScheduler.applyDeadlinePolicy(jumping, sol, false);
+
+				SimulationProperties.eventDrivenSimulation = false;
+				for (int k = 0; k < minutes; k++) {
+					perMinute.advance(sol, false);
+					WeeklyScheduler.applyDeadlinePolicy(perMinute, sol, false);
+				}
+				minute += minutes;
+
+				// Leer los vehículos saca la flota de los arreglos y el minuto siguiente ya no salta: solo se compara tras un salto
+				if (minutes > 1) {
+					assertEquals(signature(perMinute), signature(jumping), "minute " + perMinute.getCurrTime());
+				}
+			}
+			assertEquals(signature(perMinute), signature(jumping), "end of interval " + perMinute.getCurrTime());
+		}
+
+		assertTrue(jumps > 0, "the clock never jumped");
+	}
+
+	// Entre dos revisiones la política de plazos no mueve ningún plazo, así que el salto no se pierde nada
+	@Test
+	void deadlinePolicyOnlyActsAtItsNextCheck() {
+		SchedulerState state = fixture();
+		int start = state.getCurrTime().toEpochMinute();
+		int end = start + INTERVALS * SimulationProperties.replanningInterval + Time.MINUTES_PER_DAY;
+		int extensions = 0;
+
+		for (int minute = start + 1; minute <= end; ) {
+			int check = WeeklyScheduler.nextDeadlineCheckMinute(state, minute);
+			for (; minute < Math.min(check, end + 1); minute++) {
+				String before = deadlines(state);
+				state.setCurrTime(Time.ofEpochMinute(minute));
+				WeeklyScheduler.applyDeadlinePolicy(state, null, false); // sol solo se usa en los logs
+				assertEquals(before, deadlines(state), "policy acted at " + Time.ofEpochMinute(minute) + ", next check was " + Time.ofEpochMinute(check));
+			}
+			if (minute > end) {
+				break;
+			}
+			String before = deadlines(state);
+			state.setCurrTime(Time.ofEpochMinute(minute));
+			WeeklyScheduler.applyDeadlinePolicy(state, null, false);
+			if (!before.equals(deadlines(state))) {
+				extensions++;
+			}
+			minute++;
+		}
+
+		assertTrue(extensions > 0, "the policy never extended a deadline");
+	}
+
+	private static String deadlines(SchedulerState state) {
+		StringBuilder sb = new StringBuilder();
+		for (PlannerOrder order : state.getOrders()) {
+			sb.append(order.id).append(':').append(order.deadline).append(':').append(order.timesForgiven).append(' ');
+		}
+		return sb.toString();
+	}
+
+	private void runLockstep(boolean compareEveryMinute) {
+		SchedulerState perMinute = fixture();
+		SchedulerState eventDriven = perMinute.clone();
+		int failuresOccurred = 0;
+		int maintenancesStarted = 0;
+
+		for (int interval = 0; interval < INTERVALS; interval++) {
+			Solution sol = plan(perMinute);
+			perMinute.initializeVehicles();
+			eventDriven.initializeVehicles();
+
+			for (int minute = 0; minute < perMinute.minutesToSimulate; minute++) {
+				SimulationProperties.eventDrivenSimulation = false;
+				perMinute.advance(sol, false);
+				SimulationProperties.eventDrivenSimulation = true;
+				eventDriven.advance(sol, false);
+
+				if (compareEveryMinute) {
+					assertEquals(signature(perMinute), signature(eventDriven), "minute " + perMinute.getCurrTime());
+				}
+			}
+			assertEquals(signature(perMinute), signature(eventDriven), "end of interval " + perMinute.getCurrTime());
+
+			for (PlannerVehicle vehicle : perMinute.getVehicles()) {
+				if (vehicle.state == PlannerVehicle.VehicleState.MAINTENANCE) {
+					maintenancesStarted++;
+				}
+			}
+		}
+		for (PlannerFailure failure : perMinute.getFailures()) {
+			if (failure.timeOccuredOn != null) {
+				failuresOccurred++;
+			}
+		}
+
+		// El escenario debe ejercitar las averías y los mantenimientos, si no la comparación no prueba nada
+		assertTrue(failuresOccurred > 0, "no failure occurred");
+		assertTrue(maintenancesStarted > 0, "no maintenance started");
+	}
+
+	private static Solution plan(SchedulerState state) {
+		SchedulerState seed = state.clone();
+		Environment environment = new Environment(seed.getActiveVehicles(), seed.getActiveOrders(), seed.getWarehouses(),
+			seed.getActiveBlockagesOverTimeFrame(seed.getCurrTime(), seed.getCurrTime().addMinutes(seed.minutesToSimulate)),
+			seed.getFailures(), seed.getActiveMaintenances(), seed.getCurrTime(), seed.minutesToSimulate);
+		Algorithm algorithm = new Algorithm(false, ALGORITHM_MS);
+		algorithm.setWorkers(1);
+		return algorithm.run(environment, seed.minutesToSimulate);
+	}
+
+	private static String signature(SchedulerState state) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(state.getCurrTime()).append('\n');
+		for (PlannerVehicle v : state.getVehicles()) {
+			sb.append(v.plaque).append(' ').append(v.position).append(' ').append(v.state)
+				.append(" glp=").append(v.currentGLP).append(" fuel=").append(v.currentFuel)
+				.append(" wait=").append(v.waitTransition).append(" failureIn=").append(v.minutesUntilFailure)
+				.append(" node=").append(v.nextNodeIndex)
+				.append(" failure=").append(v.currentFailure == null ? -1 : v.currentFailure.id)
+				.append(" back=").append(v.reincorporationTime)
+				.append(" maintenance=").append(v.currentMaintenance == null ? -1 : v.currentMaintenance.id)
+				.append(" path=").append(v.currentPath == null ? -1 : v.currentPath.size()).append('\n');
+		}
+		for (PlannerOrder order : state.getOrders()) {
+			sb.append(order.id).append(':').append(order.amountGLP).append(':').append(order.deliverTime)
+				.append(':').append(order.deadline).append(':').append(order.timesForgiven)
+				.append(':').append(order.isEmergency).append(':').append(order.priorityLevel)
+				.append(':').append(order.urgencyScore).append(' ');
+		}
+		sb.append('\n');
+		for (PlannerWarehouse warehouse : state.getWarehouses()) {
+			sb.append(warehouse.currentGLP).append(' ');
+		}
+		sb.append('\n');
+		for (PlannerFailure failure : state.getFailures()) {
+			sb.append(failure.id).append(':').append(failure.timeOccuredOn).append(' ');
+		}
+		return sb.toString();
+	}
+
+	// Flota, almacenes y tipos de scripts/data; pedidos y bloqueos generados con semilla fija
+	private static SchedulerState fixture() {
+		Random random = new Random(SEED);
+		Time initTime = new Time(2025, 1, 1, 0, 0);
+
+		List<PlannerVehicle> vehicles = new ArrayList<>();
+		String[] types = { "TA", "TB", "TC", "TD" };
+		double[] weights = { 2500, 2000, 1500, 1000 };
+		int[] maxGLP = { 25, 15, 10, 5 };
+		int[] units = { 2, 3, 3, 4 };
+		int id = 1;
+		for (int t = 0; t < types.length; t++) {
+			for (int u = 1; u <= units[t]; u++) {
+				vehicles.add(new PlannerVehicle(id++, String.format("%s%02d", types[t], u), types[t],
+					PlannerVehicle.VehicleState.IDLE, weights[t], 25, 25.0, maxGLP[t], maxGLP[t], new Position(12, 8), false));
+			}
+		}
+
+		List<PlannerWarehouse> warehouses = new ArrayList<>();
+		warehouses.add(new PlannerWarehouse(1, new Position(12, 8), 1_000_000_000, 1_000_000_000, true, false));
+		warehouses.add(new PlannerWarehouse(2, new Position(42, 42), 160, 160, false, false));
+		warehouses.add(new PlannerWarehouse(3, new Position(63, 3), 160, 160, false, false));
+
+		List<PlannerOrder> orders = new ArrayList<>();
+		for (int k = 1; k <= 80; k++) {
+			Time arrival = initTime.addMinutes(random.nextInt(INTERVALS * SimulationProperties.replanningInterval - 60));
+			Position position = new Position(random.nextInt(SimulationProperties.gridLength + 1), random.nextInt(SimulationProperties.gridWidth + 1));
+			orders.add(new PlannerOrder(k, arrival, position, 1 + random.nextInt(10), "c-" + k,
+				arrival.addMinutes(60 * (4 + random.nextInt(20)))));
+		}
+		orders.sort((a, b) -> a.arrivalTime.compareTo(b.arrivalTime));
+
+		List<PlannerBlockage> blockages = new ArrayList<>();
+		for (int k = 1; k <= 12; k++) {
+			Time start = initTime.addMinutes(random.nextInt(INTERVALS * SimulationProperties.replanningInterval));
+			int x = 5 + random.nextInt(60);
+			int y = 5 + random.nextInt(40);
+			List<Position> vertices = random.nextBoolean()
+				? List.of(new Position(x, y), new Position(x, y + 5 + random.nextInt(10)))
+				: List.of(new Position(x, y), new Position(x + 5 + random.nextInt(10), y), new Position(x + 5, y + 4));
+			blockages.add(new PlannerBlockage(k, start, start.addMinutes(120 + random.nextInt(600)), vertices));
+		}
+
+		List<PlannerMaintenance> maintenances = new ArrayList<>();
+		Time dayOne = initTime.addMinutes(8 * 60);
+		Time dayTwo = initTime.addMinutes(Time.MINUTES_PER_DAY);
+		maintenances.add(new PlannerMaintenance(1, "TA02", dayOne, dayOne.addMinutes(12 * 60)));
+		maintenances.add(new PlannerMaintenance(2, "TC01", dayTwo, dayTwo.addMinutes(Time.MINUTES_PER_DAY - 1)));
+		maintenances.add(new PlannerMaintenance(3, "TD03", initTime.addMinutes(3 * 60), initTime.addMinutes(5 * 60)));
+
+		List<PlannerFailure> failures = new ArrayList<>();
+		PlannerFailure.FailureType[] failureTypes = PlannerFailure.FailureType.values();
+		PlannerFailure.Shift[] shifts = PlannerFailure.Shift.values();
+		for (int k = 0; k < 9; k++) {
+			PlannerVehicle vehicle = vehicles.get(k);
+			failures.add(new PlannerFailure(k + 1, failureTypes[k % failureTypes.length], shifts[k % shifts.length], vehicle.plaque, null));
+		}
+
+		return new SchedulerState(vehicles, orders, blockages, warehouses, failures, maintenances,
+			initTime.clone(), SimulationProperties.replanningInterval, initTime);
+	}
+}
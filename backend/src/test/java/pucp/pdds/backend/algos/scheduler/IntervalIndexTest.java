@@ -0,0 +1,116 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntervalIndexTest {
+
+	@Test
+	void boundsAreInclusive() {
+		IntervalIndex<String> index = new IntervalIndex<>();
+		index.add("a", 10, 20);
+
+		assertEquals(List.of(), index.activeAt(9));
+		assertEquals(List.of("a"), index.activeAt(10));
+		assertEquals(List.of("a"), index.activeAt(20));
+		assertEquals(List.of(), index.activeAt(21));
+		assertEquals(List.of("a"), index.overlapping(0, 10));
+		assertEquals(List.of("a"), index.overlapping(20, 30));
+		assertEquals(List.of(), index.overlapping(21, 30));
+	}
+
+	@Test
+	void resultsKeepInsertionOrder() {
+		IntervalIndex<String> index = new IntervalIndex<>();
+		index.add("late", 50, 60);
+		index.add("early", 0, 100);
+		index.add("same", 50, 55);
+
+		assertEquals(List.of("late", "early", "same"), index.activeAt(55));
+
+		// Added after the first query (and flush), still returned after the older items
+		index.add("first", -10, 200);
+		assertEquals(List.of("late", "early", "same", "first"), index.activeAt(55));
+	}
+
+	@Test
+	void nextChangeIsTheNextStartOrTheMinuteAfterAnEnd() {
+		IntervalIndex<String> index = new IntervalIndex<>();
+		index.add("a", 10, 20);
+		index.add("b", 15, 40);
+
+		assertEquals(10, index.nextChange(0));
+		assertEquals(10, index.nextChange(10));
+		assertEquals(15, index.nextChange(11));
+		assertEquals(21, index.nextChange(16));
+		assertEquals(41, index.nextChange(22));
+		assertEquals(Integer.MAX_VALUE, index.nextChange(42));
+
+		// Agregado después de una consulta
+		index.add("c", 30, 30);
+		assertEquals(30, index.nextChange(22));
+		assertEquals(31, index.nextChange(31));
+	}
+
+	@Test
+	void clearEmptiesTheIndex() {
+		IntervalIndex<String> index = new IntervalIndex<>();
+		index.add("a", 0, 10);
+		index.activeAt(5);
+		index.add("b", 0, 10);
+		index.clear();
+
+		assertEquals(0, index.size());
+		assertEquals(List.of(), index.activeAt(5));
+		index.add("c", 0, 10);
+		assertEquals(List.of("c"), index.activeAt(5));
+	}
+
+	@Test
+	void matchesBruteForce() {
+		Random random = new Random(1);
+		for (int round = 0; round < 200; round++) {
+			IntervalIndex<Integer> index = new IntervalIndex<>();
+			List<int[]> intervals = new ArrayList<>();
+			int count = random.nextInt(300);
+			for (int k = 0; k < count; k++) {
+				int start = random.nextInt(1000);
+				int end = start + random.nextInt(200) - 5; // Algunos vacíos (end < start)
+				intervals.add(new int[] { start, end });
+				index.add(k, start, end);
+				// Consultas intercaladas: los siguientes add quedan pendientes hasta otro flush
+				if (random.nextInt(50) == 0) {
+					checkQueries(index, intervals, random);
+				}
+			}
+			checkQueries(index, intervals, random);
+		}
+	}
+
+	private static void checkQueries(IntervalIndex<Integer> index, List<int[]> intervals, Random random) {
+		for (int q = 0; q < 20; q++) {
+			int from = random.nextInt(1200) - 100;
+			int to = from + random.nextInt(100);
+			List<Integer> expected = new ArrayList<>();
+			for (int k = 0; k < intervals.size(); k++) {
+				if (intervals.get(k)[0] <= to && intervals.get(k)[1] >= from) {
+					expected.add(k);
+				}
+			}
+			assertEquals(expected, index.overlapping(from, to), "[" + from + ", " + to + "]");
+
+			List<Integer> active = new ArrayList<>();
+			for (int k = 0; k < intervals.size(); k++) {
+				if (intervals.get(k)[0] <= from && intervals.get(k)[1] >= from) {
+					active.add(k);
+				}
+			}
+			assertEquals(active, index.activeAt(from), "minute " + from);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package pucp.pdds.backend.algos.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.algorithm.Environment;
+import pucp.pdds.backend.algos.algorithm.Solution;
+import pucp.pdds.backend.algos.entities.PlannerOrder;
+import pucp.pdds.backend.algos.entities.PlannerVehicle;
+import pucp.pdds.backend.algos.entities.PlannerWarehouse;
+import pucp.pdds.backend.algos.utils.Position;
+import pucp.pdds.backend.algos.utils.SimulationProperties;
+import pucp.pdds.backend.algos.utils.Time;
+
+/**
+ * When the executed state is not the one a queued plan was made for, next() must replan from
+ * the executed state instead of waiting for a plan that will never come.
+ */
+class PlanningPipelineTest {
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final ReentrantLock stateLock = new ReentrantLock();
+	private PlanningPipeline pipeline;
+
+	@BeforeEach
+	void startPipeline() {
+		pipeline = new PlanningPipeline(PlanningPipelineTest::plan, (state, sol) -> state.advance(sol, false), 2,
+			message -> { });
+	}
+
+	@AfterEach
+	void stopPipeline() {
+		pipeline.stop();
+	}
+
+	@Test
+	void replansWhenTheClockIsNotTheExpectedMinute() {
+		SchedulerState state = fixture();
+		pipeline.start(state.clone(), null, "test-pipeline");
+		PlanningPipeline.Plan first = take(state);
+
+		// El ejecutor avanza un minuto más que el intervalo: la cola tiene planes para otro minuto
+		execute(state, first.solution);
+		state.advance(first.solution, false);
+
+		PlanningPipeline.Plan second = take(state);
+		assertEquals(state.getCurrTime().toEpochMinute(), second.startMinute);
+		assertEquals(state.planningFingerprint(), second.fingerprint);
+	}
+
+	@Test
+	void replansWhenTheStateDiverged() {
+		SchedulerState state = fixture();
+		pipeline.start(state.clone(), null, "test-pipeline");
+		PlanningPipeline.Plan first = take(state);
+
+		execute(state, first.solution);
+		state.getWarehouses().get(0).currentGLP -= 7; // Algo que la predicción no conoce
+
+		PlanningPipeline.Plan second = take(state);
+		assertEquals(state.getCurrTime().toEpochMinute(), second.startMinute);
+		assertEquals(state.planningFingerprint(), second.fingerprint);
+	}
+
+	@Test
+	void predictedPlansAreTakenInOrder() {
+		SchedulerState state = fixture();
+		pipeline.start(state.clone(), null, "test-pipeline");
+
+		for (int interval = 0; interval < 3; interval++) {
+			PlanningPipeline.Plan plan = take(state);
+			assertEquals(state.getCurrTime().toEpochMinute(), plan.startMinute);
+			execute(state, plan.solution);
+		}
+	}
+
+	@Test
+	void restartStopsOnlyTheSearchItInvalidates() throws InterruptedException {
+		List<CountDownLatch> searches = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch firstStarted = new CountDownLatch(1);
+		pipeline = new PlanningPipeline((state, previous) -> {
+			CountDownLatch stopped = new CountDownLatch(1);
+			searches.add(stopped);
+			pipeline.registerSearch(stopped::countDown);
+			if (searches.size() == 1) {
+				// La primera búsqueda solo termina cuando la cortan
+				firstStarted.countDown();
+				try {
+					stopped.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return plan(state, previous);
+		}, (state, sol) -> state.advance(sol, false), 2, message -> { });
+
+		SchedulerState state = fixture();
+		pipeline.start(state.clone(), null, "test-pipeline");
+		assertTrue(firstStarted.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+		pipeline.restart(state.clone(), null);
+
+		take(state);
+		assertEquals(0, searches.get(0).getCount(), "the invalidated search was not stopped");
+		synchronized (searches) {
+			for (int k = 1; k < searches.size(); k++) {
+				assertEquals(1, searches.get(k).getCount(), "search " + k + " of the current generation was stopped");
+			}
+		}
+	}
+
+	private PlanningPipeline.Plan take(SchedulerState state) {
+		PlanningPipeline.Plan plan = assertTimeoutPreemptively(TIMEOUT, () -> pipeline.next(state, stateLock));
+		assertEquals(plan.fingerprint, state.planningFingerprint(), "plan for another state");
+		return plan;
+	}
+
+	private static void execute(SchedulerState state, Solution solution) {
+		state.initializeVehicles();
+		for (int minute = 0; minute < state.minutesToSimulate; minute++) {
+			state.advance(solution, false);
+		}
+	}
+
+	// Solución aleatoria: la prueba es sobre el pipeline, no sobre la calidad del plan
+	private static Solution plan(SchedulerState state, Solution previous) {
+		Environment environment = new Environment(state.getActiveVehicles(), state.getActiveOrders(), state.getWarehouses(),
+			state.getActiveBlockagesOverTimeFrame(state.getCurrTime(), state.getCurrTime().addMinutes(state.minutesToSimulate)),
+			state.getFailures(), state.getActiveMaintenances(), state.getCurrTime(), state.minutesToSimulate);
+		return environment.getRandomSolution();
+	}
+
+	private static SchedulerState fixture() {
+		Time initTime = new Time(2025, 1, 1, 0, 0);
+
+		List<PlannerVehicle> vehicles = new ArrayList<>();
+		vehicles.add(new PlannerVehicle(1, "TA01", "TA", PlannerVehicle.VehicleState.IDLE, 2500, 25, 25.0, 25, 25, new Position(12, 8), false));
+		vehicles.add(new PlannerVehicle(2, "TB01", "TB", PlannerVehicle.VehicleState.IDLE, 2000, 25, 25.0, 15, 15, new Position(12, 8), false));
+		vehicles.add(new PlannerVehicle(3, "TD01", "TD", PlannerVehicle.VehicleState.IDLE, 1000, 25, 25.0, 5, 5, new Position(12, 8), false));
+
+		List<PlannerWarehouse> warehouses = new ArrayList<>();
+		warehouses.add(new PlannerWarehouse(1, new Position(12, 8), 1_000_000_000, 1_000_000_000, true, false));
+		warehouses.add(new PlannerWarehouse(2, new Position(42, 42), 160, 160, false, false));
+
+		List<PlannerOrder> orders = new ArrayList<>();
+		for (int k = 1; k <= 12; k++) {
+			Time arrival = initTime.addMinutes(30 * k);
+			orders.add(new PlannerOrder(k, arrival, new Position((7 * k) % SimulationProperties.gridLength, (5 * k) % SimulationProperties.gridWidth),
+				1 + k % 5, "c-" + k, arrival.addMinutes(8 * 60)));
+		}
+
+		return new SchedulerState(vehicles, orders, new ArrayList<>(), warehouses, new ArrayList<>(), new ArrayList<>(),
+			initTime.clone(), SimulationProperties.replanningInterval, initTime);
+	}
+}
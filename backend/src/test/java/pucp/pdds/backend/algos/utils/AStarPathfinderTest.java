@@ -0,0 +1,74 @@
+package pucp.pdds.backend.algos.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+
+/**
+ * The primitive A* must return exactly the paths of the PriorityQueue version (LegacyAStarPathfinder),
+ * including the choice between paths of equal length.
+ */
+class AStarPathfinderTest {
+	private static final Time START = new Time(2025, 1, 1, 0, 0);
+
+	@Test
+	void returnsTheSamePathsAsTheLegacyImplementation() {
+		Random random = new Random(7);
+		for (int layout = 0; layout < 100; layout++) {
+			List<PlannerBlockage> blockages = randomBlockages(random, 5 + random.nextInt(60));
+			for (int query = 0; query < 10; query++) {
+				Position from = randomPoint(random);
+				Position to = randomPoint(random);
+				assertEquals(LegacyAStarPathfinder.findPath(from, to, blockages), AStarPathfinder.findPath(from, to, blockages),
+					"layout " + layout + ", " + from + " -> " + to);
+			}
+		}
+	}
+
+	@Test
+	void returnsTheSamePathsOnADenseGrid() {
+		// Muchos bloqueos: más empates entre caminos y más nodos repetidos en la cola
+		Random random = new Random(11);
+		for (int layout = 0; layout < 20; layout++) {
+			List<PlannerBlockage> blockages = randomBlockages(random, 150);
+			for (int query = 0; query < 10; query++) {
+				Position from = randomPoint(random);
+				Position to = randomPoint(random);
+				assertEquals(LegacyAStarPathfinder.findPath(from, to, blockages), AStarPathfinder.findPath(from, to, blockages),
+					"layout " + layout + ", " + from + " -> " + to);
+			}
+		}
+	}
+
+	private static Position randomPoint(Random random) {
+		return new Position(random.nextInt(SimulationProperties.gridLength + 1), random.nextInt(SimulationProperties.gridWidth + 1));
+	}
+
+	// Polilíneas de tramos horizontales y verticales, como las de los archivos de bloqueos
+	static List<PlannerBlockage> randomBlockages(Random random, int count) {
+		List<PlannerBlockage> blockages = new ArrayList<>();
+		for (int b = 0; b < count; b++) {
+			List<Position> vertices = new ArrayList<>();
+			int x = random.nextInt(SimulationProperties.gridLength + 1);
+			int y = random.nextInt(SimulationProperties.gridWidth + 1);
+			vertices.add(new Position(x, y));
+			int segments = 1 + random.nextInt(4);
+			for (int k = 0; k < segments; k++) {
+				if (random.nextBoolean()) {
+					x = Math.max(0, Math.min(SimulationProperties.gridLength, x + random.nextInt(21) - 10));
+				} else {
+					y = Math.max(0, Math.min(SimulationProperties.gridWidth, y + random.nextInt(21) - 10));
+				}
+				vertices.add(new Position(x, y));
+			}
+			blockages.add(new PlannerBlockage(b, START, START.addMinutes(100), vertices));
+		}
+		return blockages;
+	}
+}
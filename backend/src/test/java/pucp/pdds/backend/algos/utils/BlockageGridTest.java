@@ -0,0 +1,106 @@
+package pucp.pdds.backend.algos.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+
+/**
+ * The rasterized predicates must agree with the per-blockage checks they replace: blocked edges with
+ * the geometric rule of the legacy A*, blocked routes with PathBuilder's per-blockage check.
+ */
+class BlockageGridTest {
+	private static final Time START = new Time(2025, 1, 1, 0, 0);
+
+	@Test
+	void blockedEdgesMatchTheLegacyRule() {
+		Random random = new Random(3);
+		for (int layout = 0; layout < 30; layout++) {
+			assertSameEdges(AStarPathfinderTest.randomBlockages(random, 5 + random.nextInt(60)), layout);
+		}
+	}
+
+	@Test
+	void blockedEdgesMatchTheLegacyRuleForFractionalAndDiagonalBlockages() {
+		// Geometrías que no traen los archivos, pero que el rasterizado también debe respetar
+		Random random = new Random(5);
+		for (int layout = 0; layout < 30; layout++) {
+			assertSameEdges(irregularBlockages(random, 5 + random.nextInt(30)), layout);
+		}
+	}
+
+	@Test
+	void blockedRoutesMatchThePerBlockageCheck() {
+		Random random = new Random(9);
+		int checked = 0;
+		for (int layout = 0; layout < 30; layout++) {
+			List<PlannerBlockage> blockages = AStarPathfinderTest.randomBlockages(random, 5 + random.nextInt(60));
+			BlockageGrid grid = BlockageGrid.of(blockages);
+			for (int query = 0; query < 500; query++) {
+				Position from = randomPoint(random);
+				Position to = random.nextBoolean()
+					? new Position(from.x, random.nextInt(SimulationProperties.gridWidth + 1))
+					: new Position(random.nextInt(SimulationProperties.gridLength + 1), from.y);
+				if (from.equals(to)) continue;
+
+				assertTrue(grid.canCheckRoute(from, to), from + " -> " + to);
+				assertEquals(PathBuilder.isPathBlocked(from, to, blockages), grid.isRouteBlocked(from, to),
+					"layout " + layout + ", " + from + " -> " + to);
+				checked++;
+			}
+		}
+		assertTrue(checked > 0);
+	}
+
+	private static void assertSameEdges(List<PlannerBlockage> blockages, int layout) {
+		BlockageGrid grid = BlockageGrid.of(blockages);
+		for (int x = 0; x <= SimulationProperties.gridLength; x++) {
+			for (int y = 0; y <= SimulationProperties.gridWidth; y++) {
+				Position from = new Position(x, y);
+				if (x < SimulationProperties.gridLength) {
+					Position right = new Position(x + 1, y);
+					assertEquals(LegacyAStarPathfinder.isBlocked(from, right, blockages), grid.isEdgeBlocked(x, y, x + 1, y),
+						"layout " + layout + ", " + from + " -> " + right);
+					assertEquals(LegacyAStarPathfinder.isBlocked(right, from, blockages), grid.isEdgeBlocked(x + 1, y, x, y),
+						"layout " + layout + ", " + right + " -> " + from);
+				}
+				if (y < SimulationProperties.gridWidth) {
+					Position up = new Position(x, y + 1);
+					assertEquals(LegacyAStarPathfinder.isBlocked(from, up, blockages), grid.isEdgeBlocked(x, y, x, y + 1),
+						"layout " + layout + ", " + from + " -> " + up);
+					assertEquals(LegacyAStarPathfinder.isBlocked(up, from, blockages), grid.isEdgeBlocked(x, y + 1, x, y),
+						"layout " + layout + ", " + up + " -> " + from);
+				}
+			}
+		}
+	}
+
+	private static Position randomPoint(Random random) {
+		return new Position(random.nextInt(SimulationProperties.gridLength + 1), random.nextInt(SimulationProperties.gridWidth + 1));
+	}
+
+	// Vértices en medios puntos y tramos diagonales
+	private static List<PlannerBlockage> irregularBlockages(Random random, int count) {
+		List<PlannerBlockage> blockages = new ArrayList<>();
+		for (int b = 0; b < count; b++) {
+			List<Position> vertices = new ArrayList<>();
+			double x = random.nextInt(2 * SimulationProperties.gridLength + 1) / 2.0;
+			double y = random.nextInt(2 * SimulationProperties.gridWidth + 1) / 2.0;
+			vertices.add(new Position(x, y));
+			int segments = 1 + random.nextInt(3);
+			for (int k = 0; k < segments; k++) {
+				x = Math.max(0, Math.min(SimulationProperties.gridLength, x + (random.nextInt(21) - 10) / 2.0));
+				y = Math.max(0, Math.min(SimulationProperties.gridWidth, y + (random.nextInt(21) - 10) / 2.0));
+				vertices.add(new Position(x, y));
+			}
+			blockages.add(new PlannerBlockage(b, START, START.addMinutes(100), vertices));
+		}
+		return blockages;
+	}
+}
@@ -0,0 +1,92 @@
+package pucp.pdds.backend.algos.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pucp.pdds.backend.algos.entities.PlannerBlockage;
+
+class DistanceCacheTest {
+	private static final Time START = new Time(2025, 1, 1, 0, 0);
+
+	private int cacheSize;
+
+	@BeforeEach
+	void saveSize() {
+		cacheSize = SimulationProperties.distanceCacheSize;
+		DistanceCache.clear();
+	}
+
+	@AfterEach
+	void restoreSize() {
+		SimulationProperties.distanceCacheSize = cacheSize;
+		DistanceCache.clear();
+	}
+
+	@Test
+	void sameGeometryInAnyOrderSharesTheSegment() {
+		PlannerBlockage a = blockage(1, 10, 10, 10, 20);
+		PlannerBlockage b = blockage(2, 30, 5, 40, 5);
+		// Las horas no cuentan, solo los vértices
+		PlannerBlockage laterA = new PlannerBlockage(3, START.addMinutes(600), START.addMinutes(900), a.vertices);
+
+		DistanceCache.Segment segment = DistanceCache.segment(List.of(a, b));
+		assertSame(segment, DistanceCache.segment(List.of(b, laterA)));
+		assertNotSame(segment, DistanceCache.segment(List.of(a)));
+	}
+
+	@Test
+	void distancesAreSymmetricAndPerGeometry() {
+		DistanceCache.Segment segment = DistanceCache.segment(List.of(blockage(1, 10, 10, 10, 20)));
+		DistanceCache.Segment other = DistanceCache.segment(List.of(blockage(1, 11, 10, 11, 20)));
+		segment.put(Position.of(0, 0), Position.of(20, 15), 42.0);
+
+		assertEquals(42.0, segment.get(Position.of(20, 15), Position.of(0, 0)));
+		assertNull(other.get(Position.of(0, 0), Position.of(20, 15)));
+	}
+
+	@Test
+	void leastRecentlyUsedSegmentsAreDropped() {
+		SimulationProperties.distanceCacheSize = 10;
+		List<PlannerBlockage> first = List.of(blockage(1, 1, 1, 1, 5));
+		List<PlannerBlockage> second = List.of(blockage(1, 2, 1, 2, 5));
+		List<PlannerBlockage> third = List.of(blockage(1, 3, 1, 3, 5));
+
+		fill(DistanceCache.segment(first), 4);
+		fill(DistanceCache.segment(second), 4);
+		DistanceCache.segment(first); // second es ahora el menos usado
+		fill(DistanceCache.segment(third), 4);
+
+		assertTrue(DistanceCache.size() <= 10, "size " + DistanceCache.size());
+		assertEquals(1.0, DistanceCache.segment(first).get(Position.of(0, 0), Position.of(1, 0)));
+		assertNull(DistanceCache.segment(second).get(Position.of(0, 0), Position.of(1, 0)));
+	}
+
+	@Test
+	void aSegmentStopsGrowingAtTheLimit() {
+		SimulationProperties.distanceCacheSize = 5;
+		DistanceCache.Segment segment = DistanceCache.segment(List.of(blockage(1, 1, 1, 1, 5)));
+		fill(segment, 20);
+
+		assertEquals(5, DistanceCache.size());
+		assertEquals(1.0, segment.get(Position.of(0, 0), Position.of(1, 0)));
+	}
+
+	private static void fill(DistanceCache.Segment segment, int count) {
+		for (int k = 1; k <= count; k++) {
+			segment.put(Position.of(0, 0), Position.of(k, 0), k);
+		}
+	}
+
+	private static PlannerBlockage blockage(int id, int x1, int y1, int x2, int y2) {
+		return new PlannerBlockage(id, START, START.addMinutes(120), List.of(Position.of(x1, y1), Position.of(x2, y2)));
+	}
+}
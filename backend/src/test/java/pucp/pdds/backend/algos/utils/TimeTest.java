@@ -0,0 +1,90 @@
+package pucp.pdds.backend.algos.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class TimeTest {
+
+	@Test
+	void day31KeepsTheRealDate() {
+		Time time = new Time(2025, 1, 31, 10, 15);
+
+		assertEquals(31, time.getDay());
+		assertEquals(1, time.getMonth());
+		assertEquals(2025, time.getYear());
+		assertEquals(LocalDateTime.of(2025, 1, 31, 10, 15), time.toLocalDateTime());
+		assertEquals("2025/01/31 10:15", time.toString());
+	}
+
+	@Test
+	void day31EndOfYear() {
+		Time time = new Time(2025, 12, 31, 23, 59);
+
+		assertEquals(LocalDateTime.of(2025, 12, 31, 23, 59), time.toLocalDateTime());
+		assertEquals(2026, time.addMinutes(1).getYear());
+		assertEquals(1, time.addMinutes(1).getMonth());
+	}
+
+	@Test
+	void day31OrdersOnTheThirtyDayCalendar() {
+		Time day30 = new Time(2025, 1, 30, 10, 0);
+		Time day31 = new Time(2025, 1, 31, 10, 0);
+		Time nextMonth = new Time(2025, 2, 1, 10, 0);
+
+		assertEquals(Time.MINUTES_PER_DAY, day30.minutesUntil(day31));
+		assertTrue(day30.isBefore(day31));
+		assertEquals(0, day31.compareTo(nextMonth));
+	}
+
+	@Test
+	void arithmeticStaysOnDay31UntilMidnight() {
+		Time time = new Time(2025, 3, 31, 10, 0);
+
+		assertEquals(LocalDateTime.of(2025, 3, 31, 23, 59), time.addMinutes(13 * 60 + 59).toLocalDateTime());
+		// Past midnight it continues on the minute count, which never goes back
+		Time nextDay = time.addMinutes(14 * 60);
+		assertTrue(nextDay.isAfter(time.addMinutes(13 * 60 + 59)));
+		assertEquals(4, nextDay.getMonth());
+		assertEquals(time.addMinutes(14 * 60 + 1), nextDay.addMinutes(1));
+		assertEquals(LocalDateTime.of(2025, 3, 31, 0, 0), time.subtractMinutes(10 * 60).toLocalDateTime());
+		assertEquals(LocalDateTime.of(2025, 3, 30, 23, 59), time.subtractMinutes(10 * 60 + 1).toLocalDateTime());
+		assertEquals(LocalDateTime.of(2025, 3, 31, 10, 0), time.copy().toLocalDateTime());
+		assertEquals(LocalDateTime.of(2025, 3, 31, 10, 0), new Time(time).toLocalDateTime());
+	}
+
+	@Test
+	void settersDoNotDependOnTheOrder() {
+		Time dayFirst = new Time();
+		dayFirst.setDay(31);
+		dayFirst.setMonth(5);
+		dayFirst.setYear(2025);
+		dayFirst.setHour(8);
+		dayFirst.setMinute(30);
+
+		Time dayLast = new Time();
+		dayLast.setMinute(30);
+		dayLast.setHour(8);
+		dayLast.setYear(2025);
+		dayLast.setMonth(5);
+		dayLast.setDay(31);
+
+		LocalDateTime expected = LocalDateTime.of(2025, 5, 31, 8, 30);
+		assertEquals(expected, dayFirst.toLocalDateTime());
+		assertEquals(expected, dayLast.toLocalDateTime());
+		assertEquals(dayFirst, dayLast);
+	}
+
+	@Test
+	void realDatesRoundTrip() {
+		LocalDateTime date = LocalDateTime.of(2024, 2, 1, 0, 0);
+		while (date.getYear() < 2026) {
+			Time time = new Time(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), date.getHour(), date.getMinute());
+			assertEquals(date, time.toLocalDateTime());
+			date = date.plusMinutes(37);
+		}
+	}
+}
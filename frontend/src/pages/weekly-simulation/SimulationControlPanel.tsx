@@ -464,6 +464,8 @@ const SimulationControlPanel: React.FC<SimulationControlPanelProps & { onVehicul
   // Para el resumen de simulación
   const [simulationSummary, setSimulationSummary] = useState<any>(null);
   const [simulationHistory, setSimulationHistory] = useState<any[]>([]);
+  // Progreso del planificador (mejor solución encontrada hasta ahora en el intervalo actual)
+  const [planningProgress, setPlanningProgress] = useState<any>(null);
   
 
   const [scale, setScale] = useState<{ margin: number; scaleX: number; scaleY: number }>({
@@ -575,6 +577,9 @@ const SimulationControlPanel: React.FC<SimulationControlPanelProps & { onVehicul
           return;
         case 'STATE_UPDATED':
           return;
+        case 'PLANNING_PROGRESS':
+          setPlanningProgress(typedResponse.data);
+          return;
         case 'SIMULATION_UPDATE':
           // Handle simulation update data
           if (canvasRef.current) {
@@ -1196,6 +1201,13 @@ const SimulationControlPanel: React.FC<SimulationControlPanelProps & { onVehicul
             border: '1px solid #ccc',
             background: '#fff',
             zIndex: 1,}} />
+          {isSimulating && planningProgress && (
+            <Box position="absolute" top={2} right={2} zIndex={2} bg="white" borderWidth="1px" borderRadius="md" px={3} py={1} opacity={0.9}>
+              <Text fontSize="xs" fontWeight="bold">Planificación {planningProgress.intervalo}</Text>
+              <Text fontSize="xs">Fitness: {Number(planningProgress.fitness).toFixed(2)} ({planningProgress.factible ? 'factible' : 'no factible'})</Text>
+              <Text fontSize="xs">Iteración {planningProgress.iteracion} · {planningProgress.tiempoMs} ms</Text>
+            </Box>
+          )}
         </Box>
         {selectedVehicle && vehiclePanelPos && vehicleCardPos && (
           <Box